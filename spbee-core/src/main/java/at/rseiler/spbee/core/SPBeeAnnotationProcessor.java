@@ -6,6 +6,7 @@ import at.rseiler.spbee.core.annotation.ResultSet;
 import at.rseiler.spbee.core.collector.DtoCollector;
 import at.rseiler.spbee.core.collector.EntityClassCollector;
 import at.rseiler.spbee.core.collector.ResultSetCollector;
+import at.rseiler.spbee.core.generator.AsyncDaoGenerator;
 import at.rseiler.spbee.core.generator.DtoGenerator;
 import at.rseiler.spbee.core.generator.MapperGenerator;
 import at.rseiler.spbee.core.generator.StoredProcedureGenerator;
@@ -151,8 +152,9 @@ public class SPBeeAnnotationProcessor extends AbstractProcessor {
     private void generateCode(AnnotationProcessingContext context) {
         try {
             new MapperGenerator(processingEnv).generateMappers(context.getMapperClasses());
-            new StoredProcedureGenerator(processingEnv, context.getResultSetsMap()).generateStoredProcedureClasses(context.getDtoClasses());
+            new StoredProcedureGenerator(processingEnv, context.getConfig(), context.getResultSetsMap()).generateStoredProcedureClasses(context.getDtoClasses());
             new DtoGenerator(processingEnv, context.getConfig(), context.getResultSetsMap()).generateDtoClasses(context.getDtoClasses());
+            new AsyncDaoGenerator(processingEnv, context.getConfig()).generateAsyncDaoClasses(context.getDtoClasses());
         } catch (ClassNotFoundException | JClassAlreadyExistsException | IOException e) {
             processingEnv.getMessager().printMessage(Kind.ERROR, getStackTrace(e));
         }
@@ -0,0 +1,29 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Marks a void stored procedure method which takes a {@link java.util.List} as its only parameter. The stored procedure
+ * is called for each element of the list with JDBC batching: one CallableStatement and one connection.
+ * <p>
+ * The fields of the list elements, in the order of their declaration, are the parameters of the stored procedure.
+ * They are read with their getters.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Batch {
+
+    /**
+     * Defines how many calls are sent to the database in one round trip. Must be positive.
+     *
+     * @return the batch size
+     */
+    int value() default 1000;
+
+}
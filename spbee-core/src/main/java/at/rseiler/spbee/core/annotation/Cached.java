@@ -0,0 +1,52 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Caches the results of the stored procedure method. The cache is keyed by the arguments of the method, entries
+ * expire after the time to live and the oldest entries are evicted if the cache is full.
+ * <p>
+ * The cache is generated into the DAO implementation, which implements {@link at.rseiler.spbee.core.cache.CachedDao}
+ * to access the caches, e.g. to invalidate them.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Cached {
+
+    /**
+     * Defines the time to live of an entry. 0 means that the entries don't expire, otherwise it must be at least one
+     * millisecond.
+     *
+     * @return the time to live
+     */
+    long ttl() default 60;
+
+    /**
+     * Defines the time unit of the time to live.
+     *
+     * @return the time unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Defines the maximum number of entries.
+     *
+     * @return the maximum number of entries
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Defines the tags of the cache. {@link Evict#tags()} invalidates all caches with one of the tags.
+     *
+     * @return the tags
+     */
+    String[] tags() default {};
+
+}
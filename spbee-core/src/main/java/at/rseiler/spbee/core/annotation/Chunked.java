@@ -0,0 +1,45 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Splits the array parameter of a stored procedure method which returns a {@link java.util.List} into chunks. The
+ * stored procedure is called once per chunk and the results are merged into one list.
+ * <p>
+ * The chunks are executed concurrently on the Executor of the DAO, the calling thread executes chunks too. Please note
+ * that the chunks which run on the Executor don't take part in a transaction of the calling thread.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Chunked {
+
+    /**
+     * Defines the maximum number of array elements per stored procedure call. Must be positive.
+     *
+     * @return the chunk size
+     */
+    int value() default 1000;
+
+    /**
+     * Defines how many chunks are executed at the same time. 1 executes the chunks one after the other on the calling
+     * thread. Must be positive.
+     *
+     * @return the maximum number of concurrent calls
+     */
+    int parallelism() default 4;
+
+    /**
+     * Defines if the results are merged in the order of the chunks. Otherwise they are merged in the order in which
+     * the chunks complete.
+     *
+     * @return true if the order of the chunks is kept
+     */
+    boolean ordered() default true;
+
+}
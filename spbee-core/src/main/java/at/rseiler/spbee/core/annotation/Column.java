@@ -0,0 +1,29 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.PARAMETER;
+
+/**
+ * Maps a parameter of a mapping constructor by the column label instead of the column position.
+ * <p>
+ * If a parameter of a mapping constructor is annotated with {@code @Column} then all parameters of this constructor
+ * are mapped by label. Parameters without the annotation use the parameter name as label. The column indexes are
+ * resolved on the first row of a result set, so the rows are still read by index.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {PARAMETER})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Column {
+
+    /**
+     * Defines the label of the column.
+     *
+     * @return the label of the column
+     */
+    String value();
+
+}
@@ -17,4 +17,14 @@ import static java.lang.annotation.ElementType.TYPE;
 @Target(value = {TYPE})
 @Retention(RetentionPolicy.SOURCE)
 public @interface Dao {
+
+    /**
+     * If true then an asynchronous companion is generated for the annotated interface or abstract class:
+     * the interface *AsyncDao with the same stored procedure methods returning a CompletableFuture and the
+     * implementation *AsyncDaoImpl which delegates to the synchronous DAO on an injected Executor.
+     *
+     * @return true if the asynchronous companion should be generated
+     */
+    boolean async() default false;
+
 }
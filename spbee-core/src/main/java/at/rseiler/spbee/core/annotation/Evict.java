@@ -0,0 +1,48 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Invalidates the caches of {@link Cached} methods of the same DAO after the annotated method called the stored
+ * procedure, e.g. after a write. The invalidation is repeated after the completion of a Spring transaction, so that a
+ * concurrent read can't cache the old data until the transaction commits.
+ * <ul>
+ * <li>Without a key all entries of the caches are invalidated.</li>
+ * <li>With a key only the entry whose arguments are the values of the given parameters is invalidated. The parameters
+ * must have the same types and order as the parameters of the cached methods.</li>
+ * </ul>
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+@Repeatable(Evicts.class)
+public @interface Evict {
+
+    /**
+     * Defines the names of the cached methods.
+     *
+     * @return the method names
+     */
+    String[] value() default {};
+
+    /**
+     * Defines the names of the parameters which are the key of the invalidated entries.
+     *
+     * @return the parameter names or empty to invalidate all entries
+     */
+    String[] key() default {};
+
+    /**
+     * Defines the tags of the cached methods whose caches are invalidated completely.
+     *
+     * @return the tags
+     */
+    String[] tags() default {};
+
+}
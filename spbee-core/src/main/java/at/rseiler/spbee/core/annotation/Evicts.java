@@ -0,0 +1,25 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * The container of the repeated {@link Evict} annotations.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Evicts {
+
+    /**
+     * The {@link Evict} annotations.
+     *
+     * @return the annotations
+     */
+    Evict[] value();
+
+}
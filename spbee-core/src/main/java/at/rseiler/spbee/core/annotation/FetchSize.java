@@ -0,0 +1,30 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * Defines the fetch size of the statement: the number of rows which are fetched from the database in one round
+ * trip. See {@link java.sql.Statement#setFetchSize(int)}.
+ * <p>
+ * On a {@link at.rseiler.spbee.core.annotation.Dao} it defines the fetch size of all its methods, unless a method
+ * declares its own.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {TYPE, METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface FetchSize {
+
+    /**
+     * Defines the fetch size. 0 means that the driver's default is used.
+     *
+     * @return the fetch size
+     */
+    int value();
+
+}
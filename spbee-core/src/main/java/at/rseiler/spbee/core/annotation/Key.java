@@ -0,0 +1,21 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.PARAMETER;
+
+/**
+ * Marks the parameter of an entity constructor which is the key of the entity, e.g. the id. The key is read with the
+ * getter of the parameter name.
+ * <p>
+ * A {@link Cached} method with one array or List parameter of the key type which returns a List of the entity caches
+ * the rows per key: only the keys which aren't cached are passed to the stored procedure.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {PARAMETER})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Key {
+}
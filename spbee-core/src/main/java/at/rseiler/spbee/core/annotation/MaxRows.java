@@ -0,0 +1,29 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * Limits the number of rows which are read from a result set. The remaining rows are silently dropped.
+ * See {@link java.sql.Statement#setMaxRows(int)}.
+ * <p>
+ * Can be used on a {@link at.rseiler.spbee.core.annotation.Dao} as default for all methods.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {TYPE, METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface MaxRows {
+
+    /**
+     * Defines the maximum number of rows. 0 means that there is no limit.
+     *
+     * @return the maximum number of rows
+     */
+    int value();
+
+}
@@ -0,0 +1,61 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Collects the concurrent calls of a single-key method, e.g. {@code User getUser(int id)}, and loads them with one call
+ * of a multi-key method of the same DAO, e.g. {@code List<User> getUsersByIds(Integer[] ids)}. The rows of the
+ * multi-key method are routed back to the callers by the {@link #key()} property of the rows.
+ * <p>
+ * The first call of a batch waits up to the {@link #window()} for more calls, then it executes the batch in its own
+ * thread. A batch with only one key is loaded with the stored procedure of the annotated method itself.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface MicroBatch {
+
+    /**
+     * Defines the name of the multi-key method. It must have one parameter, an array or a List of the (boxed) key
+     * type, and must return a List of the entity.
+     *
+     * @return the method name
+     */
+    String value();
+
+    /**
+     * Defines the property of the rows which is equal to the argument of the annotated method. It's read with its
+     * getter.
+     *
+     * @return the property name
+     */
+    String key() default "id";
+
+    /**
+     * Defines how long the first call of a batch waits for more calls.
+     *
+     * @return the window
+     */
+    long window() default 5;
+
+    /**
+     * Defines the time unit of the window.
+     *
+     * @return the time unit
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * Defines the maximum number of keys of a batch. A full batch is executed immediately.
+     *
+     * @return the maximum number of keys
+     */
+    int maxSize() default 100;
+
+}
@@ -0,0 +1,29 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Reads the return value of the stored procedure method from an OUT parameter instead of a result set. The OUT
+ * parameter is the last parameter of the stored procedure, after the IN parameters of the method.
+ * <p>
+ * Only basic types are allowed as return type, e.g. {@code int}, {@code long}, {@code String} or
+ * {@code java.sql.Timestamp}.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface Out {
+
+    /**
+     * Defines the name of the OUT parameter.
+     *
+     * @return the name of the OUT parameter
+     */
+    String value() default "result";
+
+}
@@ -0,0 +1,30 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * Defines how many seconds the driver waits for the stored procedure before the execution is cancelled.
+ * See {@link java.sql.Statement#setQueryTimeout(int)}.
+ * <p>
+ * Annotate the {@link at.rseiler.spbee.core.annotation.Dao} to bound all its stored procedures, a method can still
+ * declare a different timeout.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {TYPE, METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface QueryTimeout {
+
+    /**
+     * Defines the timeout in seconds. 0 means that there is no timeout.
+     *
+     * @return the timeout in seconds
+     */
+    int value();
+
+}
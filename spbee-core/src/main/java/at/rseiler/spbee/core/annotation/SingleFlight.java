@@ -0,0 +1,23 @@
+package at.rseiler.spbee.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Coalesces concurrent calls of the stored procedure method with equal arguments: while a call is executed the other
+ * calls with the same arguments wait for it and get its result (or its exception) instead of calling the stored
+ * procedure again. Nothing is kept after the call completed, combined with {@link Cached} only the cache misses are
+ * coalesced.
+ * <p>
+ * All waiting callers get the same result object: a List is returned as unmodifiable List, other results shouldn't
+ * be modified.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+@Target(value = {METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface SingleFlight {
+}
@@ -0,0 +1,52 @@
+package at.rseiler.spbee.core.cache;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidates the caches for the generated {@link at.rseiler.spbee.core.annotation.Evict} methods.
+ * <p>
+ * The entries are invalidated immediately. If the write runs in a Spring transaction then they are invalidated a
+ * second time after the transaction completed, because a concurrent read could have cached the old data before the
+ * commit.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class CacheInvalidation {
+
+    private CacheInvalidation() {
+    }
+
+    /**
+     * Invalidates the entry of the key.
+     *
+     * @param cache the cache
+     * @param key   the key, see {@link ProcedureCache#key(Object...)}
+     */
+    public static void invalidate(ProcedureCache<?> cache, Object key) {
+        cache.invalidate(key);
+        afterCompletion(() -> cache.invalidate(key));
+    }
+
+    /**
+     * Invalidates all entries.
+     *
+     * @param cache the cache
+     */
+    public static void invalidateAll(ProcedureCache<?> cache) {
+        cache.invalidateAll();
+        afterCompletion(cache::invalidateAll);
+    }
+
+    private static void afterCompletion(Runnable invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package at.rseiler.spbee.core.cache;
+
+/**
+ * Implemented by the generated DAO implementations which have {@link at.rseiler.spbee.core.annotation.Cached} methods.
+ * A DAO can extend this interface to access its caches without a cast.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public interface CachedDao {
+
+    /**
+     * Returns the cache of the DAO method.
+     *
+     * @param methodName the name of the DAO method
+     * @return the cache or null if the method isn't cached
+     */
+    ProcedureCache<?> getCache(String methodName);
+
+    /**
+     * Removes all entries of all caches of the DAO.
+     */
+    void invalidateCaches();
+
+}
@@ -0,0 +1,340 @@
+package at.rseiler.spbee.core.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The cache of a {@link at.rseiler.spbee.core.annotation.Cached} stored procedure method. The results are cached per
+ * key, i.e. the arguments of the method.
+ * <ul>
+ * <li>An entry expires after the time to live.</li>
+ * <li>If the cache holds more than {@code maxEntries} entries then the oldest entries are evicted.</li>
+ * <li>A result which was loaded while the cache was invalidated isn't cached, so an invalidation isn't undone by a
+ * concurrent call which still read the old data.</li>
+ * <li>The cached values are shared by all callers: a List is cached and returned as unmodifiable List, other values
+ * (entities, arrays) must not be modified by the callers.</li>
+ * </ul>
+ * Concurrent misses of the same key load the value independently.
+ * <p>
+ * The cache of a method which loads the rows of multiple keys caches each row by its key, see
+ * {@link #getAll(List, Function, Function)}.
+ *
+ * @param <V> the type of the cached values
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ProcedureCache<V> {
+
+    private static final Object NO_ARGUMENTS = new Object();
+    private static final Object NULL_ARGUMENT = new Object();
+
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<Object, Entry<V>> entries = new ConcurrentHashMap<>();
+    // the entries in the order of insertion, it may contain replaced entries which are skipped on eviction
+    private final Queue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new ProcedureCache.
+     *
+     * @param name       the name of the cache, the name of the DAO method
+     * @param ttlMillis  the time to live of an entry in milliseconds, 0 if the entries don't expire
+     * @param maxEntries the maximum number of entries
+     */
+    public ProcedureCache(String name, long ttlMillis, int maxEntries) {
+        this.name = name;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Creates the key of the arguments of a method call. The arrays of the arguments are compared by their elements.
+     *
+     * @param arguments the arguments
+     * @return the key
+     */
+    public static Object key(Object... arguments) {
+        if (arguments.length == 0) {
+            return NO_ARGUMENTS;
+        } else if (arguments.length == 1 && arguments[0] == null) {
+            return NULL_ARGUMENT;
+        } else if (arguments.length == 1 && !arguments[0].getClass().isArray()) {
+            return arguments[0];
+        }
+
+        return new ArgumentsKey(arguments);
+    }
+
+    /**
+     * Returns the cached value or loads and caches it.
+     *
+     * @param key    the key
+     * @param loader the loader which executes the stored procedure
+     * @return the (nullable) value, a List is unmodifiable
+     */
+    public V get(Object key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry != null) {
+            if (!entry.isExpired(System.nanoTime())) {
+                hits.increment();
+                return entry.value;
+            }
+
+            entries.remove(key, entry);
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = unmodifiable(loader.get());
+        putIfNotInvalidated(key, value, loadGeneration);
+        return value;
+    }
+
+    /**
+     * Returns the cached rows of the keys and loads the rows of the other keys with one call. The loaded rows are
+     * cached by their key. The rows are returned in the order of the keys, a key without a row is skipped and a key
+     * which is contained multiple times returns its row once. Each key counts as hit or miss.
+     *
+     * @param keys   the keys
+     * @param loader the loader which executes the stored procedure with the keys which aren't cached
+     * @param key    returns the key of a row
+     * @param <K>    the type of the keys
+     * @return the rows
+     */
+    public <K> List<V> getAll(List<K> keys, Function<List<K>, List<V>> loader, Function<V, K> key) {
+        long now = System.nanoTime();
+        Map<Object, V> rows = new HashMap<>();
+        List<K> missingKeys = new ArrayList<>();
+        Set<Object> distinctKeys = new HashSet<>();
+
+        for (K k : keys) {
+            Object cacheKey = key(k);
+
+            if (!distinctKeys.add(cacheKey)) {
+                continue;
+            }
+
+            Entry<V> entry = entries.get(cacheKey);
+
+            if (entry != null && !entry.isExpired(now)) {
+                hits.increment();
+                rows.put(cacheKey, entry.value);
+            } else {
+                if (entry != null) {
+                    entries.remove(cacheKey, entry);
+                }
+
+                misses.increment();
+                missingKeys.add(k);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            long loadGeneration = generation.get();
+
+            for (V row : loader.apply(missingKeys)) {
+                Object cacheKey = key(key.apply(row));
+                rows.put(cacheKey, row);
+                putIfNotInvalidated(cacheKey, row, loadGeneration);
+            }
+        }
+
+        List<V> result = new ArrayList<>(distinctKeys.size());
+        distinctKeys.clear();
+
+        for (K k : keys) {
+            Object cacheKey = key(k);
+
+            if (distinctKeys.add(cacheKey) && rows.containsKey(cacheKey)) {
+                result.add(rows.get(cacheKey));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the entry of the key.
+     *
+     * @param key the key
+     */
+    public void invalidate(Object key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Returns the name of the cache.
+     *
+     * @return the name of the DAO method
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of entries, including expired entries which weren't removed yet.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of calls which returned a cached value.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of calls which executed the stored procedure.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries which were evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Caches the value if the cache wasn't invalidated since the value was loaded. The generation is checked again
+     * after the entry was stored: an invalidation increments the generation before it removes the entries, so either
+     * the invalidation removes the new entry or the entry is removed here.
+     */
+    private void putIfNotInvalidated(Object key, V value, long loadGeneration) {
+        if (loadGeneration != generation.get()) {
+            return;
+        }
+
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+        Entry<V> entry = new Entry<>(key, value, expiresAt);
+        entries.put(key, entry);
+
+        if (loadGeneration != generation.get()) {
+            entries.remove(key, entry);
+            return;
+        }
+
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        evict();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unmodifiable(V value) {
+        return value instanceof List ? (V) Collections.unmodifiableList((List<?>) value) : value;
+    }
+
+    /**
+     * Evicts the oldest entries while the cache is full. The queue is trimmed too, so that the replaced entries don't
+     * accumulate.
+     */
+    private void evict() {
+        while (entries.size() > maxEntries || queued.get() > 2 * maxEntries) {
+            Entry<V> oldest = insertionOrder.poll();
+
+            if (oldest == null) {
+                return;
+            }
+
+            queued.decrementAndGet();
+
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProcedureCache{" +
+                "name='" + name + '\'' +
+                ", size=" + size() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+
+    private static class Entry<V> {
+
+        private final Object key;
+        private final V value;
+        private final long expiresAt;
+
+        Entry(Object key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+
+    }
+
+    private static class ArgumentsKey {
+
+        private final Object[] arguments;
+        private final int hashCode;
+
+        ArgumentsKey(Object[] arguments) {
+            this.arguments = arguments;
+            this.hashCode = Arrays.deepHashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ArgumentsKey && Arrays.deepEquals(arguments, ((ArgumentsKey) o).arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
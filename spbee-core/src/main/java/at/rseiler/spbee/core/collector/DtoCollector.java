@@ -1,9 +1,21 @@
 package at.rseiler.spbee.core.collector;
 
 import at.rseiler.spbee.core.SPBeeAnnotationProcessor;
+import at.rseiler.spbee.core.annotation.Batch;
+import at.rseiler.spbee.core.annotation.Cached;
+import at.rseiler.spbee.core.annotation.Chunked;
+import at.rseiler.spbee.core.annotation.Dao;
+import at.rseiler.spbee.core.annotation.Evict;
+import at.rseiler.spbee.core.annotation.FetchSize;
+import at.rseiler.spbee.core.annotation.Key;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
+import at.rseiler.spbee.core.annotation.MaxRows;
+import at.rseiler.spbee.core.annotation.MicroBatch;
+import at.rseiler.spbee.core.annotation.Out;
+import at.rseiler.spbee.core.annotation.QueryTimeout;
 import at.rseiler.spbee.core.annotation.ReturnNull;
 import at.rseiler.spbee.core.annotation.RowMapper;
+import at.rseiler.spbee.core.annotation.SingleFlight;
 import at.rseiler.spbee.core.annotation.StoredProcedure;
 import at.rseiler.spbee.core.pojo.DtoClass;
 import at.rseiler.spbee.core.pojo.StoredProcedureMethod;
@@ -12,9 +24,16 @@ import at.rseiler.spbee.core.pojo.Variable;
 import at.rseiler.spbee.core.util.StringUtil;
 
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -25,12 +44,22 @@ import java.util.stream.Collectors;
  * <li>gets all methods annotated with @StoredProcedure
  * <ul>
  * <li>extracts the method name</li>
- * <li>extracts the return type</li>
+ * <li>extracts the return type (the type of the CompletableFuture if it's an asynchronous method)</li>
  * <li>collects all parameters</li>
+ * <li>detects a trailing Consumer parameter of void methods</li>
+ * <li>checks that an entity with an InputStream or Reader column is only returned row by row</li>
+ * <li>collects the fields of the list elements as parameters if it's a @Batch method</li>
+ * <li>detects the array parameter of a @Chunked method</li>
+ * <li>reads the @Out annotation</li>
+ * <li>reads the @Cached annotation and the @Key parameter of the entity if the rows are cached per key</li>
+ * <li>reads the @Evict annotations</li>
+ * <li>reads the @SingleFlight annotation</li>
+ * <li>reads the @MicroBatch annotation</li>
  * <li>collects all non spBee annotations</li>
  * <li>reads the @StoredProcedure annotation</li>
  * <li>reads the @ReturnNull annotation</li>
  * <li>reads the @MappingConstructor annotation</li>
+ * <li>reads the @FetchSize, @MaxRows and @QueryTimeout annotations (the annotations of the DAO are the defaults)</li>
  * </ul>
  * </li>
  * <li>with this data a {@link at.rseiler.spbee.core.pojo.DtoClass} object is created</li>
@@ -66,12 +95,13 @@ public class DtoCollector {
             boolean hasDataSourceConstructor = element.getEnclosedElements().stream()
                     .anyMatch(hasDataSourceConstructor());
 
-            DtoClass dtoClass = new DtoClass(element.toString(), element.getKind().isInterface(), hasDataSourceConstructor);
+            boolean asyncDao = element.getAnnotation(Dao.class).async();
+            DtoClass dtoClass = new DtoClass(element.toString(), element.getKind().isInterface(), hasDataSourceConstructor, asyncDao);
             dtoClasses.add(dtoClass);
 
             element.getEnclosedElements().stream()
                     .filter(isStoredProcedureMethod())
-                    .forEach(collectDtoMethod(dtoClass));
+                    .forEach(collectDtoMethod(dtoClass, element));
         }
 
         return this;
@@ -107,23 +137,71 @@ public class DtoCollector {
      * Checks if the method is annotated with {@link at.rseiler.spbee.core.annotation.StoredProcedure}
      * and then the method is added to the DtoClass.
      *
-     * @param dtoClass the DTO class to which the method belongs
+     * @param dtoClass   the DTO class to which the method belongs
+     * @param dtoElement the element of the DTO class
      */
-    private Consumer<Element> collectDtoMethod(DtoClass dtoClass) {
+    private Consumer<Element> collectDtoMethod(DtoClass dtoClass, Element dtoElement) {
         return element -> {
             ExecutableElement executableElement = (ExecutableElement) element;
-            StoredProcedureMethod storedProcedureMethod = new Builder()
+            String returnType = executableElement.getReturnType().toString();
+            boolean async = isCompletableFuture(returnType);
+
+            if (async) {
+                returnType = getCompletableFutureType(returnType);
+            }
+
+            List<? extends VariableElement> parameters = executableElement.getParameters();
+            VariableElement rowConsumer = getRowConsumer(executableElement, returnType);
+
+            if (rowConsumer != null) {
+                parameters = parameters.subList(0, parameters.size() - 1);
+            }
+
+            validateStreamedColumns(executableElement, returnType, async, rowConsumer != null);
+
+            Batch batch = executableElement.getAnnotation(Batch.class);
+
+            if (batch != null) {
+                parameters = getBatchParameters(executableElement, returnType);
+            }
+
+            Builder builder = new Builder()
                     .dtoClassName(dtoClass.getQualifiedClassName())
                     .methodName(executableElement.getSimpleName().toString())
-                    .returnTypeInfo(StringUtil.getTypeInfo(executableElement.getReturnType().toString()))
+                    .returnTypeInfo(StringUtil.getTypeInfo(returnType))
                     .annotations(getAnnotations(executableElement))
                     .storedProcedure(executableElement.getAnnotation(StoredProcedure.class))
                     .rowMapper(executableElement.getAnnotation(RowMapper.class))
                     .returnNull(executableElement.getAnnotation(ReturnNull.class))
                     .mappingConstructor(executableElement.getAnnotation(MappingConstructor.class))
-                    .build();
+                    .rowConsumer(rowConsumer != null ? getVariable(rowConsumer) : null)
+                    .async(async)
+                    .fetchSize(getAnnotation(executableElement, dtoElement, FetchSize.class))
+                    .maxRows(getAnnotation(executableElement, dtoElement, MaxRows.class))
+                    .queryTimeout(getAnnotation(executableElement, dtoElement, QueryTimeout.class))
+                    .out(getOut(executableElement, returnType))
+                    .cached(getCached(executableElement, returnType, async, rowConsumer != null))
+                    .cacheKey(getCacheKey(executableElement, returnType))
+                    .singleFlight(getSingleFlight(executableElement, returnType, async, rowConsumer != null))
+                    .microBatch(getMicroBatch(executableElement, returnType, async));
+
+            if (batch != null) {
+                builder.batch(getVariable(executableElement.getParameters().get(0)), batch);
+            }
 
-            for (VariableElement parameter : executableElement.getParameters()) {
+            Chunked chunked = executableElement.getAnnotation(Chunked.class);
+
+            if (chunked != null) {
+                builder.chunked(getVariable(getChunkedParameter(executableElement, returnType, async)), chunked);
+            }
+
+            for (Evict evict : getEvicts(executableElement, returnType, async, parameters)) {
+                builder.evict(evict);
+            }
+
+            StoredProcedureMethod storedProcedureMethod = builder.build();
+
+            for (VariableElement parameter : parameters) {
                 storedProcedureMethod.addArgument(getVariable(parameter));
             }
 
@@ -131,6 +209,375 @@ public class DtoCollector {
         };
     }
 
+    /**
+     * Checks that the rows of an entity with an InputStream or Reader column are only passed on row by row, i.e. by a
+     * Stream, a Flow.Publisher or a row Consumer. Such a column is only valid as long as the ResultSet is open.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @param rowConsumer       true if the method passes the rows to a Consumer
+     */
+    private void validateStreamedColumns(ExecutableElement executableElement, String returnType, boolean async, boolean rowConsumer) {
+        boolean stream = returnType.startsWith("java.util.stream.") || returnType.startsWith("java.util.concurrent.Flow.Publisher");
+
+        if (rowConsumer || stream || executableElement.getAnnotation(RowMapper.class) != null) {
+            return;
+        }
+
+        TypeMirror rowType = executableElement.getReturnType();
+
+        if (async) {
+            rowType = ((DeclaredType) rowType).getTypeArguments().get(0);
+        }
+
+        VariableElement column = EntityClassCollector.getStreamedColumn(rowType, executableElement.getAnnotation(MappingConstructor.class));
+
+        if (column != null) {
+            throw new RuntimeException("The column '" + column + "' of '" + column.getEnclosingElement().getEnclosingElement()
+                    + "' is only readable while the ResultSet is open, so the method must return a Stream or pass the rows to a Consumer: " + executableElement);
+        }
+    }
+
+    /**
+     * Returns the trailing {@link java.util.function.Consumer} parameter if the method returns void.
+     * The rows are passed to the Consumer instead of being returned.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method (the type of the CompletableFuture if it's async)
+     * @return the Consumer parameter or null
+     */
+    private VariableElement getRowConsumer(ExecutableElement executableElement, String returnType) {
+        List<? extends VariableElement> parameters = executableElement.getParameters();
+
+        if ("void".equals(returnType) && !parameters.isEmpty()) {
+            VariableElement parameter = parameters.get(parameters.size() - 1);
+
+            String type = parameter.asType().toString();
+
+            // only Consumer<*> is supported, not Consumer<? super *>
+            if (type.startsWith(Consumer.class.getCanonicalName() + "<") && !type.contains("?")) {
+                return parameter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the fields of the list elements of a {@link Batch} method. These fields are the parameters of the stored
+     * procedure and must have a getter.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @return the fields
+     */
+    private List<VariableElement> getBatchParameters(ExecutableElement executableElement, String returnType) {
+        List<? extends VariableElement> parameters = executableElement.getParameters();
+
+        if (!"void".equals(returnType) || parameters.size() != 1 || !parameters.get(0).asType().toString().startsWith(List.class.getCanonicalName() + "<")) {
+            throw new RuntimeException("A @Batch method must return void and must have one List parameter: " + executableElement);
+        }
+
+        if (executableElement.getAnnotation(Batch.class).value() <= 0) {
+            throw new RuntimeException("A @Batch method must have a positive batch size: " + executableElement);
+        }
+
+        TypeMirror elementType = ((DeclaredType) parameters.get(0).asType()).getTypeArguments().get(0);
+        TypeElement typeElement = (TypeElement) ((DeclaredType) elementType).asElement();
+        List<VariableElement> fields = ElementFilter.fieldsIn(typeElement.getEnclosedElements()).stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .collect(Collectors.toList());
+        Set<String> getters = ElementFilter.methodsIn(typeElement.getEnclosedElements()).stream()
+                .filter(method -> method.getModifiers().contains(Modifier.PUBLIC) && method.getParameters().isEmpty())
+                .map(method -> method.getSimpleName().toString())
+                .collect(Collectors.toSet());
+
+        for (VariableElement field : fields) {
+            String getter = StringUtil.getGetterName(field.getSimpleName().toString(), field.asType().toString());
+
+            if (!getters.contains(getter)) {
+                throw new RuntimeException("The field '" + field + "' of '" + typeElement + "' has no public getter: " + getter + "()");
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Returns the {@link Out} annotation if the return value is read from an OUT parameter.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @return the annotation or null
+     */
+    private Out getOut(ExecutableElement executableElement, String returnType) {
+        Out out = executableElement.getAnnotation(Out.class);
+
+        if (out != null && ("void".equals(returnType) || returnType.contains("<"))) {
+            throw new RuntimeException("An @Out method must return a basic type: " + executableElement);
+        }
+
+        return out;
+    }
+
+    /**
+     * Returns the {@link Cached} annotation if the results of the method are cached. Only methods which return their
+     * result synchronously can be cached, i.e. not void, Stream, Flow.Publisher, CompletableFuture, {@literal @}Batch
+     * and {@literal @}Chunked methods.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @param rowConsumer       true if the method passes the rows to a Consumer
+     * @return the annotation or null
+     */
+    private Cached getCached(ExecutableElement executableElement, String returnType, boolean async, boolean rowConsumer) {
+        Cached cached = executableElement.getAnnotation(Cached.class);
+
+        if (cached == null) {
+            return null;
+        }
+
+        // a stream can only be consumed once
+        boolean stream = returnType.startsWith("java.util.stream.") || returnType.startsWith("java.util.concurrent.Flow.Publisher");
+
+        if ("void".equals(returnType) || async || rowConsumer || stream
+                || executableElement.getAnnotation(Batch.class) != null || executableElement.getAnnotation(Chunked.class) != null) {
+            throw new RuntimeException("A @Cached method must return its result synchronously: " + executableElement);
+        }
+
+        if (cached.maxEntries() <= 0 || cached.ttl() < 0) {
+            throw new RuntimeException("A @Cached method must have a positive maxEntries and a ttl >= 0: " + executableElement);
+        }
+
+        // the cache expires its entries in milliseconds, a shorter ttl would be truncated to 0 which never expires
+        if (cached.ttl() > 0 && cached.unit().toMillis(cached.ttl()) == 0) {
+            throw new RuntimeException("A @Cached method must have a ttl of 0 or at least one millisecond: " + executableElement);
+        }
+
+        return cached;
+    }
+
+    /**
+     * Returns the {@link Key} parameter of the entity if the rows of the {@link Cached} method are cached per key.
+     * This is the case if the method has one object array or List parameter and returns a List of an entity whose
+     * constructor has a {@literal @}Key parameter. The key type is validated by the generator.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @return the key parameter or null if the results are cached per call
+     */
+    private Variable getCacheKey(ExecutableElement executableElement, String returnType) {
+        List<? extends VariableElement> parameters = executableElement.getParameters();
+
+        if (executableElement.getAnnotation(Cached.class) == null || parameters.size() != 1 || !returnType.startsWith(List.class.getCanonicalName() + "<")) {
+            return null;
+        }
+
+        TypeMirror parameterType = parameters.get(0).asType();
+
+        boolean objectArray = parameterType.getKind() == TypeKind.ARRAY && ((ArrayType) parameterType).getComponentType().getKind() == TypeKind.DECLARED;
+
+        if (!objectArray && !parameterType.toString().startsWith(List.class.getCanonicalName() + "<")) {
+            return null;
+        }
+
+        TypeMirror entityType = ((DeclaredType) executableElement.getReturnType()).getTypeArguments().get(0);
+
+        if (entityType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(((DeclaredType) entityType).asElement().getEnclosedElements())) {
+            for (VariableElement parameter : constructor.getParameters()) {
+                if (parameter.getAnnotation(Key.class) != null) {
+                    if (executableElement.getAnnotation(SingleFlight.class) != null) {
+                        throw new RuntimeException("A @Cached method which caches the rows per @Key can't be a @SingleFlight method: " + executableElement);
+                    }
+
+                    return getVariable(parameter);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the {@link SingleFlight} annotation if concurrent calls with equal arguments share one execution. Only
+     * reads which return their result synchronously can share it, i.e. not void, Stream, Flow.Publisher,
+     * CompletableFuture, {@literal @}Batch, {@literal @}Chunked and {@literal @}Evict methods.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @param rowConsumer       true if the method passes the rows to a Consumer
+     * @return the annotation or null
+     */
+    private SingleFlight getSingleFlight(ExecutableElement executableElement, String returnType, boolean async, boolean rowConsumer) {
+        SingleFlight singleFlight = executableElement.getAnnotation(SingleFlight.class);
+
+        if (singleFlight == null) {
+            return null;
+        }
+
+        // a stream can only be consumed by one caller
+        boolean stream = returnType.startsWith("java.util.stream.") || returnType.startsWith("java.util.concurrent.Flow.Publisher");
+
+        if ("void".equals(returnType) || async || rowConsumer || stream
+                || executableElement.getAnnotation(Batch.class) != null || executableElement.getAnnotation(Chunked.class) != null
+                || executableElement.getAnnotationsByType(Evict.class).length > 0) {
+            throw new RuntimeException("A @SingleFlight method must be a read which returns its result synchronously: " + executableElement);
+        }
+
+        return singleFlight;
+    }
+
+    /**
+     * Returns the {@link MicroBatch} annotation if the concurrent calls of the method are loaded with a multi-key
+     * method. Only synchronous methods with one parameter which return an entity can be batched.
+     * The multi-key method is validated by the generator because it can be declared after this method.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @return the annotation or null
+     */
+    private MicroBatch getMicroBatch(ExecutableElement executableElement, String returnType, boolean async) {
+        MicroBatch microBatch = executableElement.getAnnotation(MicroBatch.class);
+
+        if (microBatch == null) {
+            return null;
+        }
+
+        if (async || executableElement.getParameters().size() != 1 || executableElement.getReturnType().getKind() != TypeKind.DECLARED || returnType.contains("<")
+                || executableElement.getAnnotation(Out.class) != null || executableElement.getAnnotation(Batch.class) != null
+                || executableElement.getAnnotation(Chunked.class) != null || executableElement.getAnnotationsByType(Evict.class).length > 0) {
+            throw new RuntimeException("A @MicroBatch method must have one parameter and must return an entity: " + executableElement);
+        }
+
+        if (microBatch.maxSize() <= 0 || microBatch.window() < 0) {
+            throw new RuntimeException("A @MicroBatch method must have a positive maxSize and a window >= 0: " + executableElement);
+        }
+
+        return microBatch;
+    }
+
+    /**
+     * Returns the {@link Evict} annotations of the method. The invalidation runs after the stored procedure was called,
+     * therefore the method must return its result synchronously and can't be cached itself. The key must consist of
+     * parameters of the method, which excludes {@literal @}Batch methods.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @param parameters        the parameters of the stored procedure
+     * @return the annotations
+     */
+    private Evict[] getEvicts(ExecutableElement executableElement, String returnType, boolean async, List<? extends VariableElement> parameters) {
+        Evict[] evicts = executableElement.getAnnotationsByType(Evict.class);
+
+        if (evicts.length == 0) {
+            return evicts;
+        }
+
+        // a stream is consumed after the method returned
+        boolean stream = returnType.startsWith("java.util.stream.") || returnType.startsWith("java.util.concurrent.Flow.Publisher");
+
+        if (async || stream || executableElement.getAnnotation(Chunked.class) != null || executableElement.getAnnotation(Cached.class) != null) {
+            throw new RuntimeException("An @Evict method must return its result synchronously and can't be cached: " + executableElement);
+        }
+
+        boolean batch = executableElement.getAnnotation(Batch.class) != null;
+        Set<String> parameterNames = parameters.stream()
+                .map(parameter -> parameter.getSimpleName().toString())
+                .collect(Collectors.toSet());
+
+        for (Evict evict : evicts) {
+            if (evict.value().length == 0 && evict.tags().length == 0) {
+                throw new RuntimeException("An @Evict annotation must define the cached methods or tags: " + executableElement);
+            }
+
+            if (evict.key().length > 0 && (batch || evict.tags().length > 0)) {
+                throw new RuntimeException("An @Evict key can't be used with tags or a @Batch method: " + executableElement);
+            }
+
+            for (String key : evict.key()) {
+                if (!parameterNames.contains(key)) {
+                    throw new RuntimeException("The @Evict key '" + key + "' isn't a parameter of: " + executableElement);
+                }
+            }
+        }
+
+        return evicts;
+    }
+
+    /**
+     * Returns the array parameter of a {@link Chunked} method which is split into chunks.
+     *
+     * @param executableElement the element
+     * @param returnType        the return type of the method
+     * @param async             true if the method returns a CompletableFuture
+     * @return the array parameter
+     */
+    private VariableElement getChunkedParameter(ExecutableElement executableElement, String returnType, boolean async) {
+        if (async || !returnType.startsWith(List.class.getCanonicalName() + "<")) {
+            throw new RuntimeException("A @Chunked method must return a List: " + executableElement);
+        }
+
+        Chunked chunked = executableElement.getAnnotation(Chunked.class);
+
+        if (chunked.value() <= 0 || chunked.parallelism() <= 0) {
+            throw new RuntimeException("A @Chunked method must have a positive chunk size and parallelism: " + executableElement);
+        }
+
+        List<? extends VariableElement> arrays = executableElement.getParameters().stream()
+                .filter(parameter -> parameter.asType().getKind() == TypeKind.ARRAY && !"byte[]".equals(parameter.asType().toString()))
+                .collect(Collectors.toList());
+
+        if (arrays.size() != 1) {
+            throw new RuntimeException("A @Chunked method must have exactly one array parameter: " + executableElement);
+        }
+
+        return arrays.get(0);
+    }
+
+    /**
+     * Checks if the return type is a {@link CompletableFuture}.
+     *
+     * @param returnType the return type
+     * @return true if the return type is a CompletableFuture
+     */
+    private boolean isCompletableFuture(String returnType) {
+        return returnType.startsWith(CompletableFuture.class.getCanonicalName() + "<");
+    }
+
+    /**
+     * Extracts the type of the {@link CompletableFuture}. CompletableFuture&lt;Void&gt; is handled as void.
+     *
+     * @param returnType the return type, e.g. CompletableFuture&lt;List&lt;User&gt;&gt;
+     * @return the type of the CompletableFuture, e.g. List&lt;User&gt;
+     */
+    private String getCompletableFutureType(String returnType) {
+        String type = returnType.substring(CompletableFuture.class.getCanonicalName().length() + 1, returnType.length() - 1);
+        return Void.class.getCanonicalName().equals(type) ? "void" : type;
+    }
+
+    /**
+     * Returns the annotation of the method or, if the method isn't annotated, the annotation of the DTO class.
+     *
+     * @param executableElement the method
+     * @param dtoElement        the DTO class
+     * @param annotationType    the type of the annotation
+     * @param <A>               the annotation
+     * @return the annotation or null
+     */
+    private <A extends Annotation> A getAnnotation(ExecutableElement executableElement, Element dtoElement, Class<A> annotationType) {
+        A annotation = executableElement.getAnnotation(annotationType);
+        return annotation != null ? annotation : dtoElement.getAnnotation(annotationType);
+    }
+
     /**
      * Gets all non spBee related annotations.
      *
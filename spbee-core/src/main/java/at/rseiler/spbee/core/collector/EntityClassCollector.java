@@ -1,5 +1,7 @@
 package at.rseiler.spbee.core.collector;
 
+import at.rseiler.spbee.core.annotation.Column;
+import at.rseiler.spbee.core.annotation.Entity;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
 import at.rseiler.spbee.core.pojo.MapperClass;
 import at.rseiler.spbee.core.pojo.Variable;
@@ -7,7 +9,13 @@ import at.rseiler.spbee.core.util.StringUtil;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic.Kind;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -23,7 +31,9 @@ import java.util.stream.Collectors;
  * If no constructor is annotated with @MappingConstructor the public constructor is used.
  * <ul>
  * <li>collects all parameters</li>
+ * <li>reads the @Column annotations of the parameters</li>
  * <li>reads the @MappingConstructor annotation</li>
+ * <li>rejects Byte[] parameters</li>
  * </ul>
  * </li>
  * <li>with this data a {@link at.rseiler.spbee.core.pojo.MapperClass} object is created</li>
@@ -109,14 +119,78 @@ public class EntityClassCollector {
             String qualifiedMapperClassName = StringUtil.getQualifiedMapperClassName(qualifiedClassName, name);
             MapperClass mapperClass = new MapperClass(qualifiedMapperClassName, qualifiedClassName);
 
-            for (VariableElement variableElement : ((ExecutableElement) element).getParameters()) {
-                mapperClass.addVariable(new Variable(variableElement.getSimpleName().toString(), variableElement.asType().toString()));
+            List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+            // if one parameter is mapped by label then all parameters are mapped by label
+            boolean labelBased = parameters.stream().anyMatch(parameter -> parameter.getAnnotation(Column.class) != null);
+
+            for (VariableElement variableElement : parameters) {
+                String variableName = variableElement.getSimpleName().toString();
+                String type = variableElement.asType().toString();
+                String column = labelBased ? getColumn(variableElement) : null;
+
+                if (Byte[].class.getCanonicalName().equals(type)) {
+                    // JDBC has no getter for Byte[], getObject would return a byte[]
+                    processingEnv.getMessager().printMessage(Kind.ERROR, "The column '" + variableName + "' of '" + qualifiedClassName + "' must be a byte[] instead of a Byte[]", variableElement);
+                }
+
+                mapperClass.addVariable(new Variable(variableName, type, column));
             }
 
             mapperClasses.add(mapperClass);
         };
     }
 
+    /**
+     * Returns the first InputStream or Reader parameter of the constructor which maps the rows of the type.
+     * Such a column is only valid as long as the ResultSet is open, so the rows can't be collected into a List.
+     *
+     * @param rowType            the type of the rows: the entity, or e.g. a List or an Optional of the entity
+     * @param mappingConstructor (nullable) the {@literal @}MappingConstructor annotation of the method or field
+     * @return the parameter or null if no column of the entity is streamed
+     */
+    static VariableElement getStreamedColumn(TypeMirror rowType, MappingConstructor mappingConstructor) {
+        if (rowType.getKind() == TypeKind.DECLARED && !((DeclaredType) rowType).getTypeArguments().isEmpty()) {
+            rowType = ((DeclaredType) rowType).getTypeArguments().get(0);
+        }
+
+        if (rowType.getKind() != TypeKind.DECLARED || ((DeclaredType) rowType).asElement().getAnnotation(Entity.class) == null) {
+            return null;
+        }
+
+        String name = mappingConstructor != null ? mappingConstructor.value() : "default";
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(((DeclaredType) rowType).asElement().getEnclosedElements())) {
+            MappingConstructor constructorAnnotation = constructor.getAnnotation(MappingConstructor.class);
+            String constructorName = constructorAnnotation != null ? constructorAnnotation.value() : "default";
+
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC) || !name.equalsIgnoreCase(constructorName)) {
+                continue;
+            }
+
+            for (VariableElement parameter : constructor.getParameters()) {
+                String type = parameter.asType().toString();
+
+                if (InputStream.class.getCanonicalName().equals(type) || Reader.class.getCanonicalName().equals(type)) {
+                    return parameter;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the column label of the parameter: the value of the {@link at.rseiler.spbee.core.annotation.Column}
+     * annotation or the name of the parameter.
+     *
+     * @param variableElement the parameter
+     * @return the column label
+     */
+    private String getColumn(VariableElement variableElement) {
+        Column column = variableElement.getAnnotation(Column.class);
+        return column != null ? column.value() : variableElement.getSimpleName().toString();
+    }
+
     /**
      * Checks if an constructor annotated with {@link at.rseiler.spbee.core.annotation.MappingConstructor} exists.
      *
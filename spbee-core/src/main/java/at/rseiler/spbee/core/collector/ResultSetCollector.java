@@ -8,6 +8,7 @@ import at.rseiler.spbee.core.pojo.ResultSetVariable;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.VariableElement;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,10 @@ public class ResultSetCollector {
      */
     public ResultSetCollector collect() {
         for (Element resultSetsElement : elements) {
+            resultSetsElement.getEnclosedElements().stream()
+                    .filter(isField())
+                    .forEach(this::validateStreamedColumns);
+
             List<ResultSetVariable> types = resultSetsElement.getEnclosedElements().stream()
                     .filter(isField())
                     .map(element -> new ResultSetVariable(element.getSimpleName().toString(), element.asType().toString(), element.getAnnotation(RowMapper.class), element.getAnnotation(ReturnNull.class), element.getAnnotation(MappingConstructor.class)))
@@ -63,6 +68,25 @@ public class ResultSetCollector {
         return this;
     }
 
+    /**
+     * Checks that the entity of the field has no InputStream or Reader column: the result sets are read completely, so
+     * such a column would be read after the ResultSet is closed.
+     *
+     * @param field the field
+     */
+    private void validateStreamedColumns(Element field) {
+        if (field.getAnnotation(RowMapper.class) != null) {
+            return;
+        }
+
+        VariableElement column = EntityClassCollector.getStreamedColumn(field.asType(), field.getAnnotation(MappingConstructor.class));
+
+        if (column != null) {
+            throw new RuntimeException("The column '" + column + "' of '" + column.getEnclosingElement().getEnclosingElement()
+                    + "' is only readable while the ResultSet is open, so it can't be a field of a @ResultSet: " + field.getEnclosingElement() + "#" + field);
+        }
+    }
+
     /**
      * Checks if the element is a field.
      *
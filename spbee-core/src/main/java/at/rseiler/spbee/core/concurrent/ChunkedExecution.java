@@ -0,0 +1,132 @@
+package at.rseiler.spbee.core.concurrent;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Executes the generated {@link at.rseiler.spbee.core.annotation.Chunked} methods: splits the array into chunks,
+ * executes the chunks concurrently and merges the results.
+ * <p>
+ * At most {@code parallelism} chunks are executed at the same time: {@code parallelism - 1} workers run on the
+ * executor and the calling thread is a worker too. Each worker takes the next chunk until all chunks are executed.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ChunkedExecution {
+
+    private ChunkedExecution() {
+    }
+
+    /**
+     * Executes the function for each chunk of the array and merges the results.
+     * If the array isn't larger than one chunk then the function is executed once with the array.
+     *
+     * @param array       (nullable) the array, an Object[] or a primitive array
+     * @param chunkSize   the maximum number of elements per chunk
+     * @param parallelism the maximum number of chunks which are executed at the same time
+     * @param ordered     true if the results are merged in the order of the chunks, false in the order of completion
+     * @param executor    the executor
+     * @param function    the function which is executed for each chunk
+     * @param <A>         the type of the array
+     * @param <T>         the type of the results
+     * @return the merged results
+     */
+    public static <A, T> List<T> execute(A array, int chunkSize, int parallelism, boolean ordered, Executor executor, Function<A, List<T>> function) {
+        if (array == null || Array.getLength(array) <= chunkSize) {
+            return function.apply(array);
+        }
+
+        int length = Array.getLength(array);
+        int chunks = (length + chunkSize - 1) / chunkSize;
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReferenceArray<List<T>> orderedResults = new AtomicReferenceArray<>(ordered ? chunks : 0);
+        Queue<List<T>> completedResults = new ConcurrentLinkedQueue<>();
+
+        Runnable worker = () -> {
+            int chunk;
+
+            while (failure.get() == null && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                try {
+                    int from = chunk * chunkSize;
+                    List<T> result = function.apply(copyOfRange(array, from, Math.min(from + chunkSize, length)));
+
+                    if (ordered) {
+                        orderedResults.set(chunk, result);
+                    } else {
+                        completedResults.add(result);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+
+        for (int i = 1; i < Math.min(parallelism, chunks); i++) {
+            try {
+                workers.add(CompletableFuture.runAsync(worker, executor));
+            } catch (RejectedExecutionException e) {
+                // the executor is saturated - the remaining chunks are executed by the started workers
+                break;
+            }
+        }
+
+        worker.run();
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[workers.size()])).join();
+
+        if (failure.get() != null) {
+            throw rethrow(failure.get());
+        }
+
+        List<T> results = new ArrayList<>();
+
+        if (ordered) {
+            for (int i = 0; i < chunks; i++) {
+                addAll(results, orderedResults.get(i));
+            }
+        } else {
+            for (List<T> result : completedResults) {
+                addAll(results, result);
+            }
+        }
+
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A copyOfRange(A array, int from, int to) {
+        Object chunk = Array.newInstance(array.getClass().getComponentType(), to - from);
+        System.arraycopy(array, from, chunk, 0, to - from);
+        return (A) chunk;
+    }
+
+    private static <T> void addAll(List<T> results, Collection<T> result) {
+        if (result != null) {
+            results.addAll(result);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+
+        return new IllegalStateException(throwable);
+    }
+
+}
@@ -0,0 +1,202 @@
+package at.rseiler.spbee.core.concurrent;
+
+import at.rseiler.spbee.core.exception.MultipleObjectsReturned;
+import at.rseiler.spbee.core.exception.ObjectDoesNotExist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Executes the generated {@link at.rseiler.spbee.core.annotation.MicroBatch} methods: collects the keys of concurrent
+ * calls and loads them with one call.
+ * <p>
+ * The first caller of a batch is its leader: it waits until the window elapsed or the batch is full and then loads the
+ * batch in its own thread, the other callers wait for their rows. Calls with an equal key share the row. A batch with
+ * one key is loaded with the single-key function, otherwise the rows of the multi-key function are assigned to the
+ * keys with the key function. Like a single-key stored procedure method a key without a row results in an
+ * {@link ObjectDoesNotExist} exception (or null) and a key with multiple rows in a {@link MultipleObjectsReturned}
+ * exception.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the rows
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class MicroBatcher<K, V> {
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxSize;
+    private final boolean returnNull;
+    private final Function<K, V> single;
+    private final Function<List<K>, List<V>> multi;
+    private final Function<V, K> key;
+    private final Lock lock = new ReentrantLock();
+    private final Condition full = lock.newCondition();
+    private Batch<K, V> current;
+
+    /**
+     * Creates the micro batcher.
+     *
+     * @param name        the name of the method
+     * @param windowNanos how long the leader waits for more keys in nanoseconds
+     * @param maxSize     the maximum number of keys of a batch
+     * @param returnNull  true if null is returned for a key without a row instead of throwing an exception
+     * @param single      loads the row of one key
+     * @param multi       loads the rows of the keys
+     * @param key         returns the key of a row
+     */
+    public MicroBatcher(String name, long windowNanos, int maxSize, boolean returnNull, Function<K, V> single, Function<List<K>, List<V>> multi, Function<V, K> key) {
+        this.name = name;
+        this.windowNanos = windowNanos;
+        this.maxSize = maxSize;
+        this.returnNull = returnNull;
+        this.single = single;
+        this.multi = multi;
+        this.key = key;
+    }
+
+    /**
+     * Loads the row of the key with the next batch.
+     *
+     * @param k the key
+     * @return the row
+     */
+    public V load(K k) {
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean leader = false;
+
+        lock.lock();
+        try {
+            if (current == null) {
+                current = new Batch<>();
+                leader = true;
+            }
+
+            batch = current;
+            future = batch.futures.computeIfAbsent(k, ignored -> new CompletableFuture<>());
+
+            if (batch.futures.size() >= maxSize) {
+                current = null;
+                full.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            await(batch);
+            execute(batch);
+        }
+
+        return join(future);
+    }
+
+    /**
+     * The name of the method.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Waits until the window elapsed or the batch is full and closes the batch.
+     */
+    private void await(Batch<K, V> batch) {
+        boolean interrupted = false;
+
+        lock.lock();
+        try {
+            long remaining = windowNanos;
+
+            while (current == batch && remaining > 0) {
+                try {
+                    remaining = full.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // the batch is executed anyway, the other callers wait for it
+                    interrupted = true;
+                    break;
+                }
+            }
+
+            if (current == batch) {
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(Batch<K, V> batch) {
+        List<K> keys = new ArrayList<>(batch.futures.keySet());
+
+        try {
+            if (keys.size() == 1) {
+                batch.futures.get(keys.get(0)).complete(single.apply(keys.get(0)));
+                return;
+            }
+
+            Map<K, List<V>> rows = new HashMap<>();
+
+            for (V row : multi.apply(keys)) {
+                rows.computeIfAbsent(key.apply(row), ignored -> new ArrayList<>(1)).add(row);
+            }
+
+            for (Map.Entry<K, CompletableFuture<V>> entry : batch.futures.entrySet()) {
+                complete(entry.getValue(), rows.get(entry.getKey()));
+            }
+        } catch (Throwable e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void complete(CompletableFuture<V> future, List<V> rows) {
+        if (rows != null && rows.size() == 1) {
+            future.complete(rows.get(0));
+        } else if (rows != null) {
+            future.completeExceptionally(new MultipleObjectsReturned());
+        } else if (returnNull) {
+            future.complete(null);
+        } else {
+            future.completeExceptionally(new ObjectDoesNotExist());
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private static class Batch<K, V> {
+
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+
+    }
+
+}
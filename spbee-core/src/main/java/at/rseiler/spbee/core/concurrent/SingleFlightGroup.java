@@ -0,0 +1,101 @@
+package at.rseiler.spbee.core.concurrent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Executes the generated {@link at.rseiler.spbee.core.annotation.SingleFlight} methods: concurrent calls with an
+ * equal key share one execution.
+ * <p>
+ * The first caller executes the call in its own thread, the callers which arrive while the call is in flight wait for
+ * its result. The call isn't reentrant: a call which calls itself with the same key waits forever.
+ * <p>
+ * All callers get the same result: a List is returned as unmodifiable List like the cached values of
+ * {@link at.rseiler.spbee.core.cache.ProcedureCache}, other results (entities, arrays) must not be modified.
+ *
+ * @param <V> the type of the result
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class SingleFlightGroup<V> {
+
+    private final ConcurrentMap<Object, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    /**
+     * Executes the call or waits for the call with the same key which is in flight.
+     *
+     * @param key  the key, see {@link at.rseiler.spbee.core.cache.ProcedureCache#key(Object...)}
+     * @param call the call
+     * @return the result of the call, a List is unmodifiable
+     */
+    public V execute(Object key, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, future);
+
+        if (inFlight != null) {
+            sharedCount.incrementAndGet();
+            return await(inFlight);
+        }
+
+        V value;
+
+        try {
+            value = unmodifiable(call.get());
+        } catch (Throwable e) {
+            calls.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        // removed before the completion, so that a later caller doesn't get the result of this call
+        calls.remove(key, future);
+        future.complete(value);
+        return value;
+    }
+
+    /**
+     * The number of calls which got the result of another call instead of executing it.
+     *
+     * @return the number of shared calls
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    /**
+     * The number of calls which are in flight.
+     *
+     * @return the number of calls
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unmodifiable(V value) {
+        return value instanceof List ? (V) Collections.unmodifiableList((List<?>) value) : value;
+    }
+
+    private static <V> V await(CompletableFuture<V> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
+}
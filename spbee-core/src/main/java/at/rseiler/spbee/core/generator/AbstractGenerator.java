@@ -1,12 +1,22 @@
 package at.rseiler.spbee.core.generator;
 
+import at.rseiler.spbee.core.concurrent.VirtualThreadExecutor;
+import at.rseiler.spbee.core.pojo.ResultSetClass;
+import at.rseiler.spbee.core.pojo.StoredProcedureMethod;
 import at.rseiler.spbee.core.util.StringCodeWriter;
-import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.*;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Base class for the code generators.
@@ -15,6 +25,61 @@ import java.io.Writer;
  */
 abstract class AbstractGenerator {
 
+    /**
+     * The config key to choose how the stored procedures are executed.
+     * <ul>
+     * <li><code>spring</code> (default): the stored procedure classes extend Spring's StoredProcedure</li>
+     * <li><code>direct</code>: the stored procedure classes call the CallableStatement directly</li>
+     * </ul>
+     */
+    static final String CONFIG_EXECUTION = "execution";
+    static final String EXECUTION_DIRECT = "direct";
+
+    /**
+     * The config key to choose the executor of the asynchronous DAO methods.
+     * <ul>
+     * <li><code>injected</code> (default): the Executor bean is injected into the generated DAO</li>
+     * <li><code>virtual</code>: the generated DAO starts a new virtual thread for each call (requires Java 21+)</li>
+     * </ul>
+     */
+    static final String CONFIG_EXECUTOR = "executor";
+    static final String EXECUTOR_VIRTUAL = "virtual";
+
+    /**
+     * The config key of the {@link at.rseiler.spbee.core.interceptor.ProcedureInterceptor} class. The generated DAOs
+     * pass a static descriptor of the method and a primitive token to the interceptor instead of the arguments.
+     */
+    static final String CONFIG_PROCEDURE_INTERCEPTOR = "procedure.interceptor";
+
+    /**
+     * The config key to measure the stored procedure calls.
+     * <ul>
+     * <li>not set (default): the calls aren't measured</li>
+     * <li><code>jmx</code>: the generated DAOs measure each method with {@link at.rseiler.spbee.core.metrics.ProcedureMetrics}
+     * which are published as platform MXBeans</li>
+     * </ul>
+     */
+    static final String CONFIG_METRICS = "metrics";
+    static final String METRICS_JMX = "jmx";
+
+    /**
+     * The config key to record the stored procedure calls as events.
+     * <ul>
+     * <li>not set (default): no events are recorded</li>
+     * <li><code>jfr</code>: the generated DAOs commit a JDK Flight Recorder event per call (requires Java 11+)</li>
+     * </ul>
+     */
+    static final String CONFIG_EVENTS = "events";
+    static final String EVENTS_JFR = "jfr";
+
+    // JFR is part of Java 11+, therefore it can't be referenced as class literal
+    static final String JFR_EVENT = "jdk.jfr.Event";
+
+    // Flow is part of Java 9+, therefore it can't be referenced as class literal
+    static final String FLOW_PUBLISHER = "java.util.concurrent.Flow.Publisher";
+
+    private static final List<String> PRIMITIVE_TYPES = Arrays.asList("boolean", "byte", "char", "short", "int", "long", "float", "double");
+
     private final ProcessingEnvironment processingEnv;
 
     AbstractGenerator(ProcessingEnvironment processingEnv) {
@@ -39,4 +104,135 @@ abstract class AbstractGenerator {
         w.close();
     }
 
+    /**
+     * Returns true if the stored procedures should be executed directly with a CallableStatement instead of
+     * Spring's StoredProcedure.
+     *
+     * @param config the spBee config
+     * @return true if the direct execution mode is configured
+     */
+    static boolean isDirectExecution(Properties config) {
+        return EXECUTION_DIRECT.equals(config.getProperty(CONFIG_EXECUTION));
+    }
+
+    /**
+     * Returns true if the asynchronous DAO methods should run on a virtual thread per call.
+     *
+     * @param config the spBee config
+     * @return true if the virtual thread executor is configured
+     */
+    static boolean isVirtualThreadExecutor(Properties config) {
+        return EXECUTOR_VIRTUAL.equals(config.getProperty(CONFIG_EXECUTOR));
+    }
+
+    /**
+     * Returns true if the stored procedure calls should be measured and published over JMX.
+     *
+     * @param config the spBee config
+     * @return true if the JMX metrics are configured
+     */
+    static boolean isJmxMetrics(Properties config) {
+        return METRICS_JMX.equals(config.getProperty(CONFIG_METRICS));
+    }
+
+    /**
+     * Returns true if the stored procedure calls should be recorded as JDK Flight Recorder events.
+     *
+     * @param config the spBee config
+     * @return true if the JFR events are configured
+     */
+    static boolean isJfrEvents(Properties config) {
+        return EVENTS_JFR.equals(config.getProperty(CONFIG_EVENTS));
+    }
+
+    /**
+     * Generates the executor field. By default the executor is injected:
+     * <pre>
+     * private final Executor executor;
+     *
+     * public *(..., Executor executor) {
+     *     this.executor = executor;
+     * }
+     * </pre>
+     * With the virtual thread executor:
+     * <pre>
+     * private final Executor executor = VirtualThreadExecutor.newVirtualThreadPerTaskExecutor();
+     * </pre>
+     *
+     * @param model       the code model
+     * @param aClass      the class which gets the field
+     * @param constructor the constructor of the class
+     * @param config      the spBee config
+     * @return the executor field
+     */
+    static JFieldVar addExecutorField(JCodeModel model, JDefinedClass aClass, JMethod constructor, Properties config) {
+        if (isVirtualThreadExecutor(config)) {
+            JInvocation virtualThreadExecutor = model.ref(VirtualThreadExecutor.class).staticInvoke("newVirtualThreadPerTaskExecutor");
+            return aClass.field(JMod.PRIVATE | JMod.FINAL, Executor.class, "executor", virtualThreadExecutor);
+        }
+
+        JFieldVar executor = aClass.field(JMod.PRIVATE | JMod.FINAL, Executor.class, "executor");
+        constructor.body().assign(JExpr._this().ref(executor), constructor.param(Executor.class, "executor"));
+        return executor;
+    }
+
+    /**
+     * Returns the boxed class of a primitive type, e.g. Integer for int, otherwise the class itself.
+     *
+     * @param model the model
+     * @param type  the class
+     * @return the boxed class
+     */
+    static JClass boxify(JCodeModel model, JClass type) {
+        return isPrimitive(type) ? JType.parse(model, type.fullName()).boxify() : type;
+    }
+
+    /**
+     * Returns true if the class is a primitive type, e.g. int.
+     *
+     * @param type the class
+     * @return true if the type is primitive
+     */
+    static boolean isPrimitive(JClass type) {
+        return PRIMITIVE_TYPES.contains(type.fullName());
+    }
+
+    /**
+     * Returns true if the DAO method returns a {@link Stream}.
+     *
+     * @param storedProcedureMethod the DAO method
+     * @return true if the rows are streamed
+     */
+    static boolean isStream(StoredProcedureMethod storedProcedureMethod) {
+        return Stream.class.getCanonicalName().equals(storedProcedureMethod.getReturnTypeInfo().getType());
+    }
+
+    /**
+     * Returns true if the DAO method returns at most one row: an entity or an Optional of an entity.
+     *
+     * @param storedProcedureMethod the DAO method
+     * @param resultSetsMap         the {@link at.rseiler.spbee.core.annotation.ResultSet} classes
+     * @return true if at most one row is expected
+     */
+    static boolean isUnique(StoredProcedureMethod storedProcedureMethod, Map<String, ResultSetClass> resultSetsMap) {
+        String type = storedProcedureMethod.getReturnTypeInfo().getType();
+
+        if ("void".equals(type) || resultSetsMap.containsKey(type) || storedProcedureMethod.getPrimitiveColumnType().isPresent()
+                || storedProcedureMethod.getOut().isPresent()) {
+            return false;
+        }
+
+        return !storedProcedureMethod.getReturnTypeInfo().getGenericType().isPresent() || Optional.class.getCanonicalName().equals(type);
+    }
+
+    /**
+     * Returns true if the DAO method returns a {@code java.util.concurrent.Flow.Publisher}.
+     *
+     * @param storedProcedureMethod the DAO method
+     * @return true if the rows are published
+     */
+    static boolean isPublisher(StoredProcedureMethod storedProcedureMethod) {
+        return FLOW_PUBLISHER.equals(storedProcedureMethod.getReturnTypeInfo().getType());
+    }
+
 }
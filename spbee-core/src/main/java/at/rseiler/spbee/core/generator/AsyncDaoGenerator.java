@@ -0,0 +1,182 @@
+package at.rseiler.spbee.core.generator;
+
+import at.rseiler.spbee.core.pojo.DtoClass;
+import at.rseiler.spbee.core.pojo.StoredProcedureMethod;
+import at.rseiler.spbee.core.pojo.Variable;
+import at.rseiler.spbee.core.util.CodeModelUtil;
+import at.rseiler.spbee.core.util.StringUtil;
+import com.sun.codemodel.*;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the asynchronous companion of a DAO if it's annotated with {@code @Dao(async = true)}.
+ * <p>
+ * Example:
+ * <pre>
+ * public interface *AsyncDao {
+ *     [ CompletableFuture&lt;*&gt; *([ * * ]*); ]*
+ * }
+ *
+ * {@literal @}Service
+ * public class *AsyncDaoImpl implements *AsyncDao {
+ *
+ *     private final *Dao dao;
+ *     private final Executor executor;
+ *
+ *     {@literal @}Autowired
+ *     public *AsyncDaoImpl(*Dao dao, Executor executor) {
+ *         this.dao = dao;
+ *         this.executor = executor;
+ *     }
+ *
+ *     public CompletableFuture&lt;*&gt; *([ * * ]*) {
+ *         return CompletableFuture.supplyAsync(new Supplier&lt;*&gt;() {
+ *             {@literal @}Override
+ *             public * get() {
+ *                 return dao.*([ * ]*);
+ *             }
+ *         }, executor);
+ *     }
+ *
+ * }
+ * </pre>
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public class AsyncDaoGenerator extends AbstractGenerator {
+
+    private static final String SPRING_ANNOTATION_SERVICE = "org.springframework.stereotype.Service";
+    private static final String SPRING_ANNOTATION_AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+
+    private final Properties config;
+
+    public AsyncDaoGenerator(ProcessingEnvironment processingEnv, Properties config) {
+        super(processingEnv);
+        this.config = config;
+    }
+
+    /**
+     * Generates the asynchronous companions of the DAO classes.
+     *
+     * @param dtoClasses the DTO classes
+     * @throws JClassAlreadyExistsException if a class is defined twice
+     * @throws IOException                  if the generated class can't be written
+     */
+    public void generateAsyncDaoClasses(List<DtoClass> dtoClasses) throws JClassAlreadyExistsException, IOException {
+        for (DtoClass dtoClass : dtoClasses) {
+            if (dtoClass.hasAsyncDao()) {
+                // methods which are already asynchronous aren't wrapped a second time
+                List<StoredProcedureMethod> methods = dtoClass.getStoredProcedureMethods().stream()
+                        .filter(storedProcedureMethod -> !storedProcedureMethod.isAsync())
+                        .collect(Collectors.toList());
+
+                generateInterface(dtoClass, methods);
+                generateImplementation(dtoClass, methods);
+            }
+        }
+    }
+
+    /**
+     * Generates:
+     * <pre>
+     * public interface *AsyncDao {
+     *     [ CompletableFuture&lt;*&gt; *([ * * ]*); ]*
+     * }
+     * </pre>
+     */
+    private void generateInterface(DtoClass dtoClass, List<StoredProcedureMethod> methods) throws JClassAlreadyExistsException, IOException {
+        JCodeModel model = new JCodeModel();
+        JDefinedClass asyncDao = model._class(dtoClass.getQualifiedAsyncDaoClassName(), ClassType.INTERFACE);
+        CodeModelUtil.annotateGenerated(asyncDao);
+
+        for (StoredProcedureMethod storedProcedureMethod : methods) {
+            JMethod method = asyncDao.method(JMod.NONE, getFutureReturnClass(model, storedProcedureMethod), storedProcedureMethod.getMethodName());
+            addParams(model, storedProcedureMethod, method);
+        }
+
+        generateClass(model, dtoClass.getQualifiedAsyncDaoClassName());
+    }
+
+    /**
+     * Generates the implementation which delegates to the synchronous DAO.
+     * The executor isn't injected if the virtual thread executor is configured.
+     */
+    private void generateImplementation(DtoClass dtoClass, List<StoredProcedureMethod> methods) throws JClassAlreadyExistsException, IOException {
+        JCodeModel model = new JCodeModel();
+        String qualifiedClassName = StringUtil.getQualifiedDtoClassName(dtoClass.getQualifiedAsyncDaoClassName());
+        JDefinedClass asyncDaoImpl = model._class(qualifiedClassName);
+        CodeModelUtil.annotateGenerated(asyncDaoImpl);
+        asyncDaoImpl.annotate(model.ref(SPRING_ANNOTATION_SERVICE));
+        asyncDaoImpl._implements(model.ref(dtoClass.getQualifiedAsyncDaoClassName()));
+
+        JClass daoClass = model.ref(dtoClass.getSuperQualifiedClassName());
+        JFieldVar dao = asyncDaoImpl.field(JMod.PRIVATE | JMod.FINAL, daoClass, "dao");
+        JMethod constructor = asyncDaoImpl.constructor(JMod.PUBLIC);
+        constructor.annotate(model.ref(SPRING_ANNOTATION_AUTOWIRED));
+        constructor.body().assign(JExpr._this().ref(dao), constructor.param(daoClass, "dao"));
+        JFieldVar executor = addExecutorField(model, asyncDaoImpl, constructor, config);
+
+        for (StoredProcedureMethod storedProcedureMethod : methods) {
+            JMethod method = asyncDaoImpl.method(JMod.PUBLIC, getFutureReturnClass(model, storedProcedureMethod), storedProcedureMethod.getMethodName());
+            JInvocation invocation = dao.invoke(storedProcedureMethod.getMethodName());
+
+            for (JVar param : addParams(model, storedProcedureMethod, method)) {
+                invocation.arg(param);
+            }
+
+            method.body()._return(CodeModelUtil.supplyAsync(model, getReturnClass(model, storedProcedureMethod), invocation, executor));
+        }
+
+        generateClass(model, qualifiedClassName);
+    }
+
+    /**
+     * Adds the parameters of the DAO method to the method.
+     *
+     * @return the parameters
+     */
+    private JVar[] addParams(JCodeModel model, StoredProcedureMethod storedProcedureMethod, JMethod method) {
+        if (storedProcedureMethod.getBatch().isPresent()) {
+            Variable batch = storedProcedureMethod.getBatch().get();
+            method.param(CodeModelUtil.getGenericList(model, batch.getTypeInfo().getGenericTypeOrType()), batch.getName());
+            return method.listParams();
+        }
+
+        for (Variable variable : storedProcedureMethod.getArguments()) {
+            method.param(model.ref(variable.getTypeInfo().asString()), variable.getName());
+        }
+
+        if (storedProcedureMethod.getRowConsumer().isPresent()) {
+            JClass consumerClass = model.ref(Consumer.class).narrow(model.ref(storedProcedureMethod.getResultType()));
+            method.param(consumerClass, storedProcedureMethod.getRowConsumer().get().getName());
+        }
+
+        return method.listParams();
+    }
+
+    /**
+     * Returns the return class of the DAO method or null if the method returns void.
+     * A primitive type is boxed, e.g. int of an {@literal @}Out method.
+     */
+    private JClass getReturnClass(JCodeModel model, StoredProcedureMethod storedProcedureMethod) {
+        String type = storedProcedureMethod.getReturnTypeInfo().getType();
+
+        if ("void".equals(type)) {
+            return null;
+        }
+
+        JClass returnClass = boxify(model, model.ref(type));
+        return storedProcedureMethod.getReturnTypeInfo().getGenericType().map(genericType -> returnClass.narrow(model.ref(genericType))).orElse(returnClass);
+    }
+
+    private JClass getFutureReturnClass(JCodeModel model, StoredProcedureMethod storedProcedureMethod) {
+        return CodeModelUtil.getGenericCompletableFuture(model, getReturnClass(model, storedProcedureMethod));
+    }
+
+}
@@ -1,8 +1,20 @@
 package at.rseiler.spbee.core.generator;
 
+import at.rseiler.spbee.core.cache.CacheInvalidation;
+import at.rseiler.spbee.core.cache.CachedDao;
+import at.rseiler.spbee.core.cache.ProcedureCache;
+import at.rseiler.spbee.core.concurrent.ChunkedExecution;
+import at.rseiler.spbee.core.concurrent.MicroBatcher;
+import at.rseiler.spbee.core.concurrent.SingleFlightGroup;
 import at.rseiler.spbee.core.exception.MultipleObjectsReturned;
 import at.rseiler.spbee.core.exception.ObjectDoesNotExist;
+import at.rseiler.spbee.core.interceptor.ProcedureDescriptor;
+import at.rseiler.spbee.core.interceptor.ProcedureInterceptor;
+import at.rseiler.spbee.core.interceptor.ProcedureInterceptors;
+import at.rseiler.spbee.core.jdbc.ResultSetPublisher;
+import at.rseiler.spbee.core.metrics.ProcedureMetrics;
 import at.rseiler.spbee.core.pojo.*;
+import at.rseiler.spbee.core.pojo.annotation.EvictData;
 import at.rseiler.spbee.core.util.CodeModelUtil;
 import at.rseiler.spbee.core.util.StringUtil;
 import com.sun.codemodel.*;
@@ -11,6 +23,9 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Generator for the DTO classes.
@@ -59,9 +74,21 @@ public class DtoGenerator extends AbstractGenerator {
         private final Map<String, ResultSetClass> resultSetMap;
         private final JCodeModel model = new JCodeModel();
         private final Map<String, JFieldVar> spFields = new HashMap<>();
+        private final Map<String, JFieldVar> cacheFields = new LinkedHashMap<>();
+        private final Map<StoredProcedureMethod, JFieldVar> methodCacheFields = new LinkedHashMap<>();
+        private final Set<String> singleFlightNames = new HashSet<>();
+        private final Set<String> microBatcherNames = new HashSet<>();
+        private final Set<String> descriptorNames = new HashSet<>();
+        private final Set<String> metricsNames = new HashSet<>();
+        private final Map<StoredProcedureMethod, JFieldVar> descriptorFields = new LinkedHashMap<>();
+        private final Map<JMethod, JFieldVar> interceptorDescriptors = new HashMap<>();
+        private final Map<JMethod, JVar> interceptorTokens = new HashMap<>();
         private JDefinedClass dtoJClass;
         private JMethod constructor;
         private JVar dataSource;
+        private JFieldVar executor;
+        private JFieldVar procedureInterceptor;
+        private JDefinedClass procedureEvent;
 
         DtoClassGeneratorInstance(Properties config, DtoClass dtoClass, Map<String, ResultSetClass> resultSetMap) {
             this.config = config;
@@ -78,6 +105,7 @@ public class DtoGenerator extends AbstractGenerator {
          * <pre>
          * {@literal @Service} public class *DaoImpl extends *Dao
          * {@literal @Service} public class *DaoImpl implements *Dao
+         * {@literal @Service} public class *DaoImpl [ extends | implements ] *Dao implements CachedDao // if a method is cached
          * </pre>
          */
         DtoClassGeneratorInstance createClass() throws JClassAlreadyExistsException {
@@ -86,6 +114,11 @@ public class DtoGenerator extends AbstractGenerator {
             CodeModelUtil.annotateGenerated(dtoJClass);
             dtoJClass.annotate(model.ref(SPRING_ANNOTATION_SERVICE));
             addSuperClassOrInterface();
+
+            if (dtoClass.hasCachedMethods()) {
+                dtoJClass._implements(CachedDao.class);
+            }
+
             return this;
         }
 
@@ -94,6 +127,15 @@ public class DtoGenerator extends AbstractGenerator {
          * <pre>
          * {@literal @Autowired} public * (DataSource dataSource)
          * </pre>
+         * If one of the methods returns a CompletableFuture or is chunked:
+         * <pre>
+         * private final Executor executor;
+         *
+         * {@literal @Autowired} public * (DataSource dataSource, Executor executor) {
+         *     this.executor = executor;
+         * }
+         * </pre>
+         * The executor isn't injected if the virtual thread executor is configured.
          */
         DtoClassGeneratorInstance createConstructor() {
             constructor = dtoJClass.constructor(JMod.PUBLIC);
@@ -104,6 +146,10 @@ public class DtoGenerator extends AbstractGenerator {
                 constructor.body().add(JExpr.invoke("super").arg(dataSource));
             }
 
+            if (dtoClass.hasAsyncMethods() || dtoClass.hasChunkedMethods()) {
+                executor = addExecutorField(model, dtoJClass, constructor, config);
+            }
+
             return this;
         }
 
@@ -112,6 +158,17 @@ public class DtoGenerator extends AbstractGenerator {
          * method to call the stored procedure.
          */
         DtoClassGeneratorInstance addStoredProcedureMethods() throws JClassAlreadyExistsException {
+            if (isJfrEvents(config)) {
+                procedureEvent = addProcedureEventClass();
+            }
+
+            // the caches are created first, so that an @Evict method can invalidate a cache of a later method
+            for (StoredProcedureMethod storedProcedureMethod : dtoClass.getStoredProcedureMethods()) {
+                if (storedProcedureMethod.isCached()) {
+                    addCacheField(storedProcedureMethod);
+                }
+            }
+
             for (StoredProcedureMethod storedProcedureMethod : dtoClass.getStoredProcedureMethods()) {
                 String fieldName = storedProcedureMethod.getDtoFieldName();
 
@@ -121,6 +178,11 @@ public class DtoGenerator extends AbstractGenerator {
 
                 addDtoMethod(storedProcedureMethod, spFields.get(fieldName));
             }
+
+            if (!cacheFields.isEmpty()) {
+                addCachedDaoMethods();
+            }
+
             return this;
         }
 
@@ -178,8 +240,696 @@ public class DtoGenerator extends AbstractGenerator {
          */
         private void addDtoMethod(StoredProcedureMethod storedProcedureMethod, JFieldVar field) throws JClassAlreadyExistsException {
             JClass returnClass = getReturnClass(storedProcedureMethod);
+
+            if (storedProcedureMethod.isAsync()) {
+                String methodName = "execute" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+                addAsyncMethod(storedProcedureMethod, method, returnClass);
+            } else if (storedProcedureMethod.getChunked().isPresent()) {
+                String methodName = "execute" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+                addChunkedMethod(storedProcedureMethod, method, returnClass);
+            } else if (isPublisher(storedProcedureMethod)) {
+                JClass streamClass = model.ref(Stream.class).narrow(model.ref(storedProcedureMethod.getResultType()));
+                String methodName = "stream" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, streamClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, streamClass);
+                addPublisherMethod(storedProcedureMethod, method, returnClass, streamClass);
+            } else if (storedProcedureMethod.isCached()) {
+                String methodName = "load" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+                addCachedMethod(storedProcedureMethod, method, returnClass);
+            } else if (storedProcedureMethod.isEvicting()) {
+                String methodName = "execute" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+                addEvictingMethod(storedProcedureMethod, method, returnClass);
+            } else if (storedProcedureMethod.isSingleFlight()) {
+                String methodName = "execute" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+                JMethod method = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+                addSingleFlightMethod(storedProcedureMethod, method, returnClass);
+            } else {
+                JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
+                addAnnotations(storedProcedureMethod, method);
+                addMethodBody(storedProcedureMethod, field, method, returnClass);
+            }
+        }
+
+        /**
+         * Generates the public method which executes the private synchronous method with the Executor.
+         * <p>
+         * Generates:
+         * <pre>
+         * public CompletableFuture&lt;{DTO_METHOD_RETURN_TYPE}&gt; {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     return CompletableFuture.supplyAsync(new Supplier&lt;{DTO_METHOD_RETURN_TYPE}&gt;() {
+         *         {@literal @}Override
+         *         public {DTO_METHOD_RETURN_TYPE} get() {
+         *             return execute{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *         }
+         *     }, executor);
+         * }
+         * </pre>
+         */
+        private void addAsyncMethod(StoredProcedureMethod storedProcedureMethod, JMethod syncMethod, JClass returnClass) throws JClassAlreadyExistsException {
+            JClass futureReturnClass = "void".equals(storedProcedureMethod.getReturnTypeInfo().getType()) ? null : returnClass;
+            JMethod method = dtoJClass.method(JMod.PUBLIC, CodeModelUtil.getGenericCompletableFuture(model, futureReturnClass), storedProcedureMethod.getMethodName());
+            addAnnotations(storedProcedureMethod, method);
+            JInvocation invocation = JExpr.invoke(syncMethod);
+
+            for (JVar param : syncMethod.listParams()) {
+                invocation.arg(method.param(param.type(), param.name()));
+            }
+
+            method.body()._return(CodeModelUtil.supplyAsync(model, futureReturnClass, invocation, executor));
+        }
+
+        /**
+         * Generates the public method which executes the private method once per chunk of the array parameter.
+         * <p>
+         * Generates:
+         * <pre>
+         * public List&lt;*&gt; {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     return ChunkedExecution.execute({ARRAY_PARAMETER}, {CHUNK_SIZE}, {PARALLELISM}, {ORDERED}, executor, new Function&lt;*[], List&lt;*&gt;&gt;() {
+         *         {@literal @}Override
+         *         public List&lt;*&gt; apply(*[] chunk) {
+         *             return execute{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}); // chunk instead of the array parameter
+         *         }
+         *     });
+         * }
+         * </pre>
+         */
+        private void addChunkedMethod(StoredProcedureMethod storedProcedureMethod, JMethod syncMethod, JClass returnClass) throws JClassAlreadyExistsException {
             JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
             addAnnotations(storedProcedureMethod, method);
+            Variable array = storedProcedureMethod.getChunked().get();
+            JClass arrayClass = model.ref(array.getTypeInfo().asString());
+            JDefinedClass function = model.anonymousClass(model.ref(Function.class).narrow(arrayClass, returnClass));
+            JMethod apply = function.method(JMod.PUBLIC, returnClass, "apply");
+            apply.annotate(Override.class);
+            JVar chunk = apply.param(arrayClass, "chunk");
+            JInvocation invocation = JExpr.invoke(syncMethod);
+            JVar arrayParam = null;
+
+            for (JVar param : syncMethod.listParams()) {
+                JVar methodParam = method.param(param.type(), param.name());
+
+                if (array.getName().equals(param.name())) {
+                    arrayParam = methodParam;
+                    invocation.arg(chunk);
+                } else {
+                    invocation.arg(methodParam);
+                }
+            }
+
+            apply.body()._return(invocation);
+            method.body()._return(model.ref(ChunkedExecution.class).staticInvoke("execute")
+                    .arg(arrayParam)
+                    .arg(JExpr.lit(storedProcedureMethod.getChunkSize()))
+                    .arg(JExpr.lit(storedProcedureMethod.getChunkParallelism()))
+                    .arg(JExpr.lit(storedProcedureMethod.isChunkOrdered()))
+                    .arg(executor)
+                    .arg(JExpr._new(function)));
+        }
+
+        /**
+         * Generates the cache of a cached method. Overloaded methods get a numbered cache name, e.g. getUser2.
+         * If the rows are cached per key then the cache holds the entities instead of the lists.
+         * <p>
+         * Generates:
+         * <pre>
+         * private final ProcedureCache&lt;{DTO_METHOD_RETURN_TYPE}&gt; {DTO_METHOD_NAME}Cache = new ProcedureCache&lt;{DTO_METHOD_RETURN_TYPE}&gt;("{DTO_METHOD_NAME}", {TTL}, {MAX_ENTRIES});
+         * </pre>
+         */
+        private void addCacheField(StoredProcedureMethod storedProcedureMethod) {
+            JClass valueClass = storedProcedureMethod.getCacheKey().isPresent()
+                    ? model.ref(storedProcedureMethod.getResultType())
+                    : boxify(model, getReturnClass(storedProcedureMethod));
+            JClass cacheClass = model.ref(ProcedureCache.class).narrow(valueClass);
+            String cacheName = storedProcedureMethod.getMethodName();
+
+            for (int i = 2; cacheFields.containsKey(cacheName); i++) {
+                cacheName = storedProcedureMethod.getMethodName() + i;
+            }
+
+            JInvocation newCache = JExpr._new(cacheClass)
+                    .arg(JExpr.lit(cacheName))
+                    .arg(JExpr.lit(storedProcedureMethod.getCacheTtl()))
+                    .arg(JExpr.lit(storedProcedureMethod.getCacheMaxEntries()));
+            JFieldVar cache = dtoJClass.field(JMod.PRIVATE | JMod.FINAL, cacheClass, cacheName + "Cache", newCache);
+            cacheFields.put(cacheName, cache);
+            methodCacheFields.put(storedProcedureMethod, cache);
+        }
+
+        /**
+         * Generates the public method which returns the cached result or executes the private load method.
+         * <p>
+         * Generates:
+         * <pre>
+         * public {DTO_METHOD_RETURN_TYPE} {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     return {DTO_METHOD_NAME}Cache.get(ProcedureCache.key(new Object[] { {DTO_METHOD_PARAMETERS} }), new Supplier&lt;{DTO_METHOD_RETURN_TYPE}&gt;() {
+         *         {@literal @}Override
+         *         public {DTO_METHOD_RETURN_TYPE} get() {
+         *             return load{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *         }
+         *     });
+         * }
+         * </pre>
+         * If the method is a {@link at.rseiler.spbee.core.annotation.SingleFlight} method then the load method is
+         * executed with {@code {DTO_METHOD_NAME}Calls.execute(key, ...)}, so that concurrent cache misses share it.
+         */
+        private void addCachedMethod(StoredProcedureMethod storedProcedureMethod, JMethod loadMethod, JClass returnClass) throws JClassAlreadyExistsException {
+            JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
+            addAnnotations(storedProcedureMethod, method);
+
+            if (storedProcedureMethod.getCacheKey().isPresent()) {
+                addCachedRowsMethodBody(storedProcedureMethod, loadMethod, method, returnClass);
+                return;
+            }
+
+            JClass valueClass = boxify(model, returnClass);
+            JFieldVar cache = methodCacheFields.get(storedProcedureMethod);
+            JInvocation invocation = JExpr.invoke(loadMethod);
+            JInvocation key = addKeyParams(loadMethod, method, invocation);
+
+            if (storedProcedureMethod.isSingleFlight()) {
+                JFieldVar calls = addSingleFlightField(storedProcedureMethod, valueClass);
+                JVar keyVar = method.body().decl(JMod.FINAL, model.ref(Object.class), "key", key);
+                JInvocation load = calls.invoke("execute").arg(keyVar).arg(CodeModelUtil.supplier(model, valueClass, invocation));
+                method.body()._return(cache.invoke("get").arg(keyVar).arg(CodeModelUtil.supplier(model, valueClass, load)));
+            } else {
+                method.body()._return(cache.invoke("get").arg(key).arg(CodeModelUtil.supplier(model, valueClass, invocation)));
+            }
+        }
+
+        /**
+         * Generates the body of a cached method which caches the rows per {@link at.rseiler.spbee.core.annotation.Key}:
+         * only the keys which aren't cached are passed to the private load method.
+         * <p>
+         * Generates:
+         * <pre>
+         * return {DTO_METHOD_NAME}Cache.getAll(Arrays.asList({KEYS_PARAMETER}), new Function&lt;List&lt;{KEY_TYPE}&gt;, List&lt;{ENTITY}&gt;&gt;() {
+         *     {@literal @}Override
+         *     public List&lt;{ENTITY}&gt; apply(List&lt;{KEY_TYPE}&gt; keys) {
+         *         return load{DTO_METHOD_NAME}(keys.toArray(new {KEY_TYPE}[keys.size()]));
+         *     }
+         * }, new Function&lt;{ENTITY}, {KEY_TYPE}&gt;() {
+         *     {@literal @}Override
+         *     public {KEY_TYPE} apply({ENTITY} row) {
+         *         return row.get{KEY}();
+         *     }
+         * });
+         * </pre>
+         * A List parameter is passed without the conversion.
+         */
+        private void addCachedRowsMethodBody(StoredProcedureMethod storedProcedureMethod, JMethod loadMethod, JMethod method, JClass returnClass) {
+            Variable cacheKey = storedProcedureMethod.getCacheKey().get();
+            Variable keysArgument = storedProcedureMethod.getArguments().get(0);
+            JClass keyClass = model.ref(getCacheKeyTypes(storedProcedureMethod).get(0));
+            JClass entityClass = model.ref(storedProcedureMethod.getResultType());
+
+            if (!boxify(model, model.ref(cacheKey.getTypeInfo().asString())).fullName().equals(keyClass.fullName())) {
+                throw new RuntimeException("The @Key '" + cacheKey.getName() + "' of '" + entityClass.fullName() + "' doesn't match the parameter of: " + storedProcedureMethod.getMethodName());
+            }
+
+            JVar keysParam = method.param(loadMethod.listParams()[0].type(), keysArgument.getName());
+            boolean listParameter = List.class.getCanonicalName().equals(keysArgument.getTypeInfo().getType());
+
+            JClass keysClass = model.ref(List.class).narrow(keyClass);
+            JDefinedClass loader = model.anonymousClass(model.ref(Function.class).narrow(keysClass, returnClass));
+            JMethod load = loader.method(JMod.PUBLIC, returnClass, "apply");
+            load.annotate(Override.class);
+            JVar keys = load.param(keysClass, "keys");
+            load.body()._return(JExpr.invoke(loadMethod).arg(listParameter ? keys : keys.invoke("toArray").arg(JExpr.newArray(keyClass, keys.invoke("size")))));
+
+            JDefinedClass keyFunction = model.anonymousClass(model.ref(Function.class).narrow(entityClass, keyClass));
+            JMethod key = keyFunction.method(JMod.PUBLIC, keyClass, "apply");
+            key.annotate(Override.class);
+            String getter = StringUtil.getGetterName(cacheKey.getName(), cacheKey.getTypeInfo().asString());
+            key.body()._return(key.param(entityClass, "row").invoke(getter));
+
+            JExpression keysList = listParameter ? keysParam : model.ref(Arrays.class).staticInvoke("asList").arg(keysParam);
+            method.body()._return(methodCacheFields.get(storedProcedureMethod).invoke("getAll").arg(keysList).arg(JExpr._new(loader)).arg(JExpr._new(keyFunction)));
+        }
+
+        /**
+         * Generates the public method which executes the private method or waits for the execution with equal
+         * arguments which is in flight.
+         * <p>
+         * Generates:
+         * <pre>
+         * private final SingleFlightGroup&lt;{DTO_METHOD_RETURN_TYPE}&gt; {DTO_METHOD_NAME}Calls = new SingleFlightGroup&lt;{DTO_METHOD_RETURN_TYPE}&gt;();
+         *
+         * public {DTO_METHOD_RETURN_TYPE} {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     return {DTO_METHOD_NAME}Calls.execute(ProcedureCache.key(new Object[] { {DTO_METHOD_PARAMETERS} }), new Supplier&lt;{DTO_METHOD_RETURN_TYPE}&gt;() {
+         *         {@literal @}Override
+         *         public {DTO_METHOD_RETURN_TYPE} get() {
+         *             return execute{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *         }
+         *     });
+         * }
+         * </pre>
+         */
+        private void addSingleFlightMethod(StoredProcedureMethod storedProcedureMethod, JMethod executeMethod, JClass returnClass) throws JClassAlreadyExistsException {
+            JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
+            addAnnotations(storedProcedureMethod, method);
+            JClass valueClass = boxify(model, returnClass);
+            JFieldVar calls = addSingleFlightField(storedProcedureMethod, valueClass);
+            JInvocation invocation = JExpr.invoke(executeMethod);
+            JInvocation key = addKeyParams(executeMethod, method, invocation);
+            method.body()._return(calls.invoke("execute").arg(key).arg(CodeModelUtil.supplier(model, valueClass, invocation)));
+        }
+
+        /**
+         * Generates the single flight group of the method. Overloaded methods get a numbered name, e.g. getUser2Calls.
+         */
+        private JFieldVar addSingleFlightField(StoredProcedureMethod storedProcedureMethod, JClass valueClass) {
+            JClass groupClass = model.ref(SingleFlightGroup.class).narrow(valueClass);
+            String name = storedProcedureMethod.getMethodName();
+
+            for (int i = 2; !singleFlightNames.add(name); i++) {
+                name = storedProcedureMethod.getMethodName() + i;
+            }
+
+            return dtoJClass.field(JMod.PRIVATE | JMod.FINAL, groupClass, name + "Calls", JExpr._new(groupClass));
+        }
+
+        /**
+         * Adds the parameters of the private method to the public method and passes them to the invocation of the
+         * private method.
+         *
+         * @return the key of the arguments: {@code ProcedureCache.key(new Object[] { {DTO_METHOD_PARAMETERS} })}
+         */
+        private JInvocation addKeyParams(JMethod privateMethod, JMethod method, JInvocation invocation) {
+            JInvocation key = model.ref(ProcedureCache.class).staticInvoke("key");
+
+            if (!privateMethod.listParams().isEmpty()) {
+                JArray arguments = JExpr.newArray(model.ref(Object.class));
+
+                for (JVar param : privateMethod.listParams()) {
+                    JVar methodParam = method.param(param.type(), param.name());
+                    arguments.add(methodParam);
+                    invocation.arg(methodParam);
+                }
+
+                // the arguments are always passed as array, so that an array parameter isn't used as varargs
+                key.arg(arguments);
+            }
+
+            return key;
+        }
+
+        /**
+         * Generates the public method which executes the private method and invalidates the caches of the
+         * {@link at.rseiler.spbee.core.annotation.Evict} annotations afterwards, even if the execution failed.
+         * <p>
+         * Generates:
+         * <pre>
+         * public {DTO_METHOD_RETURN_TYPE} {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     try {
+         *         return execute{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *     } finally {
+         *         [ CacheInvalidation.invalidate({CACHED_METHOD_NAME}Cache, ProcedureCache.key(new Object[] { {KEY_PARAMETERS} })); ]*
+         *         [ CacheInvalidation.invalidateAll({CACHED_METHOD_NAME}Cache); ]*
+         *     }
+         * }
+         * </pre>
+         */
+        private void addEvictingMethod(StoredProcedureMethod storedProcedureMethod, JMethod executeMethod, JClass returnClass) throws JClassAlreadyExistsException {
+            JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
+            addAnnotations(storedProcedureMethod, method);
+            JInvocation invocation = JExpr.invoke(executeMethod);
+            Map<String, JVar> params = new HashMap<>();
+
+            for (JVar param : executeMethod.listParams()) {
+                JVar methodParam = method.param(param.type(), param.name());
+                params.put(param.name(), methodParam);
+                invocation.arg(methodParam);
+            }
+
+            JTryBlock tryBlock = method.body()._try();
+
+            if ("void".equals(storedProcedureMethod.getReturnTypeInfo().getType())) {
+                tryBlock.body().add(invocation);
+            } else {
+                tryBlock.body()._return(invocation);
+            }
+
+            JClass cacheInvalidation = model.ref(CacheInvalidation.class);
+            Set<JFieldVar> invalidatedCaches = new HashSet<>();
+
+            for (EvictData evict : storedProcedureMethod.getEvicts()) {
+                for (StoredProcedureMethod cachedMethod : getEvictedMethods(storedProcedureMethod, evict)) {
+                    JFieldVar cache = methodCacheFields.get(cachedMethod);
+
+                    if (evict.getKey().isEmpty()) {
+                        if (invalidatedCaches.add(cache)) {
+                            tryBlock._finally().add(cacheInvalidation.staticInvoke("invalidateAll").arg(cache));
+                        }
+                    } else {
+                        JInvocation key = model.ref(ProcedureCache.class).staticInvoke("key");
+                        JArray arguments = JExpr.newArray(model.ref(Object.class));
+                        evict.getKey().forEach(name -> arguments.add(params.get(name)));
+                        tryBlock._finally().add(cacheInvalidation.staticInvoke("invalidate").arg(cache).arg(key.arg(arguments)));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the cached methods whose caches are invalidated by the {@link at.rseiler.spbee.core.annotation.Evict}
+         * annotation: the methods with one of the names and the methods with one of the tags. If a key is defined then
+         * the types of the key parameters must be the types of the parameters of the cached methods.
+         */
+        private List<StoredProcedureMethod> getEvictedMethods(StoredProcedureMethod storedProcedureMethod, EvictData evict) {
+            List<StoredProcedureMethod> cachedMethods = new ArrayList<>();
+
+            for (String methodName : evict.getMethodNames()) {
+                List<StoredProcedureMethod> methods = new ArrayList<>();
+
+                for (StoredProcedureMethod cachedMethod : methodCacheFields.keySet()) {
+                    if (cachedMethod.getMethodName().equals(methodName)) {
+                        methods.add(cachedMethod);
+                    }
+                }
+
+                if (methods.isEmpty()) {
+                    throw new RuntimeException("The @Evict method '" + methodName + "' of '" + storedProcedureMethod.getMethodName() + "' isn't a @Cached method of: " + dtoClass.getQualifiedClassName());
+                }
+
+                cachedMethods.addAll(methods);
+            }
+
+            for (String tag : evict.getTags()) {
+                List<StoredProcedureMethod> methods = new ArrayList<>();
+
+                for (StoredProcedureMethod cachedMethod : methodCacheFields.keySet()) {
+                    if (cachedMethod.getCacheTags().contains(tag)) {
+                        methods.add(cachedMethod);
+                    }
+                }
+
+                if (methods.isEmpty()) {
+                    throw new RuntimeException("The @Evict tag '" + tag + "' of '" + storedProcedureMethod.getMethodName() + "' isn't a tag of a @Cached method of: " + dtoClass.getQualifiedClassName());
+                }
+
+                cachedMethods.addAll(methods);
+            }
+
+            if (!evict.getKey().isEmpty()) {
+                List<String> keyTypes = new ArrayList<>();
+
+                for (String name : evict.getKey()) {
+                    storedProcedureMethod.getArguments().stream()
+                            .filter(argument -> argument.getName().equals(name))
+                            .forEach(argument -> keyTypes.add(getKeyType(argument)));
+                }
+
+                for (StoredProcedureMethod cachedMethod : cachedMethods) {
+                    if (!keyTypes.equals(getCacheKeyTypes(cachedMethod))) {
+                        throw new RuntimeException("The @Evict key " + evict.getKey() + " of '" + storedProcedureMethod.getMethodName() + "' doesn't match the parameters of: " + cachedMethod.getMethodName());
+                    }
+                }
+            }
+
+            return cachedMethods;
+        }
+
+        /**
+         * Returns the types of the cache key of a cached method: the types of the arguments or the element type of the
+         * keys parameter if the rows are cached per key.
+         */
+        private List<String> getCacheKeyTypes(StoredProcedureMethod cachedMethod) {
+            List<String> types = new ArrayList<>();
+
+            if (cachedMethod.getCacheKey().isPresent()) {
+                TypeInfo keys = cachedMethod.getArguments().get(0).getTypeInfo();
+                String type = keys.getGenericType().orElse(keys.getType().replace("[]", ""));
+                types.add(getKeyType(new Variable("key", type)));
+            } else {
+                cachedMethod.getArguments().forEach(argument -> types.add(getKeyType(argument)));
+            }
+
+            return types;
+        }
+
+        /**
+         * Returns the type of the argument as it's stored in the cache key, i.e. a primitive type is boxed.
+         */
+        private String getKeyType(Variable argument) {
+            String type = argument.getTypeInfo().asString();
+            return type.contains("[") || type.contains("<") ? type : boxify(model, model.ref(type)).fullName();
+        }
+
+        /**
+         * Generates the methods of {@link CachedDao}.
+         * <p>
+         * Generates:
+         * <pre>
+         * {@literal @}Override
+         * public ProcedureCache&lt;?&gt; getCache(String methodName) {
+         *     [ if ("{DTO_METHOD_NAME}".equals(methodName)) {
+         *         return {DTO_METHOD_NAME}Cache;
+         *     } ]*
+         *     return null;
+         * }
+         *
+         * {@literal @}Override
+         * public void invalidateCaches() {
+         *     [ {DTO_METHOD_NAME}Cache.invalidateAll(); ]*
+         * }
+         * </pre>
+         */
+        private void addCachedDaoMethods() {
+            JMethod getCache = dtoJClass.method(JMod.PUBLIC, model.ref(ProcedureCache.class).narrow(model.ref(Object.class).wildcard()), "getCache");
+            getCache.annotate(Override.class);
+            JVar methodName = getCache.param(String.class, "methodName");
+            JMethod invalidateCaches = dtoJClass.method(JMod.PUBLIC, model.VOID, "invalidateCaches");
+            invalidateCaches.annotate(Override.class);
+
+            for (Map.Entry<String, JFieldVar> entry : cacheFields.entrySet()) {
+                getCache.body()._if(JExpr.lit(entry.getKey()).invoke("equals").arg(methodName))._then()._return(entry.getValue());
+                invalidateCaches.body().add(entry.getValue().invoke("invalidateAll"));
+            }
+
+            getCache.body()._return(JExpr._null());
+        }
+
+        /**
+         * Generates the public method which publishes the rows of the private stream method. The stored procedure is
+         * executed as soon as the subscriber requests the first rows.
+         * <p>
+         * Generates:
+         * <pre>
+         * public Flow.Publisher&lt;*&gt; {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     return ResultSetPublisher.publisher(new Supplier&lt;Stream&lt;*&gt;&gt;() {
+         *         {@literal @}Override
+         *         public Stream&lt;*&gt; get() {
+         *             return stream{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *         }
+         *     });
+         * }
+         * </pre>
+         */
+        private void addPublisherMethod(StoredProcedureMethod storedProcedureMethod, JMethod streamMethod, JClass returnClass, JClass streamClass) throws JClassAlreadyExistsException {
+            JMethod method = dtoJClass.method(JMod.PUBLIC, returnClass, storedProcedureMethod.getMethodName());
+            addAnnotations(storedProcedureMethod, method);
+            JInvocation invocation = JExpr.invoke(streamMethod);
+
+            for (JVar param : streamMethod.listParams()) {
+                invocation.arg(method.param(param.type(), param.name()));
+            }
+
+            method.body()._return(model.ref(ResultSetPublisher.class).staticInvoke("publisher").arg(CodeModelUtil.supplier(model, streamClass, invocation)));
+        }
+
+        /**
+         * Generates the body of the method which calls the stored procedure or loads the row with the micro batcher
+         * of a {@link at.rseiler.spbee.core.annotation.MicroBatch} method.
+         */
+        private void addMethodBody(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method, JClass returnClass) {
+            if (storedProcedureMethod.getMicroBatch().isPresent()) {
+                microBatch(storedProcedureMethod, field, method, returnClass);
+            } else {
+                addMeasuredProcedureCall(storedProcedureMethod, field, method, returnClass);
+            }
+        }
+
+        /**
+         * Generates the body of the method which calls the stored procedure. If the JMX metrics or the JFR events are
+         * configured then the stored procedure is called by a private method and the method measures the call.
+         * <p>
+         * Generates:
+         * <pre>
+         * private static final ProcedureMetrics {DTO_METHOD_NAME}_METRICS = ProcedureMetrics.register({DTO_METHOD_NAME}_DESCRIPTOR);
+         *
+         * private {DTO_METHOD_RETURN_TYPE} call{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     // calls the stored procedure
+         * }
+         *
+         * {DTO_METHOD_RETURN_TYPE} {DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS}) {
+         *     long metricsStart = {DTO_METHOD_NAME}_METRICS.start(); // if metrics=jmx
+         *     ProcedureEvent event = new ProcedureEvent(); // if events=jfr
+         *     event.begin(); // if events=jfr
+         *     try {
+         *         {DTO_METHOD_RETURN_TYPE} result = call{DTO_METHOD_NAME}({DTO_METHOD_PARAMETERS});
+         *         {DTO_METHOD_NAME}_METRICS.success(metricsStart, result); // success(metricsStart) if it's void or primitive
+         *         event.complete({DTO_METHOD_NAME}_DESCRIPTOR, result, null); // null instead of the result if it's void or primitive
+         *         return result;
+         *     } catch (Throwable e) {
+         *         {DTO_METHOD_NAME}_METRICS.failure(metricsStart);
+         *         event.complete({DTO_METHOD_NAME}_DESCRIPTOR, null, e);
+         *         throw e;
+         *     }
+         * }
+         * </pre>
+         */
+        private void addMeasuredProcedureCall(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method, JClass returnClass) {
+            if (!isJmxMetrics(config) && !isJfrEvents(config)) {
+                addProcedureCall(storedProcedureMethod, field, method, returnClass);
+                return;
+            }
+
+            String methodName = "call" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+            JMethod call = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+            addProcedureCall(storedProcedureMethod, field, call, returnClass);
+            JInvocation invocation = JExpr.invoke(call);
+
+            for (JVar param : call.listParams()) {
+                invocation.arg(method.param(param.type(), param.name()));
+            }
+
+            JFieldVar descriptor = getDescriptorField(storedProcedureMethod);
+            JFieldVar metrics = null;
+            JVar start = null;
+            JVar event = null;
+
+            if (isJmxMetrics(config)) {
+                JInvocation register = model.ref(ProcedureMetrics.class).staticInvoke("register").arg(descriptor);
+                metrics = dtoJClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, ProcedureMetrics.class, getConstantName(storedProcedureMethod, metricsNames) + "_METRICS", register);
+                start = method.body().decl(model.LONG, "metricsStart", metrics.invoke("start"));
+            }
+
+            if (isJfrEvents(config)) {
+                event = method.body().decl(procedureEvent, "event", JExpr._new(procedureEvent));
+                method.body().add(event.invoke("begin"));
+            }
+
+            JTryBlock tryBlock = method.body()._try();
+            JVar result = null;
+
+            if ("void".equals(returnClass.fullName())) {
+                tryBlock.body().add(invocation);
+            } else {
+                result = tryBlock.body().decl(returnClass, "result", invocation);
+            }
+
+            // the result of a primitive method isn't boxed, it's a single value anyway
+            JExpression rows = result == null || isPrimitive(returnClass) ? null : result;
+
+            if (metrics != null) {
+                tryBlock.body().add(rows == null ? metrics.invoke("success").arg(start) : metrics.invoke("success").arg(start).arg(rows));
+            }
+
+            if (event != null) {
+                tryBlock.body().add(event.invoke("complete").arg(descriptor).arg(rows == null ? JExpr._null() : rows).arg(JExpr._null()));
+            }
+
+            if (result != null) {
+                tryBlock.body()._return(result);
+            }
+
+            // an Error is measured too, the rethrow is precise so the method doesn't declare a checked exception
+            JCatchBlock catchBlock = tryBlock._catch(model.ref(Throwable.class));
+            JVar e = catchBlock.param("e");
+
+            if (metrics != null) {
+                catchBlock.body().add(metrics.invoke("failure").arg(start));
+            }
+
+            if (event != null) {
+                catchBlock.body().add(event.invoke("complete").arg(descriptor).arg(JExpr._null()).arg(e));
+            }
+
+            catchBlock.body()._throw(e);
+        }
+
+        /**
+         * Generates the JDK Flight Recorder event of the DAO. The event is named after the DAO, e.g.
+         * at.rseiler.spbee.demo.dao.UserDao.ProcedureCall, and its threshold and stack trace can be configured with the
+         * standard JFR settings. A failed call, also one which throws an Error, completes the event with its exception.
+         * <p>
+         * Generates:
+         * <pre>
+         * {@literal @}Name("{DAO}.ProcedureCall")
+         * {@literal @}Label("Stored Procedure Call")
+         * {@literal @}Category("spBee")
+         * {@literal @}Threshold("20 ms")
+         * public static class ProcedureEvent extends Event {
+         *
+         *     {@literal @}Label("Procedure") String procedureName;
+         *     {@literal @}Label("DAO") String daoName;
+         *     {@literal @}Label("Method") String methodName;
+         *     {@literal @}Label("Rows") long rows;
+         *     {@literal @}Label("Exception") Class&lt;?&gt; exceptionClass;
+         *
+         *     void complete(ProcedureDescriptor descriptor, Object result, Throwable exception) {
+         *         end();
+         *         if (shouldCommit()) {
+         *             procedureName = descriptor.getProcedureName();
+         *             daoName = descriptor.getDaoName();
+         *             methodName = descriptor.getMethodName();
+         *             rows = ProcedureMetrics.countRows(result);
+         *             exceptionClass = exception == null ? null : exception.getClass();
+         *             commit();
+         *         }
+         *     }
+         *
+         * }
+         * </pre>
+         */
+        private JDefinedClass addProcedureEventClass() throws JClassAlreadyExistsException {
+            JDefinedClass eventClass = dtoJClass._class(JMod.PUBLIC | JMod.STATIC, "ProcedureEvent");
+            eventClass._extends(model.ref(JFR_EVENT));
+            eventClass.annotate(model.ref("jdk.jfr.Name")).param("value", dtoClass.getSuperQualifiedClassName() + ".ProcedureCall");
+            eventClass.annotate(model.ref("jdk.jfr.Label")).param("value", "Stored Procedure Call");
+            eventClass.annotate(model.ref("jdk.jfr.Category")).param("value", "spBee");
+            eventClass.annotate(model.ref("jdk.jfr.Threshold")).param("value", "20 ms");
+
+            JFieldVar procedureName = addEventField(eventClass, model.ref(String.class), "procedureName", "Procedure");
+            JFieldVar daoName = addEventField(eventClass, model.ref(String.class), "daoName", "DAO");
+            JFieldVar methodName = addEventField(eventClass, model.ref(String.class), "methodName", "Method");
+            JFieldVar rows = addEventField(eventClass, model.LONG, "rows", "Rows");
+            JFieldVar exceptionClass = addEventField(eventClass, model.ref(Class.class).narrow(model.wildcard()), "exceptionClass", "Exception");
+
+            JMethod complete = eventClass.method(JMod.NONE, model.VOID, "complete");
+            JVar descriptor = complete.param(ProcedureDescriptor.class, "descriptor");
+            JVar result = complete.param(Object.class, "result");
+            JVar exception = complete.param(Throwable.class, "exception");
+            complete.body().add(JExpr.invoke("end"));
+            JBlock commit = complete.body()._if(JExpr.invoke("shouldCommit"))._then();
+            commit.assign(procedureName, descriptor.invoke("getProcedureName"));
+            commit.assign(daoName, descriptor.invoke("getDaoName"));
+            commit.assign(methodName, descriptor.invoke("getMethodName"));
+            commit.assign(rows, model.ref(ProcedureMetrics.class).staticInvoke("countRows").arg(result));
+            commit.assign(exceptionClass, JOp.cond(exception.eq(JExpr._null()), JExpr._null(), exception.invoke("getClass")));
+            commit.add(JExpr.invoke("commit"));
+            return eventClass;
+        }
+
+        private JFieldVar addEventField(JDefinedClass eventClass, JType type, String name, String label) {
+            JFieldVar field = eventClass.field(JMod.NONE, type, name);
+            field.annotate(model.ref("jdk.jfr.Label")).param("value", label);
+            return field;
+        }
+
+        /**
+         * Generates the body of the method which calls the stored procedure.
+         */
+        private void addProcedureCall(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method, JClass returnClass) {
             JInvocation execute = getExecute(storedProcedureMethod, field, method);
             JVar interceptorIdObject = null;
 
@@ -195,9 +945,21 @@ public class DtoGenerator extends AbstractGenerator {
                 method.body().assign(interceptorIdObject, before);
             }
 
-            if ("void".equals(storedProcedureMethod.getReturnTypeInfo().getType())) {
-                method.body().add(execute);
+            if (config.containsKey(CONFIG_PROCEDURE_INTERCEPTOR)) {
+                addProcedureInterceptorCallBefore(storedProcedureMethod, method, execute);
+            }
+
+            if (storedProcedureMethod.getRowConsumer().isPresent()) {
+                rowConsumer(storedProcedureMethod, field, method, execute, interceptorIdObject);
+            } else if ("void".equals(storedProcedureMethod.getReturnTypeInfo().getType())) {
+                executeBlock(method).add(execute);
                 addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+            } else if (storedProcedureMethod.getOut().isPresent()) {
+                outParameter(storedProcedureMethod, returnClass, method, execute, interceptorIdObject);
+            } else if (storedProcedureMethod.getPrimitiveColumnType().isPresent()) {
+                primitiveColumn(storedProcedureMethod, returnClass, method, execute, interceptorIdObject);
+            } else if (isStream(storedProcedureMethod) || isPublisher(storedProcedureMethod)) {
+                stream(storedProcedureMethod, returnClass, method, execute, interceptorIdObject);
             } else if (resultSetMap.containsKey(storedProcedureMethod.getReturnTypeInfo().getType())) {
                 multipleResultSets(storedProcedureMethod, returnClass, method, execute, interceptorIdObject);
             } else {
@@ -205,14 +967,148 @@ public class DtoGenerator extends AbstractGenerator {
             }
         }
 
+        /**
+         * Generates the body of a {@link at.rseiler.spbee.core.annotation.MicroBatch} method which loads the row with
+         * the micro batcher. A batch with one key is loaded with the private query method, a larger batch with the
+         * multi-key method.
+         * <p>
+         * Generates:
+         * <pre>
+         * private final MicroBatcher&lt;{KEY_TYPE}, {DTO_METHOD_RETURN_TYPE}&gt; {DTO_METHOD_NAME}Batcher = new MicroBatcher&lt;{KEY_TYPE}, {DTO_METHOD_RETURN_TYPE}&gt;("{DTO_METHOD_NAME}", {WINDOW_NANOS}, {MAX_SIZE}, {RETURN_NULL},
+         *     new Function&lt;{KEY_TYPE}, {DTO_METHOD_RETURN_TYPE}&gt;() {
+         *         {@literal @}Override
+         *         public {DTO_METHOD_RETURN_TYPE} apply({KEY_TYPE} key) {
+         *             return query{DTO_METHOD_NAME}(key);
+         *         }
+         *     },
+         *     new Function&lt;List&lt;{KEY_TYPE}&gt;, List&lt;{DTO_METHOD_RETURN_TYPE}&gt;&gt;() {
+         *         {@literal @}Override
+         *         public List&lt;{DTO_METHOD_RETURN_TYPE}&gt; apply(List&lt;{KEY_TYPE}&gt; keys) {
+         *             return {MULTI_KEY_METHOD_NAME}(keys.toArray(new {KEY_TYPE}[keys.size()])); // or keys if it's a List parameter
+         *         }
+         *     },
+         *     new Function&lt;{DTO_METHOD_RETURN_TYPE}, {KEY_TYPE}&gt;() {
+         *         {@literal @}Override
+         *         public {KEY_TYPE} apply({DTO_METHOD_RETURN_TYPE} row) {
+         *             return row.get{KEY}();
+         *         }
+         *     });
+         *
+         * private {DTO_METHOD_RETURN_TYPE} query{DTO_METHOD_NAME}({DTO_METHOD_PARAMETER}) {
+         *     // calls the stored procedure
+         * }
+         *
+         * {DTO_METHOD_RETURN_TYPE} {DTO_METHOD_NAME}({DTO_METHOD_PARAMETER}) {
+         *     return {DTO_METHOD_NAME}Batcher.load({DTO_METHOD_PARAMETER});
+         * }
+         * </pre>
+         * Overloaded methods get a numbered batcher, e.g. getUser2Batcher with the name "getUser2".
+         */
+        private void microBatch(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method, JClass returnClass) {
+            String methodName = "query" + StringUtil.firstCharToUpperCase(storedProcedureMethod.getMethodName());
+            JMethod query = dtoJClass.method(JMod.PRIVATE, returnClass, methodName);
+            addMeasuredProcedureCall(storedProcedureMethod, field, query, returnClass);
+
+            Variable argument = storedProcedureMethod.getArguments().get(0);
+            JClass keyClass = boxify(model, model.ref(argument.getTypeInfo().asString()));
+            StoredProcedureMethod multiKeyMethod = getMultiKeyMethod(storedProcedureMethod, keyClass);
+
+            JDefinedClass singleFunction = model.anonymousClass(model.ref(Function.class).narrow(keyClass, returnClass));
+            JMethod single = singleFunction.method(JMod.PUBLIC, returnClass, "apply");
+            single.annotate(Override.class);
+            single.body()._return(JExpr.invoke(query).arg(single.param(keyClass, "key")));
+
+            JClass keysClass = model.ref(List.class).narrow(keyClass);
+            JClass rowsClass = model.ref(List.class).narrow(returnClass);
+            JDefinedClass multiFunction = model.anonymousClass(model.ref(Function.class).narrow(keysClass, rowsClass));
+            JMethod multi = multiFunction.method(JMod.PUBLIC, rowsClass, "apply");
+            multi.annotate(Override.class);
+            JVar keys = multi.param(keysClass, "keys");
+            boolean listParameter = List.class.getCanonicalName().equals(multiKeyMethod.getArguments().get(0).getTypeInfo().getType());
+            JExpression multiArgument = listParameter ? keys : keys.invoke("toArray").arg(JExpr.newArray(keyClass, keys.invoke("size")));
+            multi.body()._return(JExpr.invoke(multiKeyMethod.getMethodName()).arg(multiArgument));
+
+            JDefinedClass keyFunction = model.anonymousClass(model.ref(Function.class).narrow(returnClass, keyClass));
+            JMethod key = keyFunction.method(JMod.PUBLIC, keyClass, "apply");
+            key.annotate(Override.class);
+            String getter = StringUtil.getGetterName(storedProcedureMethod.getMicroBatchKey(), argument.getTypeInfo().asString());
+            key.body()._return(key.param(returnClass, "row").invoke(getter));
+
+            String name = storedProcedureMethod.getMethodName();
+
+            for (int i = 2; !microBatcherNames.add(name); i++) {
+                name = storedProcedureMethod.getMethodName() + i;
+            }
+
+            JClass batcherClass = model.ref(MicroBatcher.class).narrow(keyClass, returnClass);
+            JInvocation newBatcher = JExpr._new(batcherClass)
+                    .arg(JExpr.lit(name))
+                    .arg(JExpr.lit(storedProcedureMethod.getMicroBatchWindow()))
+                    .arg(JExpr.lit(storedProcedureMethod.getMicroBatchMaxSize()))
+                    .arg(JExpr.lit(storedProcedureMethod.useNullInsteadOfAnException()))
+                    .arg(JExpr._new(singleFunction))
+                    .arg(JExpr._new(multiFunction))
+                    .arg(JExpr._new(keyFunction));
+            JFieldVar batcher = dtoJClass.field(JMod.PRIVATE | JMod.FINAL, batcherClass, name + "Batcher", newBatcher);
+
+            method.body()._return(batcher.invoke("load").arg(method.param(query.listParams()[0].type(), argument.getName())));
+        }
+
+        /**
+         * Returns the multi-key method of a {@link at.rseiler.spbee.core.annotation.MicroBatch} method. It must be the
+         * only method with the name, must have an array or a List parameter of the key type and must return a List of
+         * the entity.
+         */
+        private StoredProcedureMethod getMultiKeyMethod(StoredProcedureMethod storedProcedureMethod, JClass keyClass) {
+            String entityType = storedProcedureMethod.getReturnTypeInfo().getType();
+
+            if (entityType.startsWith("java.") || resultSetMap.containsKey(entityType)) {
+                throw new RuntimeException("The @MicroBatch method '" + storedProcedureMethod.getMethodName() + "' must return an entity: " + dtoClass.getQualifiedClassName());
+            }
+
+            List<StoredProcedureMethod> methods = new ArrayList<>();
+
+            for (StoredProcedureMethod method : dtoClass.getStoredProcedureMethods()) {
+                if (method.getMethodName().equals(storedProcedureMethod.getMicroBatch().get())) {
+                    methods.add(method);
+                }
+            }
+
+            if (methods.size() != 1) {
+                throw new RuntimeException("The multi-key method '" + storedProcedureMethod.getMicroBatch().get() + "' of '" + storedProcedureMethod.getMethodName() + "' must be exactly one method of: " + dtoClass.getQualifiedClassName());
+            }
+
+            StoredProcedureMethod method = methods.get(0);
+            String list = List.class.getCanonicalName();
+            TypeInfo returnTypeInfo = method.getReturnTypeInfo();
+            TypeInfo keysTypeInfo = method.getArguments().size() == 1 ? method.getArguments().get(0).getTypeInfo() : null;
+            boolean validKeys = keysTypeInfo != null && (keysTypeInfo.asString().equals(keyClass.fullName() + "[]")
+                    || list.equals(keysTypeInfo.getType()) && keyClass.fullName().equals(keysTypeInfo.getGenericType().orElse(null)));
+            boolean validRows = list.equals(returnTypeInfo.getType()) && entityType.equals(returnTypeInfo.getGenericType().orElse(null));
+
+            if (method.isAsync() || !validKeys || !validRows) {
+                throw new RuntimeException("The multi-key method '" + method.getMethodName() + "' must have one " + keyClass.name() + "[] or List<" + keyClass.name() + "> parameter and must return List<" + entityType + ">: " + dtoClass.getQualifiedClassName());
+            }
+
+            return method;
+        }
+
         /**
          * Generates:
          * <pre>
          * {FIELD}.execute( [ * ]* )
+         * {FIELD}.stream( [ * ]* ) // if the method returns a Stream or a Flow.Publisher
+         * {FIELD}.forEach( [ * ]* ) // if the method has a Consumer parameter
+         * {FIELD}.executeUnique( [ * ]* ) // if the method returns an entity or an Optional of an entity
          * </pre>
          */
         private JInvocation getExecute(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method) {
-            JInvocation execute = JExpr.invoke(field, "execute");
+            JInvocation execute = JExpr.invoke(field, getExecuteMethodName(storedProcedureMethod));
+
+            if (storedProcedureMethod.getBatch().isPresent()) {
+                Variable batch = storedProcedureMethod.getBatch().get();
+                return execute.arg(method.param(CodeModelUtil.getGenericList(model, batch.getTypeInfo().getGenericTypeOrType()), batch.getName()));
+            }
 
             for (Variable variable : storedProcedureMethod.getArguments()) {
                 JVar param = method.param(model.ref(variable.getTypeInfo().asString()), variable.getName());
@@ -222,6 +1118,23 @@ public class DtoGenerator extends AbstractGenerator {
             return execute;
         }
 
+        /**
+         * Returns the name of the method of the stored procedure class which must be called.
+         */
+        private String getExecuteMethodName(StoredProcedureMethod storedProcedureMethod) {
+            if (isStream(storedProcedureMethod) || isPublisher(storedProcedureMethod)) {
+                return "stream";
+            } else if (storedProcedureMethod.getRowConsumer().isPresent()) {
+                return "forEach";
+            } else if (isUnique(storedProcedureMethod, resultSetMap)) {
+                return "executeUnique";
+            } else if (storedProcedureMethod.getBatch().isPresent()) {
+                return "executeBatch";
+            }
+
+            return "execute";
+        }
+
         /**
          * Generates the class for the return type.
          */
@@ -326,7 +1239,7 @@ public class DtoGenerator extends AbstractGenerator {
          */
         private void multipleResultSets(StoredProcedureMethod storedProcedureMethod, JClass returnClass, JMethod method, JInvocation execute, JVar interceptorIdObject) {
             JVar map = method.body().decl(CodeModelUtil.getMapStringObject(model), "map");
-            method.body().assign(map, execute);
+            executeBlock(method).assign(map, execute);
             addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
             JInvocation resultSetsInvoke = JExpr._new(returnClass);
 
@@ -369,6 +1282,53 @@ public class DtoGenerator extends AbstractGenerator {
             method.body()._return(resultSetsInvoke);
         }
 
+        /**
+         * Generates the body of the DTO method for methods which pass the rows to a Consumer parameter.
+         * <p>
+         * Generates:
+         * <pre>
+         * Object interceptorIdObject; // optional
+         * interceptorIdObject = *SpInterceptor.before("*"); // optional
+         * sp*.forEach( [ * ]*, {CONSUMER});
+         * *SpInterceptor.after(interceptorIdObject, "*"); // optional
+         * </pre>
+         */
+        private void rowConsumer(StoredProcedureMethod storedProcedureMethod, JFieldVar field, JMethod method, JInvocation execute, JVar interceptorIdObject) {
+            Variable rowConsumer = storedProcedureMethod.getRowConsumer().get();
+            JClass consumerClass = model.ref(Consumer.class).narrow(model.ref(storedProcedureMethod.getResultType()));
+            JVar consumer = method.param(consumerClass, rowConsumer.getName());
+            // the consumer isn't passed to the interceptor, therefore it's only added to this invocation
+            JInvocation forEach = JExpr.invoke(field, "forEach");
+
+            for (JExpression arg : execute.listArgs()) {
+                forEach.arg(arg);
+            }
+
+            executeBlock(method).add(forEach.arg(consumer));
+            addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+        }
+
+        /**
+         * Generates the body of the DTO method for methods which return a Stream. The after interceptor is called as
+         * soon as the stored procedure was executed, not when the stream is consumed.
+         * <p>
+         * Generates:
+         * <pre>
+         * Object interceptorIdObject; // optional
+         * interceptorIdObject = *SpInterceptor.before("*"); // optional
+         * Stream<*> stream;
+         * stream = sp*.stream( [ * ]* );
+         * *SpInterceptor.after(interceptorIdObject, "*"); // optional
+         * return stream;
+         * </pre>
+         */
+        private void stream(StoredProcedureMethod storedProcedureMethod, JClass returnClass, JMethod method, JInvocation execute, JVar interceptorIdObject) {
+            JVar stream = method.body().decl(returnClass, "stream");
+            executeBlock(method).assign(stream, execute);
+            addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+            method.body()._return(stream);
+        }
+
         /**
          * Generates the body of the DTO method for methods with exactly one result-set.
          * <p>
@@ -382,12 +1342,22 @@ public class DtoGenerator extends AbstractGenerator {
          * return ((List<*> ) map.get("#result-set-0"));
          * </pre>
          * <p>
+         * If the method's return value is a list and the direct execution is used:
+         * <pre>
+         * List<*> list;
+         * Object interceptorIdObject; // optional
+         * interceptorIdObject = *SpInterceptor.before("*"); // optional
+         * list = sp*.execute( [ * ]* );
+         * *SpInterceptor.after(interceptorIdObject, "*"); // optional
+         * return list;
+         * </pre>
+         * <p>
          * If the method's return value is an entity:
          * <pre>
          * Object interceptorIdObject; // optional
          * interceptorIdObject = *SpInterceptor.before("*"); // optional
          * List<*> list;
-         * list = ((List<*> ) sp*.execute( [ * ]* ).get("#result-set-0"));
+         * list = sp*.executeUnique( [ * ]* );
          * *SpInterceptor.after(interceptorIdObject, "*"); // optional
          * if (list.size() == 1) {
          *     return list.get(0);
@@ -405,7 +1375,7 @@ public class DtoGenerator extends AbstractGenerator {
          * Object interceptorIdObject; // optional
          * interceptorIdObject = *SpInterceptor.before("*"); // optional
          * List<*> list;
-         * list = ((List<*> ) sp*.execute( [ * ]* ).get("#result-set-0"));
+         * list = sp*.executeUnique( [ * ]* );
          * *SpInterceptor.after(interceptorIdObject, "*"); // optional
          * if (list.size() == 1) {
          *     return list.get(0);
@@ -423,7 +1393,7 @@ public class DtoGenerator extends AbstractGenerator {
          * Object interceptorIdObject; // optional
          * interceptorIdObject = *SpInterceptor.before("*"); // optional
          * List<*> list;
-         * list = ((List<*> ) sp*.execute( [ * ]* ).get("#result-set-0"));
+         * list = sp*.executeUnique( [ * ]* );
          * *SpInterceptor.after(interceptorIdObject, "*"); // optional
          * if (list.size() == 1) {
          *     return Optional.of(list.get(0));
@@ -443,22 +1413,27 @@ public class DtoGenerator extends AbstractGenerator {
                 if (Optional.class.getCanonicalName().equals(storedProcedureMethod.getReturnTypeInfo().getType())) {
                     String genericClassType = genericType.get();
                     JVar list = method.body().decl(CodeModelUtil.getGenericList(model, genericClassType), "list");
-                    method.body().assign(list, JExpr.cast(model.ref(List.class).narrow(model.ref(genericClassType)), execute.invoke("get").arg("#result-set-0")));
+                    executeBlock(method).assign(list, execute);
                     addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
                     JConditional condition = method.body()._if(list.invoke("size").eq(JExpr.lit(1)));
                     condition._then()._return(model.ref(Optional.class.getCanonicalName()).staticInvoke("of").arg(list.invoke("get").arg(JExpr.lit(0))));
                     condition = condition._elseif(list.invoke("size").eq(JExpr.lit(0)));
                     condition._then()._return(model.ref(Optional.class.getCanonicalName()).staticInvoke("empty"));
                     condition._else()._throw(JExpr._new(model.ref(MultipleObjectsReturned.class.getCanonicalName())));
+                } else if (isDirectExecution(config)) {
+                    JVar list = method.body().decl(returnClass, "list");
+                    executeBlock(method).assign(list, execute);
+                    addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+                    method.body()._return(list);
                 } else {
                     JVar map = method.body().decl(CodeModelUtil.getMapStringObject(model), "map");
-                    method.body().assign(map, execute);
+                    executeBlock(method).assign(map, execute);
                     addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
                     method.body()._return(JExpr.cast(returnClass, map.invoke("get").arg("#result-set-0")));
                 }
             } else {
                 JVar list = method.body().decl(CodeModelUtil.getGenericList(model, storedProcedureMethod.getReturnTypeInfo().getType()), "list");
-                method.body().assign(list, JExpr.cast(model.ref(List.class).narrow(returnClass), execute.invoke("get").arg("#result-set-0")));
+                executeBlock(method).assign(list, execute);
                 addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
                 JConditional condition = method.body()._if(list.invoke("size").eq(JExpr.lit(1)));
                 condition._then()._return(list.invoke("get").arg(JExpr.lit(0)));
@@ -476,7 +1451,194 @@ public class DtoGenerator extends AbstractGenerator {
         }
 
         /**
-         * Adds the interceptor call of the after method.
+         * If the method's return value is read from an OUT parameter.
+         * <p>
+         * Generates:
+         * <pre>
+         * Object interceptorIdObject; // optional
+         * interceptorIdObject = *SpInterceptor.before("*"); // optional
+         * * result;
+         * result = sp*.execute( [ * ]* ); // direct execution
+         * Map&lt;String, Object&gt; map = sp*.execute( [ * ]* ); // Spring execution
+         * *SpInterceptor.after(interceptorIdObject, "*"); // optional
+         * return result; // direct execution
+         * return ((*) map.get({OUT_NAME})); // Spring execution
+         * return ((Number) map.get({OUT_NAME})).*Value(); // Spring execution and a primitive number
+         * </pre>
+         */
+        private void outParameter(StoredProcedureMethod storedProcedureMethod, JClass returnClass, JMethod method, JInvocation execute, JVar interceptorIdObject) {
+            if (isDirectExecution(config)) {
+                JVar result = method.body().decl(returnClass, "result");
+                executeBlock(method).assign(result, execute);
+                addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+                method.body()._return(result);
+            } else {
+                JVar map = method.body().decl(CodeModelUtil.getMapStringObject(model), "map");
+                executeBlock(method).assign(map, execute);
+                addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+                JInvocation value = map.invoke("get").arg(storedProcedureMethod.getOut().get());
+                String type = storedProcedureMethod.getReturnTypeInfo().getType();
+
+                switch (type) {
+                    case "byte":
+                    case "short":
+                    case "int":
+                    case "long":
+                    case "float":
+                    case "double":
+                        // the driver decides about the Number class of the OUT parameter, e.g. BigDecimal or Long
+                        method.body()._return(JExpr.cast(model.ref(Number.class), value).invoke(type + "Value"));
+                        break;
+                    case "boolean":
+                        method.body()._return(JExpr.cast(model.ref(Boolean.class), value));
+                        break;
+                    default:
+                        method.body()._return(JExpr.cast(returnClass, value));
+                }
+            }
+        }
+
+        /**
+         * If the method's return value is a primitive array or a primitive stream (int, long or double).
+         * <p>
+         * Generates:
+         * <pre>
+         * Object interceptorIdObject; // optional
+         * interceptorIdObject = *SpInterceptor.before("*"); // optional
+         * *[] values;
+         * values = sp*.execute( [ * ]* ); // direct execution
+         * values = ((*[]) sp*.execute( [ * ]* ).get("#result-set-0")); // Spring execution
+         * *SpInterceptor.after(interceptorIdObject, "*"); // optional
+         * return values; // or return *Stream.of(values);
+         * </pre>
+         */
+        private void primitiveColumn(StoredProcedureMethod storedProcedureMethod, JClass returnClass, JMethod method, JInvocation execute, JVar interceptorIdObject) {
+            String primitiveType = storedProcedureMethod.getPrimitiveColumnType().get();
+            JClass arrayClass = model.ref(primitiveType + "[]");
+            JVar values = method.body().decl(arrayClass, "values");
+
+            if (isDirectExecution(config)) {
+                executeBlock(method).assign(values, execute);
+            } else {
+                executeBlock(method).assign(values, JExpr.cast(arrayClass, execute.invoke("get").arg("#result-set-0")));
+            }
+
+            addInterceptorCallAfter(storedProcedureMethod, method, execute, interceptorIdObject);
+
+            if (storedProcedureMethod.getReturnTypeInfo().getType().endsWith("[]")) {
+                method.body()._return(values);
+            } else {
+                method.body()._return(returnClass.staticInvoke("of").arg(values));
+            }
+        }
+
+        /**
+         * Adds the call of the {@link ProcedureInterceptor} before the stored procedure call. The arguments array is only
+         * created if the interceptor asks for it.
+         * <p>
+         * Generates:
+         * <pre>
+         * private static final ProcedureInterceptor PROCEDURE_INTERCEPTOR = ProcedureInterceptors.get(*.class);
+         * private static final ProcedureDescriptor {DTO_METHOD_NAME}_DESCRIPTOR = new ProcedureDescriptor("*", "*", "{DTO_METHOD_NAME}", [ "*" ]*);
+         *
+         * long interceptorToken = PROCEDURE_INTERCEPTOR.before({DTO_METHOD_NAME}_DESCRIPTOR);
+         * if (PROCEDURE_INTERCEPTOR.captureArguments({DTO_METHOD_NAME}_DESCRIPTOR)) {
+         *     PROCEDURE_INTERCEPTOR.arguments({DTO_METHOD_NAME}_DESCRIPTOR, interceptorToken, new Object[] { [ * ]* });
+         * }
+         * </pre>
+         */
+        private void addProcedureInterceptorCallBefore(StoredProcedureMethod storedProcedureMethod, JMethod method, JInvocation execute) {
+            if (procedureInterceptor == null) {
+                JClass interceptorClass = model.ref(config.getProperty(CONFIG_PROCEDURE_INTERCEPTOR));
+                JInvocation get = model.ref(ProcedureInterceptors.class).staticInvoke("get").arg(interceptorClass.dotclass());
+                procedureInterceptor = dtoJClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, ProcedureInterceptor.class, "PROCEDURE_INTERCEPTOR", get);
+            }
+
+            JFieldVar descriptor = getDescriptorField(storedProcedureMethod);
+            JVar token = method.body().decl(model.LONG, "interceptorToken", procedureInterceptor.invoke("before").arg(descriptor));
+            JArray arguments = JExpr.newArray(model.ref(Object.class));
+
+            for (JExpression arg : execute.listArgs()) {
+                arguments.add(arg);
+            }
+
+            method.body()._if(procedureInterceptor.invoke("captureArguments").arg(descriptor))._then()
+                    .add(procedureInterceptor.invoke("arguments").arg(descriptor).arg(token).arg(arguments));
+            interceptorDescriptors.put(method, descriptor);
+            interceptorTokens.put(method, token);
+        }
+
+        /**
+         * Returns the static descriptor of the method which is shared by the interceptor and the metrics. Overloaded
+         * methods get a numbered name, e.g. GET_USER_2_DESCRIPTOR.
+         */
+        private JFieldVar getDescriptorField(StoredProcedureMethod storedProcedureMethod) {
+            if (descriptorFields.containsKey(storedProcedureMethod)) {
+                return descriptorFields.get(storedProcedureMethod);
+            }
+
+            JInvocation newDescriptor = JExpr._new(model.ref(ProcedureDescriptor.class))
+                    .arg(storedProcedureMethod.getStoredProcedureName())
+                    .arg(dtoClass.getSuperQualifiedClassName())
+                    .arg(storedProcedureMethod.getMethodName());
+
+            if (storedProcedureMethod.getBatch().isPresent()) {
+                newDescriptor.arg(storedProcedureMethod.getBatch().get().getName());
+            } else {
+                for (Variable variable : storedProcedureMethod.getArguments()) {
+                    newDescriptor.arg(variable.getName());
+                }
+            }
+
+            String name = getConstantName(storedProcedureMethod, descriptorNames) + "_DESCRIPTOR";
+            JFieldVar descriptor = dtoJClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, ProcedureDescriptor.class, name, newDescriptor);
+            descriptorFields.put(storedProcedureMethod, descriptor);
+            return descriptor;
+        }
+
+        /**
+         * Returns the method name as constant name, e.g. GET_USER for getUser. Overloaded methods get a numbered name,
+         * e.g. GET_USER_2.
+         */
+        private String getConstantName(StoredProcedureMethod storedProcedureMethod, Set<String> names) {
+            String constantName = storedProcedureMethod.getMethodName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+            String name = constantName;
+
+            for (int i = 2; !names.add(name); i++) {
+                name = constantName + "_" + i;
+            }
+
+            return name;
+        }
+
+        /**
+         * Returns the block to which the stored procedure call is added. If the {@link ProcedureInterceptor} is
+         * configured then the call is wrapped in a try block, so that its after method is called even if the stored
+         * procedure call fails.
+         * <p>
+         * Generates:
+         * <pre>
+         * try {
+         *     // the stored procedure call
+         * } finally {
+         *     PROCEDURE_INTERCEPTOR.after({DTO_METHOD_NAME}_DESCRIPTOR, interceptorToken);
+         * }
+         * </pre>
+         */
+        private JBlock executeBlock(JMethod method) {
+            if (!interceptorTokens.containsKey(method)) {
+                return method.body();
+            }
+
+            JTryBlock tryBlock = method.body()._try();
+            tryBlock._finally().add(procedureInterceptor.invoke("after").arg(interceptorDescriptors.get(method)).arg(interceptorTokens.get(method)));
+            return tryBlock.body();
+        }
+
+        /**
+         * Adds the call of the after method of the legacy interceptor. If both interceptors are configured then the calls
+         * are nested: the {@link ProcedureInterceptor} is called last before and first after the stored procedure call,
+         * see {@link #executeBlock(JMethod)}.
          */
         private void addInterceptorCallAfter(StoredProcedureMethod storedProcedureMethod, JMethod method, JInvocation execute, JVar interceptorIdObject) {
             if (interceptorIdObject != null) {
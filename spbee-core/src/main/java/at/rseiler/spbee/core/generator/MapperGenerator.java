@@ -1,5 +1,8 @@
 package at.rseiler.spbee.core.generator;
 
+import at.rseiler.spbee.core.jdbc.ColumnIndexCache;
+import at.rseiler.spbee.core.jdbc.JavaTimeUtil;
+import at.rseiler.spbee.core.jdbc.LobUtil;
 import at.rseiler.spbee.core.pojo.MapperClass;
 import at.rseiler.spbee.core.pojo.Variable;
 import at.rseiler.spbee.core.util.CodeModelUtil;
@@ -8,8 +11,11 @@ import com.sun.codemodel.*;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -45,6 +51,19 @@ public class MapperGenerator extends AbstractGenerator {
      *
      * }
      * </pre>
+     * If the columns are mapped by label:
+     * <pre>
+     * public class *Mapper implements RowMapper<*> {
+     *
+     *      private final ColumnIndexCache columns = new ColumnIndexCache( [*]+ );
+     *
+     *      public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+     *          int[] index = columns.resolve(rs);
+     *          return new T( [rs.*(index[0])]+ );
+     *      }
+     *
+     * }
+     * </pre>
      *
      * @param mapperClass the mapper class
      * @throws JClassAlreadyExistsException
@@ -58,7 +77,7 @@ public class MapperGenerator extends AbstractGenerator {
         JCodeModel model = new JCodeModel();
         JClass typeJClass = model.ref(type);
         JDefinedClass mapperJDefinedClass = createClass(model, qualifiedClassName, typeJClass);
-        createMapRow(model, mapperJDefinedClass, typeJClass, mapperClass.getVariables());
+        createMapRow(model, mapperJDefinedClass, typeJClass, mapperClass);
 
         generateClass(model, qualifiedClassName);
     }
@@ -88,23 +107,83 @@ public class MapperGenerator extends AbstractGenerator {
      *     return new * ( [ rs.get*(*) ]* );
      * }
      * </pre>
+     * If the columns are mapped by label then the indexes are resolved on the first row of a result set and the columns
+     * are read by these indexes:
+     * <pre>
+     * int[] index = columns.resolve(rs, rowNum);
+     * return new * ( [ rs.get*(index[*]) ]* );
+     * </pre>
      */
-    private void createMapRow(JCodeModel model, JDefinedClass mapperClass, JClass type, List<Variable> mapperVariables) throws ClassNotFoundException {
+    private void createMapRow(JCodeModel model, JDefinedClass mapperClass, JClass type, MapperClass mapper) throws ClassNotFoundException {
+        List<Variable> mapperVariables = mapper.getVariables();
         JMethod method = mapperClass.method(JMod.PUBLIC, type, "mapRow");
         method._throws(SQLException.class);
-        method.param(model.ref(ResultSet.class.getCanonicalName()), "rs");
-        method.param(model.parseType("int"), "rowNum");
+        JVar rs = method.param(model.ref(ResultSet.class.getCanonicalName()), "rs");
+        JVar rowNum = method.param(model.parseType("int"), "rowNum");
         JInvocation invocation = JExpr._new(type);
+        JVar index = null;
+
+        if (mapper.isLabelBased()) {
+            JInvocation newColumnIndexCache = JExpr._new(model.ref(ColumnIndexCache.class));
+            mapperVariables.forEach(variable -> newColumnIndexCache.arg(JExpr.lit(variable.getColumn().get())));
+            JFieldVar columns = mapperClass.field(JMod.PRIVATE | JMod.FINAL, ColumnIndexCache.class, "columns", newColumnIndexCache);
+            index = method.body().decl(model.parseType("int[]"), "index", columns.invoke("resolve").arg(rs).arg(rowNum));
+        }
 
         for (int i = 0; i < mapperVariables.size(); i++) {
             Variable variable = mapperVariables.get(i);
-            String methodName = getResultSetMethod(variable.getTypeInfo().getGenericTypeOrType());
-            invocation.arg(JExpr.invoke(JExpr.ref("rs"), methodName).arg(JExpr.lit(i + 1)));
+            JExpression columnIndex = index != null ? index.component(JExpr.lit(i)) : JExpr.lit(i + 1);
+            invocation.arg(getColumnValue(model, rs, columnIndex, variable.getTypeInfo().getGenericTypeOrType()));
         }
 
         method.body()._return(invocation);
     }
 
+    /**
+     * Generates:
+     * <pre>
+     * rs.get*(*)
+     * rs.getObject(*, *.class) // java.time types and UUID
+     * JavaTimeUtil.toInstant(rs.getObject(*, OffsetDateTime.class))
+     * LobUtil.getByteBuffer(rs, *)
+     * </pre>
+     * The java.time types are read with the typed getters of JDBC 4.2, so no intermediate Timestamp is created.
+     * An InputStream or a Reader is read with getBinaryStream or getCharacterStream and is only valid as long as the
+     * result set is open, i.e. while the row is processed by a stream or a row consumer.
+     */
+    private static JExpression getColumnValue(JCodeModel model, JVar rs, JExpression columnIndex, String type) {
+        if (ByteBuffer.class.getCanonicalName().equals(type)) {
+            return model.ref(LobUtil.class).staticInvoke("getByteBuffer").arg(rs).arg(columnIndex);
+        } else if (Instant.class.getCanonicalName().equals(type)) {
+            JInvocation offsetDateTime = rs.invoke("getObject").arg(columnIndex).arg(model.ref(OffsetDateTime.class).dotclass());
+            return model.ref(JavaTimeUtil.class).staticInvoke("toInstant").arg(offsetDateTime);
+        } else if (isTypedObject(type)) {
+            return rs.invoke("getObject").arg(columnIndex).arg(model.ref(type).dotclass());
+        }
+
+        return rs.invoke(getResultSetMethod(type)).arg(columnIndex);
+    }
+
+    /**
+     * Checks if the type is read with the typed {@code getObject(int, Class)} method of JDBC 4.2.
+     *
+     * @param type the type
+     * @return true if the typed getObject method should be used
+     */
+    private static boolean isTypedObject(String type) {
+        switch (type) {
+            case "java.time.LocalDate":
+            case "java.time.LocalTime":
+            case "java.time.LocalDateTime":
+            case "java.time.OffsetTime":
+            case "java.time.OffsetDateTime":
+            case "java.util.UUID":
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Retrieves the most fitting {@link java.sql.ResultSet} method based on the type.
      *
@@ -135,8 +214,15 @@ public class MapperGenerator extends AbstractGenerator {
             case "java.lang.Double":
                 return "getDouble";
             case "byte[]":
-            case "java.lang.Byte[]":
-                return "getByte";
+                return "getBytes";
+            case "java.io.InputStream":
+                return "getBinaryStream";
+            case "java.io.Reader":
+                return "getCharacterStream";
+            case "java.sql.Blob":
+                return "getBlob";
+            case "java.sql.Clob":
+                return "getClob";
             case "java.lang.String":
                 return "getString";
             case "java.sql.Date":
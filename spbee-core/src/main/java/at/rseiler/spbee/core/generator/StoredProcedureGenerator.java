@@ -1,19 +1,31 @@
 package at.rseiler.spbee.core.generator;
 
+import at.rseiler.spbee.core.jdbc.ArrayUtil;
+import at.rseiler.spbee.core.jdbc.CallableStatementUtil;
+import at.rseiler.spbee.core.jdbc.JavaTimeUtil;
+import at.rseiler.spbee.core.jdbc.PrimitiveColumnReader;
+import at.rseiler.spbee.core.jdbc.ResultSetStream;
+import at.rseiler.spbee.core.jdbc.SqlArrayValue;
 import at.rseiler.spbee.core.pojo.*;
 import at.rseiler.spbee.core.util.CodeModelUtil;
+import at.rseiler.spbee.core.util.StringUtil;
 import com.sun.codemodel.*;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.sql.Array;
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Generator for the StoredProcedure classes.
@@ -25,26 +37,33 @@ public class StoredProcedureGenerator extends AbstractGenerator {
     private static final String SPRING_SQL_RETURN_RESULT_SET = "org.springframework.jdbc.core.SqlReturnResultSet";
     private static final String SPRING_STORED_PROCEDURE = "org.springframework.jdbc.object.StoredProcedure";
     private static final String SPRING_SQL_PARAMETER = "org.springframework.jdbc.core.SqlParameter";
+    private static final String SPRING_SQL_OUT_PARAMETER = "org.springframework.jdbc.core.SqlOutParameter";
+    private static final String SPRING_DATA_SOURCE_UTILS = "org.springframework.jdbc.datasource.DataSourceUtils";
+    private static final String SPRING_JDBC_UTILS = "org.springframework.jdbc.support.JdbcUtils";
+    private static final String SPRING_UNCATEGORIZED_SQL_EXCEPTION = "org.springframework.jdbc.UncategorizedSQLException";
 
+    private final Properties config;
     private final Map<String, ResultSetClass> resultSetsMap;
 
-    public StoredProcedureGenerator(ProcessingEnvironment processingEnv, Map<String, ResultSetClass> resultSetsMap) {
+    public StoredProcedureGenerator(ProcessingEnvironment processingEnv, Properties config, Map<String, ResultSetClass> resultSetsMap) {
         super(processingEnv);
+        this.config = config;
         this.resultSetsMap = resultSetsMap;
     }
 
     public void generateStoredProcedureClasses(List<DtoClass> dtoClasses) throws JClassAlreadyExistsException, IOException {
-        Set<String> storedProcedureNames = new HashSet<>();
+        // groups the methods which share the same stored procedure class
+        Map<String, List<StoredProcedureMethod>> storedProcedures = new LinkedHashMap<>();
 
         for (DtoClass dtoClass : dtoClasses) {
             for (StoredProcedureMethod storedProcedureMethod : dtoClass.getStoredProcedureMethods()) {
-                // checks if the stored procedure already exists
-                if (!storedProcedureNames.contains(storedProcedureMethod.getQualifiedClassName())) {
-                    generateStoredProcedure(storedProcedureMethod);
-                    storedProcedureNames.add(storedProcedureMethod.getQualifiedClassName());
-                }
+                storedProcedures.computeIfAbsent(storedProcedureMethod.getQualifiedClassName(), k -> new ArrayList<>()).add(storedProcedureMethod);
             }
         }
+
+        for (List<StoredProcedureMethod> storedProcedureMethods : storedProcedures.values()) {
+            generateStoredProcedure(storedProcedureMethods);
+        }
     }
 
     /**
@@ -64,14 +83,34 @@ public class StoredProcedureGenerator extends AbstractGenerator {
      *         return super.execute([ * ]*);
      *     }
      *
+     *     public Stream&lt;*&gt; stream([ * * ]*) { ... } // if a DAO method returns a Stream or a Flow.Publisher
+     *
+     *     public void forEach([ * * ]*, Consumer&lt;*&gt; consumer) { ... } // if a DAO method has a Consumer parameter
+     *
+     *     public List&lt;*&gt; executeUnique([ * * ]*) { ... } // if a DAO method returns an entity
+     *
      * }
      * </pre>
+     *
+     * @param storedProcedureMethods the DAO methods which use the same stored procedure class
      */
-    private void generateStoredProcedure(StoredProcedureMethod storedProcedureMethod) throws JClassAlreadyExistsException, IOException {
+    private void generateStoredProcedure(List<StoredProcedureMethod> storedProcedureMethods) throws JClassAlreadyExistsException, IOException {
         JCodeModel model = new JCodeModel();
-        JDefinedClass spClass = createClass(model, storedProcedureMethod.getPackage(), storedProcedureMethod.getSimpleClassName());
-        createConstructor(model, spClass, storedProcedureMethod);
-        addExecuteMethod(model, spClass, storedProcedureMethod);
+        StoredProcedureMethod storedProcedureMethod = storedProcedureMethods.get(0);
+
+        if (isDirectExecution(config)) {
+            new DirectStoredProcedureGeneratorInstance(model, storedProcedureMethod)
+                    .createClass()
+                    .createConstructor()
+                    .addExecuteMethod()
+                    .addRowMethods(storedProcedureMethods);
+        } else {
+            JDefinedClass spClass = createClass(model, storedProcedureMethod.getPackage(), storedProcedureMethod.getSimpleClassName());
+            createConstructor(model, spClass, storedProcedureMethod);
+            addExecuteMethod(model, spClass, storedProcedureMethod);
+            new JdbcCallGenerator(model, spClass, storedProcedureMethod, JExpr.invoke("getCallString"), null)
+                    .addRowMethods(storedProcedureMethods, null);
+        }
 
         generateClass(model, storedProcedureMethod.getQualifiedClassName());
     }
@@ -97,6 +136,9 @@ public class StoredProcedureGenerator extends AbstractGenerator {
      *      super(dataSource, {SP_NAME});
      *      [ declareParameter(new SqlParameter({PARAMETER_NAME}, Types.*)); ]*
      *      [ declareParameter(new SqlReturnResultSet("#result-set-*", new *Mapper())); ]*
+     *      declareParameter(new SqlReturnResultSet("#result-set-0", PrimitiveColumnReader.*s())); // primitive result
+     *      declareParameter(new SqlOutParameter({OUT_NAME}, Types.*)); // @Out
+     *      [ set*(*); ]* // @FetchSize, @MaxRows, @QueryTimeout
      *      compile();
      * }
      * </pre>
@@ -108,9 +150,32 @@ public class StoredProcedureGenerator extends AbstractGenerator {
         body.add(JExpr.invoke("super").arg(dataSource).arg(storedProcedureMethod.getStoredProcedureName()));
         declareSqlParameters(model, storedProcedureMethod, body);
         declareResultSets(model, body, storedProcedureMethod);
+        configureStatement(body, storedProcedureMethod);
         body.add(JExpr.invoke("compile"));
     }
 
+    /**
+     * Generates:
+     * <pre>
+     * setFetchSize(*); // if @FetchSize is used
+     * setMaxRows(*); // if @MaxRows is used
+     * setQueryTimeout(*); // if @QueryTimeout is used
+     * </pre>
+     */
+    private void configureStatement(JBlock body, StoredProcedureMethod storedProcedureMethod) {
+        if (storedProcedureMethod.getFetchSize() > 0) {
+            body.add(JExpr.invoke("setFetchSize").arg(JExpr.lit(storedProcedureMethod.getFetchSize())));
+        }
+
+        if (storedProcedureMethod.getMaxRows() > 0) {
+            body.add(JExpr.invoke("setMaxRows").arg(JExpr.lit(storedProcedureMethod.getMaxRows())));
+        }
+
+        if (storedProcedureMethod.getQueryTimeout() > 0) {
+            body.add(JExpr.invoke("setQueryTimeout").arg(JExpr.lit(storedProcedureMethod.getQueryTimeout())));
+        }
+    }
+
     /**
      * Generates:
      * <pre>
@@ -137,8 +202,12 @@ public class StoredProcedureGenerator extends AbstractGenerator {
         String type = storedProcedureMethod.getReturnTypeInfo().getGenericType().orElse(storedProcedureMethod.getReturnTypeInfo().getType());
 
         if (!"void".equals(type)) {
-            if (resultSetsMap.containsKey(type)) {
+            if (storedProcedureMethod.getOut().isPresent()) {
+                outParameter(model, body, storedProcedureMethod);
+            } else if (resultSetsMap.containsKey(type)) {
                 multipleResultSets(model, body, type);
+            } else if (storedProcedureMethod.getPrimitiveColumnType().isPresent()) {
+                primitiveColumn(model, body, storedProcedureMethod.getPrimitiveColumnType().get());
             } else {
                 singleResultSet(model, body, storedProcedureMethod);
             }
@@ -178,61 +247,831 @@ public class StoredProcedureGenerator extends AbstractGenerator {
         body.add(JExpr.invoke("declareParameter").arg(sqlReturnResultSet));
     }
 
+    /**
+     * If the return value is read from an OUT parameter then no result set is declared.
+     * <p>
+     * Generates:
+     * <pre>
+     * declareParameter(new SqlOutParameter({OUT_NAME}, Types.*));
+     * </pre>
+     */
+    private void outParameter(JCodeModel model, JBlock body, StoredProcedureMethod storedProcedureMethod) {
+        JInvocation sqlOutParameter = JExpr._new(model.ref(SPRING_SQL_OUT_PARAMETER))
+                .arg(storedProcedureMethod.getOut().get())
+                .arg(model.ref(Types.class).staticRef(getSqlParameter(storedProcedureMethod.getReturnTypeInfo().getType())));
+        body.add(JExpr.invoke("declareParameter").arg(sqlOutParameter));
+    }
+
+    /**
+     * If the DAO method returns a primitive array or stream then the first column is read without a RowMapper.
+     * <p>
+     * Generates:
+     * <pre>
+     * declareParameter(new SqlReturnResultSet("#result-set-0", PrimitiveColumnReader.*s()));
+     * </pre>
+     */
+    private void primitiveColumn(JCodeModel model, JBlock body, String primitiveType) {
+        JInvocation extractor = model.ref(PrimitiveColumnReader.class).staticInvoke(primitiveType + "s");
+        JInvocation sqlReturnResultSet = JExpr._new(model.ref(SPRING_SQL_RETURN_RESULT_SET)).arg("#result-set-0").arg(extractor);
+        body.add(JExpr.invoke("declareParameter").arg(sqlReturnResultSet));
+    }
+
     /**
      * Generates:
      * <p>
      * <pre>
      * public Map<String, Object> execute( [ * ]* ) { return super.execute( [ * ]* ) }
      * </pre>
+     * Arrays are passed as {@link SqlArrayValue}, so that the array is created on the connection which executes the
+     * call. An {@link java.time.Instant} is passed as {@link java.time.OffsetDateTime} in UTC.
      */
     private void addExecuteMethod(JCodeModel model, JDefinedClass aClass, StoredProcedureMethod storedProcedureMethod) {
         JMethod method = aClass.method(JMod.PUBLIC, CodeModelUtil.getMapStringObject(model), "execute");
         JInvocation superExecute = JExpr._super().invoke("execute");
-        JBlock block = method.body();
-        boolean hasArrayType = storedProcedureMethod.getArguments().stream().anyMatch(this::isArrayType);
-        JVar connection = null;
-
-        if (hasArrayType) {
-            connection = block.decl(model.ref(Connection.class.getCanonicalName()), "conn");
-            block.assign(connection, JExpr._null());
-
-            JTryBlock tryBlock = method.body()._try();
-            // catch - rethrow exception
-            JCatchBlock catchBlock = tryBlock._catch(model.ref(SQLException.class.getCanonicalName()));
-            JInvocation exception = JExpr._new(model.ref("org.springframework.jdbc.UncategorizedSQLException"))
-                    .arg(JExpr._this().invoke("getClass").invoke("getCanonicalName"))
-                    .arg(JExpr._this().invoke("getSql"))
-                    .arg(catchBlock.param("e"));
-            catchBlock.body()._throw(exception);
-            // finally - closes the connection
-            JTryBlock connCloseTryBlock = tryBlock._finally()._if(connection.ne(JExpr._null()))._then()._try();
-            connCloseTryBlock.body().add(connection.invoke("close"));
-            JCatchBlock closeConnCatchBlock = connCloseTryBlock._catch(model.ref(SQLException.class.getCanonicalName()));
-            JInvocation runtimeException = JExpr._new(model.ref(RuntimeException.class.getCanonicalName()))
-                    .arg(JExpr.lit("Failed to close connection"))
-                    .arg(closeConnCatchBlock.param("e"));
-            closeConnCatchBlock.body()._throw(runtimeException);
-
-
-            block = tryBlock.body();
-            block.assign(connection, JExpr.invoke("getJdbcTemplate").invoke("getDataSource").invoke("getConnection"));
-        }
 
         for (Variable variable : storedProcedureMethod.getArguments()) {
             JVar param = method.param(model.ref(variable.getTypeInfo().asString()), variable.getName());
 
-            if (hasArrayType && isArrayType(variable)) {
-                superExecute.arg(connection.invoke("createArrayOf").arg(getArrayType(variable.getTypeInfo().asString())).arg(param));
+            if (isArrayType(variable)) {
+                superExecute.arg(JExpr._new(model.ref(SqlArrayValue.class)).arg(getArrayType(variable.getTypeInfo().asString())).arg(param));
+            } else if (isInstant(variable)) {
+                superExecute.arg(model.ref(JavaTimeUtil.class).staticInvoke("toOffsetDateTime").arg(param));
             } else {
                 superExecute.arg(param);
             }
         }
 
-        block._return(superExecute);
+        method.body()._return(superExecute);
     }
 
+    /**
+     * Checks if the variable is bound as SQL array. A byte[] is bound as binary value.
+     */
     private boolean isArrayType(Variable variable) {
-        return variable.getTypeInfo().asString().contains("[]");
+        String type = variable.getTypeInfo().asString();
+        return type.contains("[]") && !"byte[]".equals(type);
+    }
+
+    /**
+     * Checks if the variable is an array of a primitive type like int[].
+     */
+    private boolean isPrimitiveArrayType(Variable variable) {
+        return isArrayType(variable) && !variable.getTypeInfo().asString().contains(".");
+    }
+
+    /**
+     * Checks if the variable is an Instant, which is bound as OffsetDateTime because JDBC doesn't map it.
+     */
+    private boolean isInstant(Variable variable) {
+        return Instant.class.getCanonicalName().equals(variable.getTypeInfo().asString());
+    }
+
+    /**
+     * Returns the result type of the stored procedure method: the generic type or the type.
+     */
+    private static String getResultType(StoredProcedureMethod storedProcedureMethod) {
+        return storedProcedureMethod.getReturnTypeInfo().getGenericType().orElse(storedProcedureMethod.getReturnTypeInfo().getType());
+    }
+
+    /**
+     * Generates the JDBC escape syntax to call the stored procedure: {call *([ ? ]*)}
+     * The OUT parameter is the last parameter.
+     */
+    private static String getCallString(StoredProcedureMethod storedProcedureMethod) {
+        StringBuilder sb = new StringBuilder("{call ").append(storedProcedureMethod.getStoredProcedureName()).append('(');
+
+        int parameters = storedProcedureMethod.getArguments().size() + (storedProcedureMethod.getOut().isPresent() ? 1 : 0);
+
+        for (int i = 0; i < parameters; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+
+        return sb.append(")}").toString();
+    }
+
+    /**
+     * Generates the methods of a stored procedure class which work with the CallableStatement directly.
+     * Used by the direct execution and by the methods which can't be implemented with Spring's StoredProcedure, e.g.
+     * if the ResultSet must stay open.
+     */
+    private class JdbcCallGenerator {
+
+        private final JCodeModel model;
+        private final JDefinedClass spClass;
+        private final StoredProcedureMethod storedProcedureMethod;
+        private final JExpression call;
+        private final JFieldVar dataSource;
+
+        /**
+         * @param call       the expression of the call string
+         * @param dataSource (nullable) the DataSource field - if null then the DataSource of the JdbcTemplate is used
+         */
+        JdbcCallGenerator(JCodeModel model, JDefinedClass spClass, StoredProcedureMethod storedProcedureMethod, JExpression call, JFieldVar dataSource) {
+            this.model = model;
+            this.spClass = spClass;
+            this.storedProcedureMethod = storedProcedureMethod;
+            this.call = call;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * private final *Mapper {NAME} = new *Mapper();
+         * </pre>
+         */
+        JFieldVar addMapperField(String name, String qualifiedMapperClassName) {
+            JClass mapperClass = model.ref(qualifiedMapperClassName);
+            return spClass.field(JMod.PRIVATE | JMod.FINAL, mapperClass, name, JExpr._new(mapperClass));
+        }
+
+        /**
+         * Generates the methods which pass the rows one by one instead of returning a list:
+         * <ul>
+         * <li>stream: if one of the DAO methods returns a {@link Stream} or a Flow.Publisher</li>
+         * <li>forEach: if one of the DAO methods has a {@link Consumer} parameter</li>
+         * <li>executeUnique: if one of the DAO methods returns an entity or an Optional of an entity</li>
+         * <li>executeBatch: if one of the DAO methods is annotated with @Batch</li>
+         * </ul>
+         *
+         * @param storedProcedureMethods the DAO methods which use the stored procedure class
+         * @param mapper                 (nullable) the mapper field - if null then the mapper field is generated
+         */
+        void addRowMethods(List<StoredProcedureMethod> storedProcedureMethods, JFieldVar mapper) {
+            boolean stream = storedProcedureMethods.stream().anyMatch(method -> isStream(method) || isPublisher(method));
+            boolean forEach = storedProcedureMethods.stream().anyMatch(method -> method.getRowConsumer().isPresent());
+            boolean unique = storedProcedureMethods.stream().anyMatch(method -> isUnique(method, resultSetsMap));
+            boolean batch = storedProcedureMethods.stream().anyMatch(method -> method.getBatch().isPresent());
+
+            if (batch) {
+                addExecuteBatchMethod();
+            }
+
+            if (stream || forEach || unique) {
+                JFieldVar rowMapper = mapper != null ? mapper : addMapperField("mapper", storedProcedureMethod.getQualifiedRowMapperClass());
+
+                if (stream) {
+                    addStreamMethod(rowMapper);
+                }
+
+                if (forEach) {
+                    addForEachMethod(rowMapper);
+                }
+
+                if (unique) {
+                    addExecuteUniqueMethod(rowMapper);
+                }
+            }
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public Stream&lt;*&gt; stream([ * * ]*) {
+         *     DataSource dataSource = getJdbcTemplate().getDataSource(); // if there is no DataSource field
+         *     Connection conn = DataSourceUtils.getConnection(dataSource);
+         *     CallableStatement cs = null;
+         *     try {
+         *         cs = conn.prepareCall({CALL});
+         *         [ cs.set*(*, *); ]*
+         *         return ResultSetStream.stream({CALL}, dataSource, conn, cs, CallableStatementUtil.execute(cs), {MAPPER}, getJdbcTemplate().getExceptionTranslator());
+         *     } catch (SQLException e) {
+         *         [ ArrayUtil.free(*Array); ]*
+         *         JdbcUtils.closeStatement(cs);
+         *         DataSourceUtils.releaseConnection(conn, dataSource);
+         *         throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), {CALL}, e);
+         *     }
+         * }
+         * </pre>
+         * The ResultSet, the statement and the connection are closed if the stream is closed. The SQL arrays of the
+         * parameters are freed right after the execution. A SQLException which is thrown while the stream is consumed
+         * is translated too. If execution=direct then the exception translator isn't passed and an
+         * UncategorizedSQLException is thrown.
+         */
+        private void addStreamMethod(JFieldVar mapper) {
+            JClass streamClass = model.ref(Stream.class).narrow(model.ref(storedProcedureMethod.getResultType()));
+            JMethod method = spClass.method(JMod.PUBLIC, streamClass, "stream");
+            JExpression ds = getDataSource(method);
+            JBlock block = addCallableStatement(method, ds, true);
+            JInvocation execute = model.ref(CallableStatementUtil.class).staticInvoke("execute").arg(JExpr.ref("cs"));
+            JExpression resultSet = execute;
+
+            if (!getArrayArguments().isEmpty()) {
+                // the statement stays open with the stream, but the arrays aren't needed after the execution
+                resultSet = block.decl(model.ref(ResultSet.class), "rs", execute);
+                freeArrays(block);
+            }
+
+            JInvocation stream = model.ref(ResultSetStream.class).staticInvoke("stream")
+                    .arg(call)
+                    .arg(ds)
+                    .arg(JExpr.ref("conn"))
+                    .arg(JExpr.ref("cs"))
+                    .arg(resultSet)
+                    .arg(mapper);
+
+            if (dataSource == null) {
+                stream.arg(JExpr.invoke("getJdbcTemplate").invoke("getExceptionTranslator"));
+            }
+
+            block._return(stream);
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public void forEach([ * * ]*, Consumer&lt;*&gt; consumer) {
+         *     DataSource dataSource = getJdbcTemplate().getDataSource(); // if there is no DataSource field
+         *     Connection conn = DataSourceUtils.getConnection(dataSource);
+         *     CallableStatement cs = null;
+         *     try {
+         *         cs = conn.prepareCall({CALL});
+         *         [ cs.set*(*, *); ]*
+         *         ResultSet rs = CallableStatementUtil.execute(cs);
+         *         if (rs != null) {
+         *             for (int rowNum = 0; rs.next(); rowNum++) {
+         *                 consumer.accept({MAPPER}.mapRow(rs, rowNum));
+         *             }
+         *         }
+         *     } catch (SQLException e) {
+         *         throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), {CALL}, e); // UncategorizedSQLException if execution=direct
+         *     } finally {
+         *         JdbcUtils.closeStatement(cs);
+         *         DataSourceUtils.releaseConnection(conn, dataSource);
+         *     }
+         * }
+         * </pre>
+         */
+        private void addForEachMethod(JFieldVar mapper) {
+            JMethod method = spClass.method(JMod.PUBLIC, model.VOID, "forEach");
+            JBlock block = addCallableStatement(method, getDataSource(method), false);
+            JVar consumer = method.param(model.ref(Consumer.class).narrow(model.ref(storedProcedureMethod.getResultType())), "consumer");
+            JVar rs = block.decl(model.ref(ResultSet.class), "rs", model.ref(CallableStatementUtil.class).staticInvoke("execute").arg(JExpr.ref("cs")));
+            JForLoop forLoop = block._if(rs.ne(JExpr._null()))._then()._for();
+            JVar rowNum = forLoop.init(model.INT, "rowNum", JExpr.lit(0));
+            forLoop.test(rs.invoke("next"));
+            forLoop.update(rowNum.incr());
+            forLoop.body().add(consumer.invoke("accept").arg(mapper.invoke("mapRow").arg(rs).arg(rowNum)));
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public List&lt;*&gt; executeUnique([ * * ]*) {
+         *     DataSource dataSource = getJdbcTemplate().getDataSource(); // if there is no DataSource field
+         *     Connection conn = DataSourceUtils.getConnection(dataSource);
+         *     CallableStatement cs = null;
+         *     try {
+         *         cs = conn.prepareCall({CALL});
+         *         cs.setMaxRows(2);
+         *         [ cs.set*(*, *); ]*
+         *         ResultSet rs = CallableStatementUtil.execute(cs);
+         *         List&lt;*&gt; list = new ArrayList&lt;*&gt;(2);
+         *         if (rs != null) {
+         *             while (list.size() &lt; 2 &amp;&amp; rs.next()) {
+         *                 list.add({MAPPER}.mapRow(rs, list.size()));
+         *             }
+         *         }
+         *         return list;
+         *     } catch (SQLException e) {
+         *         throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), {CALL}, e); // UncategorizedSQLException if execution=direct
+         *     } finally {
+         *         JdbcUtils.closeStatement(cs);
+         *         DataSourceUtils.releaseConnection(conn, dataSource);
+         *     }
+         * }
+         * </pre>
+         * Two rows are enough to decide if exactly one row was returned, therefore the remaining rows are neither
+         * fetched nor mapped.
+         */
+        private void addExecuteUniqueMethod(JFieldVar mapper) {
+            String type = storedProcedureMethod.getResultType();
+            JMethod method = spClass.method(JMod.PUBLIC, CodeModelUtil.getGenericList(model, type), "executeUnique");
+            // two rows are needed to detect MultipleObjectsReturned, unless @MaxRows allows only one row
+            int maxRows = storedProcedureMethod.getMaxRows() > 0 ? Math.min(storedProcedureMethod.getMaxRows(), 2) : 2;
+            JBlock block = addCallableStatement(method, getDataSource(method), false, maxRows);
+            JVar rs = block.decl(model.ref(ResultSet.class), "rs", model.ref(CallableStatementUtil.class).staticInvoke("execute").arg(JExpr.ref("cs")));
+            JVar list = block.decl(CodeModelUtil.getGenericList(model, type), "list", JExpr._new(model.ref(ArrayList.class).narrow(model.ref(type))).arg(JExpr.lit(2)));
+            JExpression hasNext = list.invoke("size").lt(JExpr.lit(2)).cand(rs.invoke("next"));
+            JBlock whileBody = block._if(rs.ne(JExpr._null()))._then()._while(hasNext).body();
+            whileBody.add(list.invoke("add").arg(mapper.invoke("mapRow").arg(rs).arg(list.invoke("size"))));
+            block._return(list);
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public void executeBatch(List&lt;*&gt; {PARAM}) {
+         *     DataSource dataSource = getJdbcTemplate().getDataSource(); // if there is no DataSource field
+         *     Connection conn = DataSourceUtils.getConnection(dataSource);
+         *     CallableStatement cs = null;
+         *     List&lt;Array&gt; arrays = new ArrayList&lt;Array&gt;(); // if there are array parameters
+         *     try {
+         *         cs = conn.prepareCall({CALL});
+         *         int count = 0;
+         *         for (* row: {PARAM}) {
+         *             [ cs.set*(*, row.get*()); ]*
+         *             cs.addBatch();
+         *             count++;
+         *             if (count % {BATCH_SIZE} == 0) {
+         *                 cs.executeBatch();
+         *                 ArrayUtil.free(arrays); // if there are array parameters
+         *             }
+         *         }
+         *         if (count % {BATCH_SIZE} != 0) {
+         *             cs.executeBatch();
+         *             ArrayUtil.free(arrays); // if there are array parameters
+         *         }
+         *     } catch (SQLException e) {
+         *         throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), {CALL}, e); // UncategorizedSQLException if execution=direct
+         *     } finally {
+         *         ArrayUtil.free(arrays); // if there are array parameters
+         *         JdbcUtils.closeStatement(cs);
+         *         DataSourceUtils.releaseConnection(conn, dataSource);
+         *     }
+         * }
+         * </pre>
+         * The SQL arrays are freed after each executed batch, so only the arrays of one batch are held. The finally
+         * block frees the arrays of a failed batch.
+         */
+        private void addExecuteBatchMethod() {
+            Variable batch = storedProcedureMethod.getBatch().get();
+            JClass rowClass = model.ref(batch.getTypeInfo().getGenericTypeOrType());
+            JMethod method = spClass.method(JMod.PUBLIC, model.VOID, "executeBatch");
+            JBlock block = prepareCallableStatement(method, getDataSource(method), false, 0, true);
+            JVar rows = method.param(CodeModelUtil.getGenericList(model, batch.getTypeInfo().getGenericTypeOrType()), batch.getName());
+            JExpression cs = JExpr.ref("cs");
+            JExpression batchSize = JExpr.lit(storedProcedureMethod.getBatchSize());
+            JVar count = block.decl(model.INT, "count", JExpr.lit(0));
+            JForEach forEach = block.forEach(rowClass, "row", rows);
+            List<Variable> arguments = storedProcedureMethod.getArguments();
+
+            for (int i = 0; i < arguments.size(); i++) {
+                Variable variable = arguments.get(i);
+                String getter = StringUtil.getGetterName(variable.getName(), variable.getTypeInfo().asString());
+                bindParameter(forEach.body(), JExpr.ref("conn"), cs, i + 1, variable, forEach.var().invoke(getter), true);
+            }
+
+            forEach.body().add(cs.invoke("addBatch"));
+            forEach.body().add(count.incr());
+            executeBatch(forEach.body()._if(count.mod(batchSize).eq(JExpr.lit(0)))._then());
+            executeBatch(block._if(count.mod(batchSize).ne(JExpr.lit(0)))._then());
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * cs.executeBatch();
+         * ArrayUtil.free(arrays); // if there are array parameters
+         * </pre>
+         */
+        private void executeBatch(JBlock block) {
+            block.add(JExpr.ref("cs").invoke("executeBatch"));
+
+            if (!getArrayArguments().isEmpty()) {
+                block.add(model.ref(ArrayUtil.class).staticInvoke("free").arg(JExpr.ref("arrays")));
+            }
+        }
+
+        /**
+         * Returns the DataSource field or declares a local variable with the DataSource of the JdbcTemplate.
+         */
+        private JExpression getDataSource(JMethod method) {
+            if (dataSource != null) {
+                return dataSource;
+            }
+
+            return method.body().decl(model.ref(DataSource.class), "dataSource", JExpr.invoke("getJdbcTemplate").invoke("getDataSource"));
+        }
+
+        /**
+         * Adds the parameters to the method and generates the code to get the connection, to prepare the
+         * CallableStatement, to bind the parameters and to release the resources.
+         * <p>
+         * Generates:
+         * <pre>
+         * Connection conn = DataSourceUtils.getConnection(dataSource);
+         * CallableStatement cs = null;
+         * [ Array *Array = null; ]* // array parameters
+         * try {
+         *     cs = conn.prepareCall({CALL});
+         *     [ cs.set*(*); ]* // @FetchSize, @MaxRows, @QueryTimeout
+         *     [ cs.set*(*, *); ]*
+         *     {RETURNED_BLOCK}
+         * } catch (SQLException e) {
+         *     [ ArrayUtil.free(*Array); ]* // if keepOpen
+         *     JdbcUtils.closeStatement(cs); // if keepOpen
+         *     DataSourceUtils.releaseConnection(conn, dataSource); // if keepOpen
+         *     throw {TRANSLATED_EXCEPTION};
+         * } finally { // if not keepOpen
+         *     [ ArrayUtil.free(*Array); ]*
+         *     JdbcUtils.closeStatement(cs);
+         *     DataSourceUtils.releaseConnection(conn, dataSource);
+         * }
+         * </pre>
+         * The SQLException is translated like the one of Spring's StoredProcedure, see
+         * {@link #translateException(JVar)}.
+         *
+         * @param keepOpen true if the statement and the connection must only be closed if an exception occurs
+         * @return the block in which the statement can be executed
+         */
+        JBlock addCallableStatement(JMethod method, JExpression ds, boolean keepOpen) {
+            return addCallableStatement(method, ds, keepOpen, storedProcedureMethod.getMaxRows());
+        }
+
+        /**
+         * Like {@link #addCallableStatement(JMethod, JExpression, boolean)} but with a specific maximum number of rows.
+         *
+         * @param maxRows the maximum number of rows of the statement - 0 if there is no limit
+         */
+        JBlock addCallableStatement(JMethod method, JExpression ds, boolean keepOpen, int maxRows) {
+            JBlock block = prepareCallableStatement(method, ds, keepOpen, maxRows, false);
+            List<Variable> arguments = storedProcedureMethod.getArguments();
+
+            for (int i = 0; i < arguments.size(); i++) {
+                Variable variable = arguments.get(i);
+                JVar param = method.param(model.ref(variable.getTypeInfo().asString()), variable.getName());
+                bindParameter(block, JExpr.ref("conn"), JExpr.ref("cs"), i + 1, variable, param, false);
+            }
+
+            return block;
+        }
+
+        /**
+         * Generates the code to get the connection, to prepare the CallableStatement and to release the resources like
+         * {@link #addCallableStatement(JMethod, JExpression, boolean)}, but doesn't bind the parameters.
+         * The variables of the SQL arrays of the parameters are declared before the statement and the arrays are freed
+         * with the statement.
+         *
+         * @param batch true if the arrays of all rows of a batch are collected in a list
+         */
+        private JBlock prepareCallableStatement(JMethod method, JExpression ds, boolean keepOpen, int maxRows, boolean batch) {
+            JBlock body = method.body();
+            JClass dataSourceUtils = model.ref(SPRING_DATA_SOURCE_UTILS);
+            JVar conn = body.decl(model.ref(Connection.class), "conn", dataSourceUtils.staticInvoke("getConnection").arg(ds));
+            JVar cs = body.decl(model.ref(CallableStatement.class), "cs", JExpr._null());
+            List<Variable> arrayArguments = getArrayArguments();
+
+            if (batch && !arrayArguments.isEmpty()) {
+                JClass arraysClass = model.ref(ArrayList.class).narrow(Array.class);
+                body.decl(model.ref(List.class).narrow(Array.class), "arrays", JExpr._new(arraysClass));
+            } else if (!batch) {
+                for (Variable variable : arrayArguments) {
+                    body.decl(model.ref(Array.class), variable.getName() + "Array", JExpr._null());
+                }
+            }
+
+            JTryBlock tryBlock = body._try();
+            JCatchBlock catchBlock = tryBlock._catch(model.ref(SQLException.class));
+            JBlock release = keepOpen ? catchBlock.body() : tryBlock._finally();
+
+            if (batch && !arrayArguments.isEmpty()) {
+                release.add(model.ref(ArrayUtil.class).staticInvoke("free").arg(JExpr.ref("arrays")));
+            } else if (!batch) {
+                freeArrays(release);
+            }
+
+            release.add(model.ref(SPRING_JDBC_UTILS).staticInvoke("closeStatement").arg(cs));
+            release.add(dataSourceUtils.staticInvoke("releaseConnection").arg(conn).arg(ds));
+            catchBlock.body()._throw(translateException(catchBlock.param("e")));
+
+            JBlock block = tryBlock.body();
+            block.assign(cs, conn.invoke("prepareCall").arg(call));
+
+            if (storedProcedureMethod.getFetchSize() > 0) {
+                block.add(cs.invoke("setFetchSize").arg(JExpr.lit(storedProcedureMethod.getFetchSize())));
+            }
+
+            if (maxRows > 0) {
+                block.add(cs.invoke("setMaxRows").arg(JExpr.lit(maxRows)));
+            }
+
+            if (storedProcedureMethod.getQueryTimeout() > 0) {
+                block.add(cs.invoke("setQueryTimeout").arg(JExpr.lit(storedProcedureMethod.getQueryTimeout())));
+            }
+
+            return block;
+        }
+
+        /**
+         * Generates the exception which is thrown instead of the SQLException. A subclass of Spring's StoredProcedure
+         * translates it with the exception translator of its JdbcTemplate like {@code StoredProcedure.execute}, e.g.
+         * to a DataIntegrityViolationException or a BadSqlGrammarException.
+         * <p>
+         * Generates:
+         * <pre>
+         * getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), {CALL}, e) // Spring's StoredProcedure
+         * new UncategorizedSQLException(this.getClass().getCanonicalName(), {CALL}, e) // execution=direct
+         * </pre>
+         */
+        private JExpression translateException(JVar e) {
+            JExpression task = JExpr._this().invoke("getClass").invoke("getCanonicalName");
+
+            if (dataSource == null) {
+                return JExpr.invoke("getJdbcTemplate").invoke("getExceptionTranslator").invoke("translate").arg(task).arg(call).arg(e);
+            }
+
+            return JExpr._new(model.ref(SPRING_UNCATEGORIZED_SQL_EXCEPTION)).arg(task).arg(call).arg(e);
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * cs.set*({INDEX}, {PARAM});
+         * cs.setObject({INDEX}, {PARAM}, Types.*);
+         * cs.setObject({INDEX}, JavaTimeUtil.toOffsetDateTime({PARAM}), Types.TIMESTAMP_WITH_TIMEZONE); // Instant
+         * *Array = conn.createArrayOf("*", {PARAM});
+         * *Array = ArrayUtil.createArrayOf(conn, "*", {PARAM}); // primitive array
+         * cs.setArray({INDEX}, *Array);
+         * </pre>
+         * In a batch the array is a local variable of the row which is added to the list of arrays:
+         * <pre>
+         * Array *Array = conn.createArrayOf("*", {PARAM});
+         * arrays.add(*Array);
+         * cs.setArray({INDEX}, *Array);
+         * </pre>
+         */
+        private void bindParameter(JBlock block, JExpression conn, JExpression cs, int index, Variable variable, JExpression param, boolean batch) {
+            String type = variable.getTypeInfo().asString();
+            String setter = getStatementSetter(type);
+
+            if (setter != null) {
+                block.add(cs.invoke(setter).arg(JExpr.lit(index)).arg(param));
+                return;
+            } else if (isArrayType(variable)) {
+                JInvocation array = isPrimitiveArrayType(variable)
+                        ? model.ref(ArrayUtil.class).staticInvoke("createArrayOf").arg(conn).arg(getArrayType(type)).arg(param)
+                        : conn.invoke("createArrayOf").arg(getArrayType(type)).arg(param);
+                String name = variable.getName() + "Array";
+
+                if (batch) {
+                    JVar arrayVar = block.decl(model.ref(Array.class), name, array);
+                    block.add(JExpr.ref("arrays").invoke("add").arg(arrayVar));
+                } else {
+                    block.assign(JExpr.ref(name), array);
+                }
+
+                block.add(cs.invoke("setArray").arg(JExpr.lit(index)).arg(JExpr.ref(name)));
+                return;
+            }
+
+            JExpression sqlType = model.ref(Types.class).staticRef(getSqlParameter(type));
+
+            if (isInstant(variable)) {
+                JInvocation offsetDateTime = model.ref(JavaTimeUtil.class).staticInvoke("toOffsetDateTime").arg(param);
+                block.add(cs.invoke("setObject").arg(JExpr.lit(index)).arg(offsetDateTime).arg(sqlType));
+                return;
+            }
+
+            block.add(cs.invoke("setObject").arg(JExpr.lit(index)).arg(param).arg(sqlType));
+        }
+
+        /**
+         * Returns the arguments which are bound as SQL array.
+         */
+        private List<Variable> getArrayArguments() {
+            return storedProcedureMethod.getArguments().stream()
+                    .filter(variable -> getStatementSetter(variable.getTypeInfo().asString()) == null && isArrayType(variable))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * [ ArrayUtil.free(*Array); ]*
+         * </pre>
+         */
+        private void freeArrays(JBlock block) {
+            for (Variable variable : getArrayArguments()) {
+                block.add(model.ref(ArrayUtil.class).staticInvoke("free").arg(JExpr.ref(variable.getName() + "Array")));
+            }
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * ResultSet rs*;
+         * rs* = {RESULT_SET};
+         * List&lt;*&gt; list*;
+         * list* = new ArrayList&lt;*&gt;();
+         * if (rs* != null) {
+         *     while (rs*.next()) {
+         *         list*.add(mapper*.mapRow(rs*, list*.size()));
+         *     }
+         * }
+         * </pre>
+         *
+         * @return the list variable
+         */
+        JVar addReadList(JBlock block, JExpression resultSet, JFieldVar mapper, String type, Integer index) {
+            String postfix = index != null ? index.toString() : "";
+            JVar rs = block.decl(model.ref(ResultSet.class), "rs" + postfix, resultSet);
+            JVar list = block.decl(CodeModelUtil.getGenericList(model, type), "list" + postfix, JExpr._new(model.ref(ArrayList.class).narrow(model.ref(type))));
+            JBlock whileBody = block._if(rs.ne(JExpr._null()))._then()._while(rs.invoke("next")).body();
+            whileBody.add(list.invoke("add").arg(mapper.invoke("mapRow").arg(rs).arg(list.invoke("size"))));
+            return list;
+        }
+
+    }
+
+    /**
+     * Holds all information to generate one stored procedure class which calls the CallableStatement directly,
+     * without the Map based plumbing of Spring's StoredProcedure.
+     * <p>
+     * Example:
+     * <pre>
+     * public class * {
+     *
+     *     private final static String CALL = "{call *([ ? ]*)}";
+     *     private final DataSource dataSource;
+     *     [ private final *Mapper mapper* = new *Mapper(); ]*
+     *
+     *     public *(DataSource dataSource) {
+     *         this.dataSource = dataSource;
+     *     }
+     *
+     *     public List&lt;*&gt; execute([ * * ]*) {
+     *         Connection conn = DataSourceUtils.getConnection(dataSource);
+     *         CallableStatement cs = null;
+     *         try {
+     *             cs = conn.prepareCall(CALL);
+     *             [ cs.set*(*, *); ]*
+     *             ResultSet rs = CallableStatementUtil.execute(cs);
+     *             List&lt;*&gt; list = new ArrayList&lt;*&gt;();
+     *             if (rs != null) {
+     *                 while (rs.next()) {
+     *                     list.add(mapper.mapRow(rs, list.size()));
+     *                 }
+     *             }
+     *             return list;
+     *         } catch (SQLException e) {
+     *             throw new UncategorizedSQLException(this.getClass().getCanonicalName(), CALL, e);
+     *         } finally {
+     *             JdbcUtils.closeStatement(cs);
+     *             DataSourceUtils.releaseConnection(conn, dataSource);
+     *         }
+     *     }
+     *
+     * }
+     * </pre>
+     */
+    private class DirectStoredProcedureGeneratorInstance {
+
+        private final JCodeModel model;
+        private final StoredProcedureMethod storedProcedureMethod;
+        private final List<JFieldVar> mappers = new ArrayList<>();
+        private JDefinedClass spClass;
+        private JFieldVar dataSource;
+        private JdbcCallGenerator jdbcCallGenerator;
+
+        DirectStoredProcedureGeneratorInstance(JCodeModel model, StoredProcedureMethod storedProcedureMethod) {
+            this.model = model;
+            this.storedProcedureMethod = storedProcedureMethod;
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public class * {
+         *     private final static String CALL = "{call *([ ? ]*)}";
+         *     private final DataSource dataSource;
+         *     [ private final *Mapper mapper* = new *Mapper(); ]*
+         * }
+         * </pre>
+         */
+        DirectStoredProcedureGeneratorInstance createClass() throws JClassAlreadyExistsException {
+            JPackage jPackage = model._package(storedProcedureMethod.getPackage());
+            spClass = jPackage._class(storedProcedureMethod.getSimpleClassName());
+            CodeModelUtil.annotateGenerated(spClass);
+            JFieldVar call = spClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, String.class, "CALL", JExpr.lit(getCallString(storedProcedureMethod)));
+            dataSource = spClass.field(JMod.PRIVATE | JMod.FINAL, DataSource.class, "dataSource");
+            jdbcCallGenerator = new JdbcCallGenerator(model, spClass, storedProcedureMethod, call, dataSource);
+            addMapperFields();
+            return this;
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * public *(DataSource dataSource) {
+         *     this.dataSource = dataSource;
+         * }
+         * </pre>
+         */
+        DirectStoredProcedureGeneratorInstance createConstructor() {
+            JMethod constructor = spClass.constructor(JMod.PUBLIC);
+            JVar dataSourceParam = constructor.param(DataSource.class, "dataSource");
+            constructor.body().assign(JExpr._this().ref(dataSource), dataSourceParam);
+            return this;
+        }
+
+        /**
+         * Generates the execute method. The return type depends on the result of the stored procedure:
+         * <ul>
+         * <li>void: if nothing is returned</li>
+         * <li>List&lt;*&gt;: if one result set is returned</li>
+         * <li>int[], long[] or double[]: if the DAO method returns a primitive array or stream</li>
+         * <li>*: the value of the OUT parameter if the DAO method is annotated with @Out</li>
+         * <li>Map&lt;String, Object&gt;: if a {@link at.rseiler.spbee.core.annotation.ResultSet} is returned</li>
+         * </ul>
+         */
+        DirectStoredProcedureGeneratorInstance addExecuteMethod() {
+            String type = getResultType(storedProcedureMethod);
+
+            if ("void".equals(type)) {
+                JMethod method = spClass.method(JMod.PUBLIC, model.VOID, "execute");
+                JBlock block = jdbcCallGenerator.addCallableStatement(method, dataSource, false);
+                block.add(JExpr.ref("cs").invoke("execute"));
+            } else if (resultSetsMap.containsKey(type)) {
+                JClass mapClass = CodeModelUtil.getMapStringObject(model);
+                JMethod method = spClass.method(JMod.PUBLIC, mapClass, "execute");
+                JBlock block = jdbcCallGenerator.addCallableStatement(method, dataSource, false);
+                JVar map = block.decl(mapClass, "map", JExpr._new(model.ref(HashMap.class).narrow(String.class, Object.class)));
+                List<ResultSetVariable> variables = resultSetsMap.get(type).getResultSetVariables();
+
+                for (int i = 0; i < variables.size(); i++) {
+                    String next = i == 0 ? "execute" : "next";
+                    JInvocation resultSet = model.ref(CallableStatementUtil.class).staticInvoke(next).arg(JExpr.ref("cs"));
+                    JVar list = jdbcCallGenerator.addReadList(block, resultSet, mappers.get(i), variables.get(i).getTypeInfo().getGenericTypeOrType(), i);
+                    block.add(map.invoke("put").arg("#result-set-" + i).arg(list));
+                }
+
+                block._return(map);
+            } else if (storedProcedureMethod.getOut().isPresent()) {
+                JMethod method = spClass.method(JMod.PUBLIC, model.ref(type), "execute");
+                JBlock block = jdbcCallGenerator.addCallableStatement(method, dataSource, false);
+                JExpression index = JExpr.lit(storedProcedureMethod.getArguments().size() + 1);
+                JExpression sqlType = model.ref(Types.class).staticRef(getSqlParameter(type));
+                block.add(JExpr.ref("cs").invoke("registerOutParameter").arg(index).arg(sqlType));
+                block.add(JExpr.ref("cs").invoke("execute"));
+                block._return(getOutParameter(type, index));
+            } else if (storedProcedureMethod.getPrimitiveColumnType().isPresent()) {
+                String primitiveType = storedProcedureMethod.getPrimitiveColumnType().get();
+                JMethod method = spClass.method(JMod.PUBLIC, model.ref(primitiveType + "[]"), "execute");
+                JBlock block = jdbcCallGenerator.addCallableStatement(method, dataSource, false);
+                JInvocation resultSet = model.ref(CallableStatementUtil.class).staticInvoke("execute").arg(JExpr.ref("cs"));
+                String reader = "read" + StringUtil.firstCharToUpperCase(primitiveType) + "s";
+                block._return(model.ref(PrimitiveColumnReader.class).staticInvoke(reader).arg(resultSet));
+            } else {
+                JMethod method = spClass.method(JMod.PUBLIC, CodeModelUtil.getGenericList(model, type), "execute");
+                JBlock block = jdbcCallGenerator.addCallableStatement(method, dataSource, false);
+                JInvocation resultSet = model.ref(CallableStatementUtil.class).staticInvoke("execute").arg(JExpr.ref("cs"));
+                block._return(jdbcCallGenerator.addReadList(block, resultSet, mappers.get(0), type, null));
+            }
+
+            return this;
+        }
+
+        /**
+         * Generates the stream, the forEach and the executeUnique method if they are needed by one of the DAO methods.
+         */
+        DirectStoredProcedureGeneratorInstance addRowMethods(List<StoredProcedureMethod> storedProcedureMethods) {
+            jdbcCallGenerator.addRowMethods(storedProcedureMethods, mappers.isEmpty() ? null : mappers.get(0));
+            return this;
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * cs.get*({INDEX})
+         * cs.getObject({INDEX}, *.class) // if there is no specific getter, e.g. for java.lang.Integer
+         * JavaTimeUtil.toInstant(cs.getObject({INDEX}, OffsetDateTime.class)) // Instant
+         * </pre>
+         * An Instant is registered as TIMESTAMP_WITH_TIMEZONE and read as OffsetDateTime because JDBC doesn't map it.
+         */
+        private JExpression getOutParameter(String type, JExpression index) {
+            String setter = getStatementSetter(type);
+
+            if (Instant.class.getCanonicalName().equals(type)) {
+                JInvocation offsetDateTime = JExpr.ref("cs").invoke("getObject").arg(index).arg(model.ref(OffsetDateTime.class).dotclass());
+                return model.ref(JavaTimeUtil.class).staticInvoke("toInstant").arg(offsetDateTime);
+            } else if (setter != null) {
+                return JExpr.ref("cs").invoke("g" + setter.substring(1)).arg(index);
+            }
+
+            return JExpr.ref("cs").invoke("getObject").arg(index).arg(model.ref(type).dotclass());
+        }
+
+        /**
+         * Generates:
+         * <pre>
+         * [ private final *Mapper mapper* = new *Mapper(); ]*
+         * </pre>
+         */
+        private void addMapperFields() {
+            String type = getResultType(storedProcedureMethod);
+
+            if (resultSetsMap.containsKey(type)) {
+                List<ResultSetVariable> variables = resultSetsMap.get(type).getResultSetVariables();
+
+                for (int i = 0; i < variables.size(); i++) {
+                    mappers.add(jdbcCallGenerator.addMapperField("mapper" + i, variables.get(i).getRowMapper()));
+                }
+            } else if (!"void".equals(type) && !storedProcedureMethod.getPrimitiveColumnType().isPresent() && !storedProcedureMethod.getOut().isPresent()) {
+                mappers.add(jdbcCallGenerator.addMapperField("mapper", storedProcedureMethod.getQualifiedRowMapperClass()));
+            }
+        }
+
     }
 
     /**
@@ -277,6 +1116,19 @@ public class StoredProcedureGenerator extends AbstractGenerator {
                 return "TIME";
             case "java.math.BigDecimal":
                 return "DOUBLE";
+            case "java.time.LocalDate":
+                return "DATE";
+            case "java.time.LocalTime":
+                return "TIME";
+            case "java.time.LocalDateTime":
+                return "TIMESTAMP";
+            case "java.time.OffsetTime":
+                return "TIME_WITH_TIMEZONE";
+            case "java.time.OffsetDateTime":
+            case "java.time.Instant":
+                return "TIMESTAMP_WITH_TIMEZONE";
+            case "java.util.UUID":
+                return "OTHER";
             default:
                 if (type.contains("[]")) {
                     return "ARRAY";
@@ -286,21 +1138,69 @@ public class StoredProcedureGenerator extends AbstractGenerator {
         }
     }
 
+    /**
+     * Retrieves the typed {@link java.sql.PreparedStatement} setter based on the type.
+     * Boxed types aren't mapped because they could be null. They are bound with setObject.
+     *
+     * @param type the type
+     * @return the setter name or null if setObject should be used
+     */
+    private static String getStatementSetter(String type) {
+        switch (type) {
+            case "boolean":
+                return "setBoolean";
+            case "byte":
+                return "setByte";
+            case "short":
+                return "setShort";
+            case "int":
+                return "setInt";
+            case "long":
+                return "setLong";
+            case "float":
+                return "setFloat";
+            case "double":
+                return "setDouble";
+            case "byte[]":
+                return "setBytes";
+            case "java.lang.String":
+                return "setString";
+            case "java.sql.Date":
+                return "setDate";
+            case "java.sql.Timestamp":
+                return "setTimestamp";
+            case "java.sql.Time":
+                return "setTime";
+            case "java.math.BigDecimal":
+                return "setBigDecimal";
+            default:
+                return null;
+        }
+    }
+
     private String getArrayType(String type) {
         switch (type) {
+            case "boolean[]":
             case "java.lang.Boolean[]":
                 return "bool";
+            case "char[]":
             case "java.lang.Character[]":
                 return "char";
             case "java.lang.Byte[]":
                 return "smallint";
+            case "short[]":
             case "java.lang.Short[]":
                 return "smallint";
+            case "int[]":
             case "java.lang.Integer[]":
                 return "int";
+            case "long[]":
             case "java.lang.Long[]":
                 return "bigint";
+            case "float[]":
             case "java.lang.Float[]":
+            case "double[]":
+            case "java.lang.Double[]":
                 return "float";
             case "java.lang.Decimal[]":
             case "java.math.BigDecimal[]":
@@ -0,0 +1,109 @@
+package at.rseiler.spbee.core.interceptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Describes a stored procedure method of a generated DAO. The generated DAO holds one descriptor per method in a static
+ * field and passes it to the {@link ProcedureInterceptor}, so the interceptor doesn't need to allocate anything to
+ * identify the call. The {@link at.rseiler.spbee.core.metrics.ProcedureMetrics} of the method are named after it.
+ * <p>
+ * Each descriptor gets a unique id when it's created: the ids are dense, starting at 0, so an interceptor can keep its
+ * data per method in an array indexed by the id.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ProcedureDescriptor {
+
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private final int id;
+    private final String procedureName;
+    private final String daoName;
+    private final String methodName;
+    private final List<String> parameterNames;
+
+    /**
+     * Constructs a new ProcedureDescriptor.
+     *
+     * @param procedureName  the name of the stored procedure
+     * @param daoName        the qualified class name of the DAO
+     * @param methodName     the name of the DAO method
+     * @param parameterNames the names of the parameters of the stored procedure
+     */
+    public ProcedureDescriptor(String procedureName, String daoName, String methodName, String... parameterNames) {
+        this.id = IDS.getAndIncrement();
+        this.procedureName = procedureName;
+        this.daoName = daoName;
+        this.methodName = methodName;
+        this.parameterNames = Collections.unmodifiableList(Arrays.asList(parameterNames));
+    }
+
+    /**
+     * Returns the number of descriptors which were created, i.e. the upper bound of the ids.
+     *
+     * @return the number of descriptors
+     */
+    public static int count() {
+        return IDS.get();
+    }
+
+    /**
+     * The unique id of the method.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * The name of the stored procedure.
+     *
+     * @return the name of the stored procedure
+     */
+    public String getProcedureName() {
+        return procedureName;
+    }
+
+    /**
+     * The qualified class name of the DAO.
+     *
+     * @return the qualified class name
+     */
+    public String getDaoName() {
+        return daoName;
+    }
+
+    /**
+     * The name of the DAO method.
+     *
+     * @return the method name
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * The names of the parameters of the stored procedure in the order of the arguments.
+     *
+     * @return the parameter names
+     */
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcedureDescriptor{" +
+                "id=" + id +
+                ", procedureName='" + procedureName + '\'' +
+                ", daoName='" + daoName + '\'' +
+                ", methodName='" + methodName + '\'' +
+                ", parameterNames=" + parameterNames +
+                '}';
+    }
+
+}
@@ -0,0 +1,67 @@
+package at.rseiler.spbee.core.interceptor;
+
+/**
+ * Intercepts the stored procedure calls of the generated DAOs to log or monitor them. The interceptor is configured
+ * with the <code>procedure.interceptor</code> property in the <code>spbee.properties</code> file and must have a
+ * public no-args constructor. One instance is shared by all DAOs, see {@link ProcedureInterceptors}.
+ * <p>
+ * The generated call sites don't allocate: the method is identified by its static {@link ProcedureDescriptor} and the
+ * call by the primitive token which {@link #before} returns. The arguments are only passed as array if
+ * {@link #captureArguments} returns true for the method.
+ * <p>
+ * The calls of a method are:
+ * <pre>
+ * long token = interceptor.before(descriptor);
+ * if (interceptor.captureArguments(descriptor)) {
+ *     interceptor.arguments(descriptor, token, new Object[] { arguments });
+ * }
+ * try {
+ *     // the stored procedure call
+ * } finally {
+ *     interceptor.after(descriptor, token);
+ * }
+ * </pre>
+ * {@link #after} is called in a finally block, so it's also called if the stored procedure call throws an exception.
+ * A RuntimeException which is thrown by {@link #before} or {@link #arguments} cancels the stored procedure call.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public interface ProcedureInterceptor {
+
+    /**
+     * Is called before the stored procedure call.
+     *
+     * @param descriptor the descriptor of the method
+     * @return the token which identifies the call in the other methods, e.g. the start time
+     */
+    long before(ProcedureDescriptor descriptor);
+
+    /**
+     * Returns true if the arguments of the method should be passed to {@link #arguments}.
+     *
+     * @param descriptor the descriptor of the method
+     * @return true to get the arguments
+     */
+    default boolean captureArguments(ProcedureDescriptor descriptor) {
+        return false;
+    }
+
+    /**
+     * Is called after {@link #before} if {@link #captureArguments} returned true.
+     *
+     * @param descriptor the descriptor of the method
+     * @param token      the token returned by {@link #before}
+     * @param arguments  the arguments of the stored procedure in the order of {@link ProcedureDescriptor#getParameterNames()}
+     */
+    default void arguments(ProcedureDescriptor descriptor, long token, Object[] arguments) {
+    }
+
+    /**
+     * Is called after the stored procedure call, also if it failed.
+     *
+     * @param descriptor the descriptor of the method
+     * @param token      the token returned by {@link #before}
+     */
+    void after(ProcedureDescriptor descriptor, long token);
+
+}
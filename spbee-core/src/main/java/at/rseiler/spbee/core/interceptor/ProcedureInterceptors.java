@@ -0,0 +1,36 @@
+package at.rseiler.spbee.core.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link ProcedureInterceptor} instances of the generated DAOs: one instance per interceptor class.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ProcedureInterceptors {
+
+    private static final Map<Class<?>, ProcedureInterceptor> INTERCEPTORS = new ConcurrentHashMap<>();
+
+    private ProcedureInterceptors() {
+    }
+
+    /**
+     * Returns the instance of the interceptor class. It's created with the no-args constructor on the first call.
+     *
+     * @param interceptorClass the interceptor class
+     * @return the interceptor
+     */
+    public static ProcedureInterceptor get(Class<? extends ProcedureInterceptor> interceptorClass) {
+        return INTERCEPTORS.computeIfAbsent(interceptorClass, ProcedureInterceptors::newInstance);
+    }
+
+    private static ProcedureInterceptor newInstance(Class<?> interceptorClass) {
+        try {
+            return (ProcedureInterceptor) interceptorClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Failed to create the interceptor: " + interceptorClass.getName(), e);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Some util methods to create the SQL arrays of primitive array parameters like {@code int[]} and {@code long[]} and to
+ * free the SQL arrays after the execution.
+ * <p>
+ * JDBC only defines {@link Connection#createArrayOf(String, Object[])}. Some drivers, e.g. the PostgreSQL driver,
+ * additionally provide {@code createArrayOf(String, Object)} which accepts primitive arrays without boxing each
+ * element. This method is used if the driver supports it, otherwise the elements are boxed into an Object[].
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ArrayUtil {
+
+    private static final Map<Class<?>, Optional<Method>> PRIMITIVE_CREATE_ARRAY_OF = new ConcurrentHashMap<>();
+
+    private ArrayUtil() {
+    }
+
+    /**
+     * Creates the SQL array.
+     *
+     * @param conn     the connection
+     * @param typeName the SQL type name of the elements
+     * @param elements (nullable) the elements: an Object[] or a primitive array
+     * @return the SQL array or null if the elements are null
+     * @throws SQLException if the array can't be created
+     */
+    public static Array createArrayOf(Connection conn, String typeName, Object elements) throws SQLException {
+        if (elements == null) {
+            return null;
+        }
+
+        if (elements instanceof Object[]) {
+            return conn.createArrayOf(typeName, (Object[]) elements);
+        }
+
+        Connection target = unwrap(conn);
+        Optional<Method> method = PRIMITIVE_CREATE_ARRAY_OF.computeIfAbsent(target.getClass(), ArrayUtil::findCreateArrayOf);
+
+        if (method.isPresent()) {
+            try {
+                return (Array) method.get().invoke(target, typeName, elements);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+
+                throw new SQLException("Failed to create the array", e.getCause());
+            } catch (IllegalAccessException e) {
+                // the class of the connection isn't accessible - falls back to the boxed elements
+                PRIMITIVE_CREATE_ARRAY_OF.put(target.getClass(), Optional.empty());
+            }
+        }
+
+        return conn.createArrayOf(typeName, box(elements));
+    }
+
+    /**
+     * Frees the SQL array. A driver which doesn't support to free an array releases it with the statement, therefore
+     * the SQLException is ignored.
+     *
+     * @param array (nullable) the SQL array
+     */
+    public static void free(Array array) {
+        if (array != null) {
+            try {
+                array.free();
+            } catch (SQLException e) {
+                // some drivers don't support to free an array - then it's released with the statement
+            }
+        }
+    }
+
+    /**
+     * Frees the SQL arrays of a batch and removes them from the collection, so the collection can be reused for the
+     * next batch.
+     *
+     * @param arrays the SQL arrays
+     */
+    public static void free(Collection<Array> arrays) {
+        for (Array array : arrays) {
+            free(array);
+        }
+
+        arrays.clear();
+    }
+
+    /**
+     * Boxes the elements of a primitive array.
+     *
+     * @param elements the primitive array
+     * @return the boxed elements
+     */
+    static Object[] box(Object elements) {
+        if (elements instanceof int[]) {
+            int[] array = (int[]) elements;
+            Object[] boxed = new Object[array.length];
+
+            for (int i = 0; i < array.length; i++) {
+                boxed[i] = array[i];
+            }
+
+            return boxed;
+        } else if (elements instanceof long[]) {
+            long[] array = (long[]) elements;
+            Object[] boxed = new Object[array.length];
+
+            for (int i = 0; i < array.length; i++) {
+                boxed[i] = array[i];
+            }
+
+            return boxed;
+        } else if (elements instanceof double[]) {
+            double[] array = (double[]) elements;
+            Object[] boxed = new Object[array.length];
+
+            for (int i = 0; i < array.length; i++) {
+                boxed[i] = array[i];
+            }
+
+            return boxed;
+        }
+
+        int length = java.lang.reflect.Array.getLength(elements);
+        Object[] boxed = new Object[length];
+
+        for (int i = 0; i < length; i++) {
+            boxed[i] = java.lang.reflect.Array.get(elements, i);
+        }
+
+        return boxed;
+    }
+
+    /**
+     * Returns the connection of the driver if the connection is wrapped, e.g. by a connection pool.
+     */
+    private static Connection unwrap(Connection conn) {
+        try {
+            return conn.isWrapperFor(Connection.class) ? conn.unwrap(Connection.class) : conn;
+        } catch (SQLException e) {
+            return conn;
+        }
+    }
+
+    private static Optional<Method> findCreateArrayOf(Class<?> connectionClass) {
+        try {
+            return Optional.of(connectionClass.getMethod("createArrayOf", String.class, Object.class));
+        } catch (NoSuchMethodException | SecurityException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Some util methods for the generated stored procedure classes which call the {@link java.sql.CallableStatement}
+ * directly.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class CallableStatementUtil {
+
+    private CallableStatementUtil() {
+    }
+
+    /**
+     * Executes the statement and returns the first result set.
+     * Update counts which are returned before the first result set are skipped.
+     *
+     * @param cs the statement
+     * @return the first result set or null if the statement doesn't return a result set
+     * @throws SQLException if the execution fails
+     */
+    public static ResultSet execute(CallableStatement cs) throws SQLException {
+        return getResultSet(cs, cs.execute());
+    }
+
+    /**
+     * Moves to the next result set of the statement.
+     * Update counts which are returned before the next result set are skipped.
+     *
+     * @param cs the statement
+     * @return the next result set or null if there are no more result sets
+     * @throws SQLException if the statement can't move to the next result
+     */
+    public static ResultSet next(CallableStatement cs) throws SQLException {
+        return getResultSet(cs, cs.getMoreResults());
+    }
+
+    private static ResultSet getResultSet(CallableStatement cs, boolean isResultSet) throws SQLException {
+        boolean resultSet = isResultSet;
+
+        while (!resultSet) {
+            if (cs.getUpdateCount() == -1) {
+                return null;
+            }
+
+            resultSet = cs.getMoreResults();
+        }
+
+        return cs.getResultSet();
+    }
+
+}
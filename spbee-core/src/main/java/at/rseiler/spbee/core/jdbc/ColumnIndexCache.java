@@ -0,0 +1,144 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Resolves the indexes of the column labels of a generated RowMapper. The indexes are resolved on the first row of a
+ * result set and the following rows of the same result set are read by these indexes without touching the metadata.
+ * <p>
+ * On the first row the indexes are looked up by the column layout of the result set, i.e. the column count and the
+ * labels of the mapped columns. Only a new layout is resolved with {@link ResultSet#findColumn(String)}, so the
+ * following calls of the stored procedure only compare the labels once per result set.
+ * <p>
+ * The RowMapper is shared between threads, so the known layouts and the current result set are held in immutable
+ * snapshots which are replaced. If result sets are mapped concurrently then a row of another result set is looked up
+ * by its layout again, which is still correct. The current result set is only weakly referenced.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ColumnIndexCache {
+
+    // a stored procedure usually returns the same columns on every call, a few more are kept for other procedures with the same entity
+    private static final int MAX_LAYOUTS = 8;
+
+    private final String[] labels;
+    private volatile Layout[] layouts = new Layout[0];
+    private volatile Current current;
+
+    /**
+     * Constructs a new ColumnIndexCache.
+     *
+     * @param labels the column labels in the order of the constructor parameters
+     */
+    public ColumnIndexCache(String... labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * Returns the column indexes of the labels for the row of the result set. The indexes are resolved on the first
+     * row and reused for the following rows of the same result set.
+     * The returned array is shared and must not be modified.
+     *
+     * @param rs     the result set
+     * @param rowNum the number of the current row, starting with 0
+     * @return the column indexes in the order of the labels
+     * @throws SQLException if a label isn't a column of the result set
+     */
+    public int[] resolve(ResultSet rs, int rowNum) throws SQLException {
+        Current resolved = current;
+
+        if (rowNum > 0 && resolved != null && resolved.resultSet.get() == rs) {
+            return resolved.indexes;
+        }
+
+        int[] indexes = resolve(rs);
+        current = new Current(rs, indexes);
+        return indexes;
+    }
+
+    /**
+     * Returns the column indexes of the labels for the result set by its column layout.
+     * The returned array is shared and must not be modified.
+     *
+     * @param rs the result set
+     * @return the column indexes in the order of the labels
+     * @throws SQLException if a label isn't a column of the result set
+     */
+    public int[] resolve(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        Layout[] current = layouts;
+
+        for (Layout layout : current) {
+            if (layout.matches(metaData, columnCount)) {
+                return layout.indexes;
+            }
+        }
+
+        int[] indexes = new int[labels.length];
+        String[] columnLabels = new String[labels.length];
+
+        for (int i = 0; i < labels.length; i++) {
+            indexes[i] = rs.findColumn(labels[i]);
+            columnLabels[i] = metaData.getColumnLabel(indexes[i]);
+        }
+
+        Layout[] next = current.length < MAX_LAYOUTS ? Arrays.copyOf(current, current.length + 1) : new Layout[1];
+        next[next.length - 1] = new Layout(columnCount, indexes, columnLabels);
+        layouts = next;
+
+        return indexes;
+    }
+
+    /**
+     * The result set whose rows are currently mapped and its indexes.
+     */
+    private static class Current {
+
+        private final WeakReference<ResultSet> resultSet;
+        private final int[] indexes;
+
+        Current(ResultSet resultSet, int[] indexes) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.indexes = indexes;
+        }
+
+    }
+
+    /**
+     * The resolved indexes and the labels which the result set reported for these columns.
+     */
+    private static class Layout {
+
+        private final int columnCount;
+        private final int[] indexes;
+        private final String[] columnLabels;
+
+        Layout(int columnCount, int[] indexes, String[] columnLabels) {
+            this.columnCount = columnCount;
+            this.indexes = indexes;
+            this.columnLabels = columnLabels;
+        }
+
+        boolean matches(ResultSetMetaData metaData, int columnCount) throws SQLException {
+            if (this.columnCount != columnCount) {
+                return false;
+            }
+
+            for (int i = 0; i < indexes.length; i++) {
+                if (!Objects.equals(columnLabels[i], metaData.getColumnLabel(indexes[i]))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Some util methods to read and bind {@link Instant} values. JDBC 4.2 maps the java.time types, except
+ * {@link Instant}, to SQL types. An {@link Instant} is therefore transferred as {@link OffsetDateTime} in UTC.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class JavaTimeUtil {
+
+    private JavaTimeUtil() {
+    }
+
+    /**
+     * Converts the OffsetDateTime, which is read from a result set, to an Instant.
+     *
+     * @param offsetDateTime (nullable) the OffsetDateTime
+     * @return the Instant or null if the OffsetDateTime is null
+     */
+    public static Instant toInstant(OffsetDateTime offsetDateTime) {
+        return offsetDateTime != null ? offsetDateTime.toInstant() : null;
+    }
+
+    /**
+     * Converts the Instant, which is bound as parameter, to an OffsetDateTime in UTC.
+     *
+     * @param instant (nullable) the Instant
+     * @return the OffsetDateTime or null if the Instant is null
+     */
+    public static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+}
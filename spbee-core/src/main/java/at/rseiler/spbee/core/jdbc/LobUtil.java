@@ -0,0 +1,32 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Some util methods for the generated RowMapper classes to read binary columns.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class LobUtil {
+
+    private LobUtil() {
+    }
+
+    /**
+     * Reads the binary column into a ByteBuffer. The value is fully buffered: it's read with
+     * {@link ResultSet#getBytes(int)} and the ByteBuffer wraps these bytes. A large value which shouldn't be loaded into
+     * the heap must be read as InputStream instead.
+     *
+     * @param rs          the result set
+     * @param columnIndex the index of the column
+     * @return the ByteBuffer or null if the value is SQL NULL
+     * @throws SQLException if the column can't be read
+     */
+    public static ByteBuffer getByteBuffer(ResultSet rs, int columnIndex) throws SQLException {
+        byte[] bytes = rs.getBytes(columnIndex);
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+
+}
@@ -0,0 +1,116 @@
+package at.rseiler.spbee.core.jdbc;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Reads the first column of all rows of a result set into a primitive array, e.g. for a stored procedure method which
+ * returns {@code int[]} or {@code IntStream}. The values are collected in a growable primitive buffer, so no value is
+ * boxed and no RowMapper is needed.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class PrimitiveColumnReader {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private PrimitiveColumnReader() {
+    }
+
+    /**
+     * Creates a ResultSetExtractor which reads the first column as int values.
+     *
+     * @return the ResultSetExtractor
+     */
+    public static ResultSetExtractor<int[]> ints() {
+        return PrimitiveColumnReader::readInts;
+    }
+
+    /**
+     * Creates a ResultSetExtractor which reads the first column as long values.
+     *
+     * @return the ResultSetExtractor
+     */
+    public static ResultSetExtractor<long[]> longs() {
+        return PrimitiveColumnReader::readLongs;
+    }
+
+    /**
+     * Creates a ResultSetExtractor which reads the first column as double values.
+     *
+     * @return the ResultSetExtractor
+     */
+    public static ResultSetExtractor<double[]> doubles() {
+        return PrimitiveColumnReader::readDoubles;
+    }
+
+    /**
+     * Reads the first column of all rows as int values. SQL NULL is read as 0.
+     *
+     * @param rs (nullable) the result set
+     * @return the values
+     * @throws SQLException if the result set can't be read
+     */
+    public static int[] readInts(ResultSet rs) throws SQLException {
+        int[] values = new int[rs != null ? INITIAL_CAPACITY : 0];
+        int size = 0;
+
+        while (rs != null && rs.next()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = rs.getInt(1);
+        }
+
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Reads the first column of all rows as long values. SQL NULL is read as 0.
+     *
+     * @param rs (nullable) the result set
+     * @return the values
+     * @throws SQLException if the result set can't be read
+     */
+    public static long[] readLongs(ResultSet rs) throws SQLException {
+        long[] values = new long[rs != null ? INITIAL_CAPACITY : 0];
+        int size = 0;
+
+        while (rs != null && rs.next()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = rs.getLong(1);
+        }
+
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Reads the first column of all rows as double values. SQL NULL is read as 0.
+     *
+     * @param rs (nullable) the result set
+     * @return the values
+     * @throws SQLException if the result set can't be read
+     */
+    public static double[] readDoubles(ResultSet rs) throws SQLException {
+        double[] values = new double[rs != null ? INITIAL_CAPACITY : 0];
+        int size = 0;
+
+        while (rs != null && rs.next()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = rs.getDouble(1);
+        }
+
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+}
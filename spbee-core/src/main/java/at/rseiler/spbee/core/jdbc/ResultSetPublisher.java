@@ -0,0 +1,285 @@
+package at.rseiler.spbee.core.jdbc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@code java.util.concurrent.Flow.Publisher} over the lazy stream of a stored procedure.
+ * The stored procedure is executed when the first rows are requested and the rows are only fetched and mapped as the
+ * subscriber requests them. The stream, and therefore the ResultSet, the statement and the connection, is closed if the
+ * subscription completes, fails or is cancelled.
+ * <p>
+ * spBee is compiled for Java 8, so the Flow interfaces (Java 9+) are implemented with dynamic proxies.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ResultSetPublisher {
+
+    private static final String FLOW_PUBLISHER = "java.util.concurrent.Flow$Publisher";
+    private static final String FLOW_SUBSCRIBER = "java.util.concurrent.Flow$Subscriber";
+    private static final String FLOW_SUBSCRIPTION = "java.util.concurrent.Flow$Subscription";
+
+    private ResultSetPublisher() {
+    }
+
+    /**
+     * Creates a publisher which opens a new stream for each subscriber.
+     *
+     * @param streamSupplier supplies the stream of the stored procedure
+     * @param <P>            the type of the publisher: Flow.Publisher&lt;T&gt;
+     * @return the publisher
+     * @throws IllegalStateException if the JVM doesn't support the Flow API
+     */
+    @SuppressWarnings("unchecked")
+    public static <P> P publisher(Supplier<? extends Stream<?>> streamSupplier) {
+        return (P) newProxy(getFlowClass(FLOW_PUBLISHER), (proxy, method, args) -> {
+            if ("subscribe".equals(method.getName())) {
+                subscribe(streamSupplier, args[0]);
+                return null;
+            }
+
+            return invokeObjectMethod(proxy, method, args);
+        });
+    }
+
+    private static void subscribe(Supplier<? extends Stream<?>> streamSupplier, Object subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+
+        RowSubscription subscription = new RowSubscription(streamSupplier, subscriber);
+        subscription.onSubscribe(newProxy(getFlowClass(FLOW_SUBSCRIPTION), subscription));
+    }
+
+    private static Class<?> getFlowClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Flow.Publisher requires Java 9 or newer", e);
+        }
+    }
+
+    private static Object newProxy(Class<?> anInterface, InvocationHandler handler) {
+        return Proxy.newProxyInstance(ResultSetPublisher.class.getClassLoader(), new Class<?>[]{anInterface}, handler);
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return ResultSetPublisher.class.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    /**
+     * The subscription which emits the rows according to the demand of the subscriber.
+     * All signals are emitted by only one thread at a time: the thread which increments the work counter first drains
+     * the demand, other threads only record the work. Therefore an invalid request is only recorded and signalled by
+     * the draining thread too.
+     * <p>
+     * The subscriber methods are bound once per subscription, so emitting a row doesn't need reflection.
+     */
+    private static class RowSubscription implements InvocationHandler {
+
+        private static final MethodHandle ON_SUBSCRIBE = getSubscriberMethod("onSubscribe", getFlowClass(FLOW_SUBSCRIPTION));
+        private static final MethodHandle ON_NEXT = getSubscriberMethod("onNext", Object.class);
+        private static final MethodHandle ON_ERROR = getSubscriberMethod("onError", Throwable.class);
+        private static final MethodHandle ON_COMPLETE = getSubscriberMethod("onComplete");
+
+        private final Supplier<? extends Stream<?>> streamSupplier;
+        private final MethodHandle onSubscribe;
+        private final MethodHandle onNext;
+        private final MethodHandle onError;
+        private final MethodHandle onComplete;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private final AtomicReference<Throwable> pendingError = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private Stream<?> stream;
+        private Iterator<?> iterator;
+
+        RowSubscription(Supplier<? extends Stream<?>> streamSupplier, Object subscriber) {
+            this.streamSupplier = streamSupplier;
+            this.onSubscribe = ON_SUBSCRIBE.bindTo(subscriber);
+            this.onNext = ON_NEXT.bindTo(subscriber);
+            this.onError = ON_ERROR.bindTo(subscriber);
+            this.onComplete = ON_COMPLETE.bindTo(subscriber);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "request":
+                    request((Long) args[0]);
+                    return null;
+                case "cancel":
+                    cancelled = true;
+                    drain();
+                    return null;
+                default:
+                    return invokeObjectMethod(proxy, method, args);
+            }
+        }
+
+        private void request(long n) {
+            if (n <= 0) {
+                pendingError.compareAndSet(null, new IllegalArgumentException("The requested rows must be positive: " + n));
+            } else {
+                demand.getAndUpdate(requested -> requested + n < 0 ? Long.MAX_VALUE : requested + n);
+            }
+
+            drain();
+        }
+
+        private void drain() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            do {
+                if (cancelled) {
+                    close();
+                    return;
+                }
+
+                Throwable error = pendingError.get();
+
+                if (error != null) {
+                    terminate();
+                    onError(error);
+                    return;
+                }
+
+                long requested = demand.get();
+                long emitted = 0;
+
+                while (emitted != requested && !cancelled && pendingError.get() == null) {
+                    Object row;
+
+                    try {
+                        if (iterator == null) {
+                            stream = streamSupplier.get();
+                            iterator = stream.iterator();
+                        }
+
+                        if (!iterator.hasNext()) {
+                            terminate();
+                            onComplete();
+                            return;
+                        }
+
+                        row = iterator.next();
+                    } catch (RuntimeException e) {
+                        terminate();
+                        onError(e);
+                        return;
+                    }
+
+                    try {
+                        onNext(row);
+                    } catch (RuntimeException | Error e) {
+                        // the subscriber violated the specification, at least the database resources are freed
+                        terminate();
+                        throw e;
+                    }
+
+                    emitted++;
+                }
+
+                if (requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+
+                if (cancelled || pendingError.get() != null) {
+                    // handled at the beginning of the next iteration
+                    continue;
+                }
+
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void terminate() {
+            cancelled = true;
+            close();
+        }
+
+        private void close() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+
+        void onSubscribe(Object subscription) {
+            try {
+                onSubscribe.invokeExact(subscription);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private void onNext(Object row) {
+            try {
+                onNext.invokeExact(row);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private void onError(Throwable error) {
+            try {
+                onError.invokeExact((Object) error);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private void onComplete() {
+            try {
+                onComplete.invokeExact();
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private static MethodHandle getSubscriberMethod(String name, Class<?>... parameterTypes) {
+            try {
+                MethodHandle handle = MethodHandles.publicLookup().findVirtual(getFlowClass(FLOW_SUBSCRIBER), name, MethodType.methodType(void.class, parameterTypes));
+                // the Flow classes aren't known at compile time, therefore the parameters are passed as Object
+                return handle.asType(handle.type().erase());
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            }
+
+            throw new IllegalStateException(e);
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package at.rseiler.spbee.core.jdbc;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy stream over an open ResultSet. The rows are mapped as the stream is consumed.
+ * Closing the stream closes the ResultSet, the statement and releases the connection.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ResultSetStream {
+
+    private ResultSetStream() {
+    }
+
+    /**
+     * Creates a stream which maps the rows of the ResultSet lazily.
+     * The stream must be closed, e.g. with a try-with-resources statement, to free the database resources.
+     *
+     * @param sql        the SQL of the statement, used for the exception message
+     * @param dataSource the DataSource from which the connection was obtained
+     * @param conn       the connection
+     * @param cs         the statement
+     * @param rs         (nullable) the ResultSet
+     * @param rowMapper  the RowMapper to map each row
+     * @param <T>        the type of the mapped rows
+     * @return the stream
+     */
+    public static <T> Stream<T> stream(String sql, DataSource dataSource, Connection conn, CallableStatement cs, ResultSet rs, RowMapper<T> rowMapper) {
+        return stream(sql, dataSource, conn, cs, rs, rowMapper, null);
+    }
+
+    /**
+     * Like {@link #stream(String, DataSource, Connection, CallableStatement, ResultSet, RowMapper)}, but a SQLException
+     * which is thrown while the stream is consumed is translated by the exception translator, e.g. the one of the
+     * JdbcTemplate of a StoredProcedure.
+     *
+     * @param sql                 the SQL of the statement, used for the exception message
+     * @param dataSource          the DataSource from which the connection was obtained
+     * @param conn                the connection
+     * @param cs                  the statement
+     * @param rs                  (nullable) the ResultSet
+     * @param rowMapper           the RowMapper to map each row
+     * @param exceptionTranslator (nullable) the exception translator - if null then an UncategorizedSQLException is thrown
+     * @param <T>                 the type of the mapped rows
+     * @return the stream
+     */
+    public static <T> Stream<T> stream(String sql, DataSource dataSource, Connection conn, CallableStatement cs, ResultSet rs, RowMapper<T> rowMapper, SQLExceptionTranslator exceptionTranslator) {
+        return StreamSupport.stream(new ResultSetSpliterator<>(sql, rs, rowMapper, exceptionTranslator), false)
+                .onClose(() -> {
+                    JdbcUtils.closeResultSet(rs);
+                    JdbcUtils.closeStatement(cs);
+                    DataSourceUtils.releaseConnection(conn, dataSource);
+                });
+    }
+
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final String sql;
+        private final ResultSet rs;
+        private final RowMapper<T> rowMapper;
+        private final SQLExceptionTranslator exceptionTranslator;
+        private int rowNum;
+
+        ResultSetSpliterator(String sql, ResultSet rs, RowMapper<T> rowMapper, SQLExceptionTranslator exceptionTranslator) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.sql = sql;
+            this.rs = rs;
+            this.rowMapper = rowMapper;
+            this.exceptionTranslator = exceptionTranslator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (rs == null) {
+                return false;
+            }
+
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+
+                action.accept(rowMapper.mapRow(rs, rowNum++));
+                return true;
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+
+        private DataAccessException translate(SQLException e) {
+            String task = ResultSetStream.class.getCanonicalName();
+            DataAccessException exception = exceptionTranslator != null ? exceptionTranslator.translate(task, sql, e) : null;
+            return exception != null ? exception : new UncategorizedSQLException(task, sql, e);
+        }
+
+    }
+
+}
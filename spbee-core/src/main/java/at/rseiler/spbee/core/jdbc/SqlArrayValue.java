@@ -0,0 +1,55 @@
+package at.rseiler.spbee.core.jdbc;
+
+import org.springframework.jdbc.core.DisposableSqlTypeValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * An array parameter for the generated Spring stored procedure classes.
+ * <p>
+ * The {@link Array} is created when Spring binds the parameter, on the connection of the statement which executes the
+ * call. So no second connection is needed and the array belongs to the transaction bound connection, if there is one.
+ * The array is freed after the execution.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public class SqlArrayValue extends AbstractSqlTypeValue implements DisposableSqlTypeValue {
+
+    private final String typeName;
+    private final Object elements;
+    private Array array;
+
+    /**
+     * Creates a new array parameter.
+     *
+     * @param typeName the SQL type name of the elements
+     * @param elements (nullable) the elements: an Object[] or a primitive array like int[]
+     */
+    public SqlArrayValue(String typeName, Object elements) {
+        this.typeName = typeName;
+        this.elements = elements;
+    }
+
+    @Override
+    protected Object createTypeValue(Connection conn, int sqlType, String sqlTypeName) throws SQLException {
+        array = ArrayUtil.createArrayOf(conn, typeName, elements);
+        return array;
+    }
+
+    @Override
+    public void cleanup() {
+        if (array != null) {
+            try {
+                array.free();
+            } catch (SQLException e) {
+                // some drivers don't support to free an array - then it's released with the statement
+            } finally {
+                array = null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+package at.rseiler.spbee.core.metrics;
+
+import at.rseiler.spbee.core.interceptor.ProcedureDescriptor;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the stored procedure calls of a DAO method: latency percentiles, calls, errors, rows and the calls in
+ * flight. The generated DAOs hold one instance per method in a static field if <code>metrics=jmx</code> is configured.
+ * <p>
+ * Every instance is published as platform MXBean with the name
+ * <code>at.rseiler.spbee:type=ProcedureMetrics,dao={QUALIFIED_DAO_NAME},method={METHOD_NAME}</code>.
+ * Overloaded methods get the id of the {@link ProcedureDescriptor} as additional <code>id</code> key.
+ * <p>
+ * Generated code:
+ * <pre>
+ * long metricsStart = *_METRICS.start();
+ * try {
+ *     * result = call*( [ * ]* );
+ *     *_METRICS.success(metricsStart, result);
+ *     return result;
+ * } catch (Throwable e) {
+ *     *_METRICS.failure(metricsStart);
+ *     throw e;
+ * }
+ * </pre>
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public final class ProcedureMetrics implements ProcedureMetricsMXBean {
+
+    static final String DOMAIN = "at.rseiler.spbee";
+
+    private final ProcedureDescriptor descriptor;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+
+    ProcedureMetrics(ProcedureDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * Creates the metrics of the method and registers them in the platform MBeanServer.
+     * <p>
+     * If the name with the id is registered too, e.g. because the DAO class was loaded again after a redeployment,
+     * then the registered MBean is replaced. The metrics are called by the static initializer of the DAO, therefore
+     * a failed registration doesn't throw an exception: the metrics are measured but not published.
+     *
+     * @param descriptor the descriptor of the method
+     * @return the metrics
+     */
+    public static ProcedureMetrics register(ProcedureDescriptor descriptor) {
+        ProcedureMetrics metrics = new ProcedureMetrics(descriptor);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            try {
+                server.registerMBean(metrics, getObjectName(descriptor, false));
+            } catch (InstanceAlreadyExistsException e) {
+                ObjectName name = getObjectName(descriptor, true);
+
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            // e.g. a concurrent registration of the same name - an exception would break the DAO class permanently
+        }
+
+        return metrics;
+    }
+
+    static ObjectName getObjectName(ProcedureDescriptor descriptor, boolean withId) throws JMException {
+        String name = DOMAIN + ":type=ProcedureMetrics" +
+                ",dao=" + descriptor.getDaoName() +
+                ",method=" + descriptor.getMethodName();
+        return new ObjectName(withId ? name + ",id=" + descriptor.getId() : name);
+    }
+
+    /**
+     * Is called before the stored procedure call.
+     *
+     * @return the start time
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Is called after the stored procedure call of a method which returns void or a primitive value.
+     *
+     * @param start the start time returned by {@link #start()}
+     */
+    public void success(long start) {
+        stop(start);
+    }
+
+    /**
+     * Is called after the stored procedure call.
+     *
+     * @param start  the start time returned by {@link #start()}
+     * @param result the result of the method, used to count the rows
+     */
+    public void success(long start, Object result) {
+        stop(start);
+        rows.add(countRows(result));
+    }
+
+    /**
+     * Is called if the stored procedure call threw an exception or an error.
+     *
+     * @param start the start time returned by {@link #start()}
+     */
+    public void failure(long start) {
+        stop(start);
+        errors.increment();
+    }
+
+    private void stop(long start) {
+        latencies.record(System.nanoTime() - start);
+        inFlight.decrement();
+    }
+
+    /**
+     * Counts the rows of the result of a DAO method: the size of a list or an array, 1 for an entity and 0 for null
+     * or a stream.
+     *
+     * @param result the result
+     * @return the number of rows
+     */
+    public static long countRows(Object result) {
+        if (result == null) {
+            return 0;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Object[]) {
+            return ((Object[]) result).length;
+        } else if (result instanceof int[]) {
+            return ((int[]) result).length;
+        } else if (result instanceof long[]) {
+            return ((long[]) result).length;
+        } else if (result instanceof double[]) {
+            return ((double[]) result).length;
+        } else if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else if (result instanceof AutoCloseable) {
+            // a stream is consumed after the call, therefore its rows aren't known
+            return 0;
+        }
+
+        return 1;
+    }
+
+    @Override
+    public String getDaoName() {
+        return descriptor.getDaoName();
+    }
+
+    @Override
+    public String getMethodName() {
+        return descriptor.getMethodName();
+    }
+
+    @Override
+    public String getProcedureName() {
+        return descriptor.getProcedureName();
+    }
+
+    @Override
+    public long getCalls() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public long getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.getPercentile(50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return latencies.getPercentile(90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.getPercentile(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latencies.getPercentile(99.9);
+    }
+
+    @Override
+    public long getPercentileNanos(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+}
@@ -0,0 +1,69 @@
+package at.rseiler.spbee.core.metrics;
+
+/**
+ * The JMX view of the {@link ProcedureMetrics} of a DAO method. The latencies are in nanoseconds.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public interface ProcedureMetricsMXBean {
+
+    String getDaoName();
+
+    String getMethodName();
+
+    String getProcedureName();
+
+    /**
+     * The number of completed calls, including the failed calls.
+     *
+     * @return the number of calls
+     */
+    long getCalls();
+
+    /**
+     * The number of calls which threw an exception.
+     *
+     * @return the number of errors
+     */
+    long getErrors();
+
+    /**
+     * The number of returned rows: the size of a list or an array, 1 for an entity and 0 for a stream.
+     *
+     * @return the number of rows
+     */
+    long getRows();
+
+    /**
+     * The number of calls which are running at the moment.
+     *
+     * @return the number of running calls
+     */
+    long getInFlight();
+
+    long getMeanNanos();
+
+    long getMaxNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    /**
+     * Returns the latency at the percentile.
+     *
+     * @param percentile the percentile, e.g. 99.9
+     * @return the latency in nanoseconds
+     */
+    long getPercentileNanos(double percentile);
+
+    /**
+     * Clears the counters and the latencies, except the number of running calls.
+     */
+    void reset();
+
+}
@@ -18,6 +18,7 @@ public class DtoClass implements Serializable {
     private final String superQualifiedClassName;
     private final boolean anInterface;
     private final boolean hasDataSourceConstructor;
+    private final boolean asyncDao;
     private final List<StoredProcedureMethod> storedProcedureMethods = new LinkedList<>();
 
     /**
@@ -28,9 +29,22 @@ public class DtoClass implements Serializable {
      * @param hasDataSourceConstructor specifies if the class has an constructor with a DataSource as parameter.
      */
     public DtoClass(String superQualifiedClassName, boolean anInterface, boolean hasDataSourceConstructor) {
+        this(superQualifiedClassName, anInterface, hasDataSourceConstructor, false);
+    }
+
+    /**
+     * Constructs a new DtoClass.
+     *
+     * @param superQualifiedClassName  the qualified class name of the interface or the abstract class.
+     * @param anInterface              specifies if it's an interface. Otherwise it's handled as an abstract class.
+     * @param hasDataSourceConstructor specifies if the class has an constructor with a DataSource as parameter.
+     * @param asyncDao                 specifies if the asynchronous companion *AsyncDao should be generated.
+     */
+    public DtoClass(String superQualifiedClassName, boolean anInterface, boolean hasDataSourceConstructor, boolean asyncDao) {
         this.superQualifiedClassName = superQualifiedClassName;
         this.anInterface = anInterface;
         this.hasDataSourceConstructor = hasDataSourceConstructor;
+        this.asyncDao = asyncDao;
     }
 
     /**
@@ -96,6 +110,51 @@ public class DtoClass implements Serializable {
         return hasDataSourceConstructor;
     }
 
+    /**
+     * Returns true if the asynchronous companion *AsyncDao should be generated.
+     *
+     * @return true if the asynchronous companion should be generated
+     */
+    public boolean hasAsyncDao() {
+        return asyncDao;
+    }
+
+    /**
+     * Returns true if one of the stored procedure methods returns a CompletableFuture.
+     *
+     * @return true if an Executor is needed
+     */
+    public boolean hasAsyncMethods() {
+        return storedProcedureMethods.stream().anyMatch(StoredProcedureMethod::isAsync);
+    }
+
+    /**
+     * Returns true if one of the stored procedure methods executes its chunks concurrently.
+     *
+     * @return true if an Executor is needed
+     */
+    public boolean hasChunkedMethods() {
+        return storedProcedureMethods.stream().anyMatch(storedProcedureMethod -> storedProcedureMethod.getChunked().isPresent());
+    }
+
+    /**
+     * Returns true if the results of one of the stored procedure methods are cached.
+     *
+     * @return true if the DTO class implements {@link at.rseiler.spbee.core.cache.CachedDao}
+     */
+    public boolean hasCachedMethods() {
+        return storedProcedureMethods.stream().anyMatch(StoredProcedureMethod::isCached);
+    }
+
+    /**
+     * Returns the qualified class name of the asynchronous companion interface.
+     *
+     * @return the qualified class name
+     */
+    public String getQualifiedAsyncDaoClassName() {
+        return StringUtil.getQualifiedAsyncDaoClassName(superQualifiedClassName);
+    }
+
     /**
      * Returns all stored procedure methods from the DTO class.
      *
@@ -111,6 +170,7 @@ public class DtoClass implements Serializable {
                 "superQualifiedClassName='" + superQualifiedClassName + '\'' +
                 ", anInterface=" + anInterface +
                 ", hasDataSourceConstructor=" + hasDataSourceConstructor +
+                ", asyncDao=" + asyncDao +
                 ", storedProcedureMethods=" + storedProcedureMethods +
                 '}';
     }
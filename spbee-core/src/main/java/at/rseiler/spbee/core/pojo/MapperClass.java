@@ -46,6 +46,15 @@ public class MapperClass implements Serializable {
         return variables;
     }
 
+    /**
+     * Checks if the columns are mapped by label instead of by position.
+     *
+     * @return true if at least one variable has a column label
+     */
+    public boolean isLabelBased() {
+        return variables.stream().anyMatch(variable -> variable.getColumn().isPresent());
+    }
+
     /**
      * Returns the qualified class name of the mapper class.
      *
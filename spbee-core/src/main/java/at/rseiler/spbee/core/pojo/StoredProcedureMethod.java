@@ -1,9 +1,20 @@
 package at.rseiler.spbee.core.pojo;
 
+import at.rseiler.spbee.core.annotation.Batch;
+import at.rseiler.spbee.core.annotation.Cached;
+import at.rseiler.spbee.core.annotation.Chunked;
+import at.rseiler.spbee.core.annotation.Evict;
+import at.rseiler.spbee.core.annotation.Out;
+import at.rseiler.spbee.core.annotation.FetchSize;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
+import at.rseiler.spbee.core.annotation.MaxRows;
+import at.rseiler.spbee.core.annotation.MicroBatch;
+import at.rseiler.spbee.core.annotation.QueryTimeout;
 import at.rseiler.spbee.core.annotation.ReturnNull;
 import at.rseiler.spbee.core.annotation.RowMapper;
+import at.rseiler.spbee.core.annotation.SingleFlight;
 import at.rseiler.spbee.core.annotation.StoredProcedure;
+import at.rseiler.spbee.core.pojo.annotation.EvictData;
 import at.rseiler.spbee.core.pojo.annotation.MappingConstructorData;
 import at.rseiler.spbee.core.pojo.annotation.RowMapperData;
 import at.rseiler.spbee.core.pojo.annotation.StoredProcedureData;
@@ -15,9 +26,11 @@ import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.ExecutableElement;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Optional;
 
 /**
  * Represents a stored procedure method.
@@ -36,6 +49,28 @@ public class StoredProcedureMethod implements Serializable {
     private StoredProcedureData storedProcedure;
     private RowMapperData rowMapper;
     private MappingConstructorData mappingConstructor;
+    private Variable rowConsumer;
+    private boolean async;
+    private int fetchSize;
+    private int maxRows;
+    private int queryTimeout;
+    private Variable batch;
+    private int batchSize;
+    private Variable chunked;
+    private int chunkSize;
+    private int chunkParallelism;
+    private boolean chunkOrdered;
+    private String out;
+    private long cacheTtl;
+    private int cacheMaxEntries;
+    private final List<String> cacheTags = new ArrayList<>();
+    private Variable cacheKey;
+    private final List<EvictData> evicts = new ArrayList<>();
+    private boolean singleFlight;
+    private String microBatch;
+    private String microBatchKey;
+    private long microBatchWindow;
+    private int microBatchMaxSize;
     private final List<Variable> arguments = new LinkedList<>();
 
     private StoredProcedureMethod() {
@@ -80,6 +115,8 @@ public class StoredProcedureMethod implements Serializable {
             sb.append("With").append(name);
         }
 
+        appendSettings(sb);
+
         String spClassName = StringUtil.transformToJavaClassName(sb.toString());
         String spPackage = StringUtil.getPackage(qualifiedDtoClassName);
         return StringUtil.getQualifiedStoredProcedureClassName(spPackage, spClassName);
@@ -113,9 +150,39 @@ public class StoredProcedureMethod implements Serializable {
             sb.append("With").append(name);
         }
 
+        appendSettings(sb);
+
         return sb.toString();
     }
 
+    /**
+     * The statement settings, the batch size, the primitive column type and the OUT parameter are part of the class
+     * name, because they are configured per stored procedure class.
+     */
+    private void appendSettings(StringBuilder sb) {
+        if (out != null) {
+            sb.append("WithOut").append(StringUtil.transformToJavaClassName(out));
+        }
+
+        getPrimitiveColumnType().ifPresent(type -> sb.append("With").append(StringUtil.firstCharToUpperCase(type)).append("Column"));
+
+        if (fetchSize > 0) {
+            sb.append("WithFetchSize").append(fetchSize);
+        }
+
+        if (maxRows > 0) {
+            sb.append("WithMaxRows").append(maxRows);
+        }
+
+        if (queryTimeout > 0) {
+            sb.append("WithQueryTimeout").append(queryTimeout);
+        }
+
+        if (batch != null) {
+            sb.append("WithBatch").append(batchSize);
+        }
+    }
+
     /**
      * The @StoredProcedure annotation.
      *
@@ -161,6 +228,261 @@ public class StoredProcedureMethod implements Serializable {
         return arguments;
     }
 
+    /**
+     * Returns true if the DAO method returns a CompletableFuture. The return type info holds the type of the
+     * CompletableFuture.
+     *
+     * @return true if the method is executed asynchronously
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * The fetch size of the statement.
+     *
+     * @return the fetch size or 0 if the driver's default is used
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * The maximum number of rows of the statement.
+     *
+     * @return the maximum number of rows or 0 if there is no limit
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * The query timeout of the statement in seconds.
+     *
+     * @return the timeout or 0 if there is no timeout
+     */
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * The List parameter of a {@link Batch} method. The arguments of a batch method are the fields of the list
+     * elements.
+     *
+     * @return the List parameter or empty if it isn't a batch method
+     */
+    public Optional<Variable> getBatch() {
+        return Optional.ofNullable(batch);
+    }
+
+    /**
+     * The number of calls which are executed in one batch.
+     *
+     * @return the batch size or 0 if it isn't a batch method
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The array parameter of a {@link Chunked} method which is split into chunks.
+     *
+     * @return the array parameter or empty if it isn't a chunked method
+     */
+    public Optional<Variable> getChunked() {
+        return Optional.ofNullable(chunked);
+    }
+
+    /**
+     * The maximum number of array elements per stored procedure call.
+     *
+     * @return the chunk size or 0 if it isn't a chunked method
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * The maximum number of chunks which are executed at the same time.
+     *
+     * @return the parallelism or 0 if it isn't a chunked method
+     */
+    public int getChunkParallelism() {
+        return chunkParallelism;
+    }
+
+    /**
+     * Returns true if the results of the chunks are merged in the order of the chunks.
+     *
+     * @return true if the order of the chunks is kept
+     */
+    public boolean isChunkOrdered() {
+        return chunkOrdered;
+    }
+
+    /**
+     * The name of the OUT parameter from which the return value is read.
+     *
+     * @return the name of the OUT parameter or empty if the return value is read from a result set
+     */
+    public Optional<String> getOut() {
+        return Optional.ofNullable(out);
+    }
+
+    /**
+     * Returns true if the results of the method are cached.
+     *
+     * @return true if the method is annotated with {@link Cached}
+     */
+    public boolean isCached() {
+        return cacheMaxEntries > 0;
+    }
+
+    /**
+     * The time to live of the cache entries in milliseconds.
+     *
+     * @return the time to live or 0 if the entries don't expire
+     */
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * The maximum number of cache entries.
+     *
+     * @return the maximum number of entries or 0 if the method isn't cached
+     */
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    /**
+     * The tags of the cache.
+     *
+     * @return the tags
+     */
+    public List<String> getCacheTags() {
+        return cacheTags;
+    }
+
+    /**
+     * The {@link at.rseiler.spbee.core.annotation.Key} property of the entity if the rows of the cached method are
+     * cached per key instead of per call.
+     *
+     * @return the key property or empty if the results are cached per call
+     */
+    public Optional<Variable> getCacheKey() {
+        return Optional.ofNullable(cacheKey);
+    }
+
+    /**
+     * Returns true if the method invalidates caches of the DAO.
+     *
+     * @return true if the method is annotated with {@link Evict}
+     */
+    public boolean isEvicting() {
+        return !evicts.isEmpty();
+    }
+
+    /**
+     * The cache invalidations of the method.
+     *
+     * @return the {@link Evict} annotations
+     */
+    public List<EvictData> getEvicts() {
+        return evicts;
+    }
+
+    /**
+     * Returns true if concurrent calls with equal arguments share one execution.
+     *
+     * @return true if the method is annotated with {@link SingleFlight}
+     */
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * The name of the multi-key method which loads the concurrent calls of this single-key method.
+     *
+     * @return the name of the multi-key method or empty if the method isn't annotated with {@link MicroBatch}
+     */
+    public Optional<String> getMicroBatch() {
+        return Optional.ofNullable(microBatch);
+    }
+
+    /**
+     * The property of the rows of the multi-key method which is equal to the argument.
+     *
+     * @return the property name
+     */
+    public String getMicroBatchKey() {
+        return microBatchKey;
+    }
+
+    /**
+     * How long the first call of a batch waits for more calls.
+     *
+     * @return the window in nanoseconds
+     */
+    public long getMicroBatchWindow() {
+        return microBatchWindow;
+    }
+
+    /**
+     * The maximum number of keys of a batch.
+     *
+     * @return the maximum number of keys
+     */
+    public int getMicroBatchMaxSize() {
+        return microBatchMaxSize;
+    }
+
+    /**
+     * The Consumer parameter which receives the rows instead of returning them.
+     *
+     * @return the Consumer parameter or empty if the rows are returned
+     */
+    public Optional<Variable> getRowConsumer() {
+        return Optional.ofNullable(rowConsumer);
+    }
+
+    /**
+     * The type of the rows: the generic type of the Consumer parameter or the generic type of the return type or the
+     * return type.
+     *
+     * @return the type of the rows
+     */
+    public String getResultType() {
+        if (rowConsumer != null) {
+            return rowConsumer.getTypeInfo().getGenericTypeOrType();
+        }
+
+        return returnTypeInfo.getGenericType().orElse(returnTypeInfo.getType());
+    }
+
+    /**
+     * The primitive type of the single column if the method returns a primitive array or a primitive stream: int for
+     * int[] and IntStream, long for long[] and LongStream, double for double[] and DoubleStream.
+     *
+     * @return the primitive type or empty if the rows are mapped
+     */
+    public Optional<String> getPrimitiveColumnType() {
+        switch (returnTypeInfo.getType()) {
+            case "int[]":
+            case "java.util.stream.IntStream":
+                return Optional.of("int");
+            case "long[]":
+            case "java.util.stream.LongStream":
+                return Optional.of("long");
+            case "double[]":
+            case "java.util.stream.DoubleStream":
+                return Optional.of("double");
+            default:
+                return Optional.empty();
+        }
+    }
+
     /**
      * Returns the qualified class name of the RowMapper.
      *
@@ -172,8 +494,7 @@ public class StoredProcedureMethod implements Serializable {
         }
 
         String name = mappingConstructor != null ? mappingConstructor.getName() : "Default";
-        String returnType = returnTypeInfo.getGenericType().orElse(returnTypeInfo.getType());
-        return StringUtil.getQualifiedMapperClassName(returnType, name);
+        return StringUtil.getQualifiedMapperClassName(getResultType(), name);
     }
 
     /**
@@ -197,6 +518,28 @@ public class StoredProcedureMethod implements Serializable {
                 ", methodName='" + methodName + '\'' +
                 ", returnTypeInfo=" + returnTypeInfo +
                 ", arguments=" + arguments +
+                ", rowConsumer=" + rowConsumer +
+                ", async=" + async +
+                ", fetchSize=" + fetchSize +
+                ", maxRows=" + maxRows +
+                ", queryTimeout=" + queryTimeout +
+                ", batch=" + batch +
+                ", batchSize=" + batchSize +
+                ", chunked=" + chunked +
+                ", chunkSize=" + chunkSize +
+                ", chunkParallelism=" + chunkParallelism +
+                ", chunkOrdered=" + chunkOrdered +
+                ", out='" + out + '\'' +
+                ", cacheTtl=" + cacheTtl +
+                ", cacheMaxEntries=" + cacheMaxEntries +
+                ", cacheTags=" + cacheTags +
+                ", cacheKey=" + cacheKey +
+                ", evicts=" + evicts +
+                ", singleFlight=" + singleFlight +
+                ", microBatch='" + microBatch + '\'' +
+                ", microBatchKey='" + microBatchKey + '\'' +
+                ", microBatchWindow=" + microBatchWindow +
+                ", microBatchMaxSize=" + microBatchMaxSize +
                 '}';
     }
 
@@ -268,6 +611,87 @@ public class StoredProcedureMethod implements Serializable {
             return this;
         }
 
+        public Builder rowConsumer(Variable rowConsumer) {
+            storedProcedureMethod.rowConsumer = rowConsumer;
+            return this;
+        }
+
+        public Builder async(boolean async) {
+            storedProcedureMethod.async = async;
+            return this;
+        }
+
+        public Builder fetchSize(FetchSize fetchSize) {
+            storedProcedureMethod.fetchSize = fetchSize != null ? fetchSize.value() : 0;
+            return this;
+        }
+
+        public Builder maxRows(MaxRows maxRows) {
+            storedProcedureMethod.maxRows = maxRows != null ? maxRows.value() : 0;
+            return this;
+        }
+
+        public Builder queryTimeout(QueryTimeout queryTimeout) {
+            storedProcedureMethod.queryTimeout = queryTimeout != null ? queryTimeout.value() : 0;
+            return this;
+        }
+
+        public Builder batch(Variable batch, Batch batchAnnotation) {
+            storedProcedureMethod.batch = batch;
+            storedProcedureMethod.batchSize = batchAnnotation.value();
+            return this;
+        }
+
+        public Builder chunked(Variable chunked, Chunked chunkedAnnotation) {
+            storedProcedureMethod.chunked = chunked;
+            storedProcedureMethod.chunkSize = chunkedAnnotation.value();
+            storedProcedureMethod.chunkParallelism = chunkedAnnotation.parallelism();
+            storedProcedureMethod.chunkOrdered = chunkedAnnotation.ordered();
+            return this;
+        }
+
+        public Builder out(Out out) {
+            storedProcedureMethod.out = out != null ? out.value() : null;
+            return this;
+        }
+
+        public Builder cached(Cached cached) {
+            storedProcedureMethod.cacheTtl = cached != null ? cached.unit().toMillis(cached.ttl()) : 0;
+            storedProcedureMethod.cacheMaxEntries = cached != null ? cached.maxEntries() : 0;
+
+            if (cached != null) {
+                storedProcedureMethod.cacheTags.addAll(Arrays.asList(cached.tags()));
+            }
+
+            return this;
+        }
+
+        public Builder singleFlight(SingleFlight singleFlight) {
+            storedProcedureMethod.singleFlight = singleFlight != null;
+            return this;
+        }
+
+        public Builder microBatch(MicroBatch microBatch) {
+            if (microBatch != null) {
+                storedProcedureMethod.microBatch = microBatch.value();
+                storedProcedureMethod.microBatchKey = microBatch.key();
+                storedProcedureMethod.microBatchWindow = microBatch.unit().toNanos(microBatch.window());
+                storedProcedureMethod.microBatchMaxSize = microBatch.maxSize();
+            }
+
+            return this;
+        }
+
+        public Builder cacheKey(Variable cacheKey) {
+            storedProcedureMethod.cacheKey = cacheKey;
+            return this;
+        }
+
+        public Builder evict(Evict evict) {
+            storedProcedureMethod.evicts.add(new EvictData(evict));
+            return this;
+        }
+
         public StoredProcedureMethod build() {
             return storedProcedureMethod;
         }
@@ -3,6 +3,7 @@ package at.rseiler.spbee.core.pojo;
 import at.rseiler.spbee.core.util.StringUtil;
 
 import java.io.Serializable;
+import java.util.Optional;
 
 /**
  * Holds the information of a variable or parameter.
@@ -15,6 +16,7 @@ public class Variable implements Serializable {
 
     private final String name;
     private final TypeInfo typeInfo;
+    private final String column;
 
     /**
      * Constructs a new Variable.
@@ -23,8 +25,20 @@ public class Variable implements Serializable {
      * @param qualifiedClassName the qualified class name of the variable
      */
     public Variable(String name, String qualifiedClassName) {
+        this(name, qualifiedClassName, null);
+    }
+
+    /**
+     * Constructs a new Variable which is mapped by the column label.
+     *
+     * @param name               the name of the variable
+     * @param qualifiedClassName the qualified class name of the variable
+     * @param column             (nullable) the column label
+     */
+    public Variable(String name, String qualifiedClassName, String column) {
         this.name = name;
         this.typeInfo = StringUtil.getTypeInfo(qualifiedClassName);
+        this.column = column;
     }
 
     /**
@@ -45,11 +59,21 @@ public class Variable implements Serializable {
         return typeInfo;
     }
 
+    /**
+     * The column label of the variable, if it's mapped by label.
+     *
+     * @return the column label
+     */
+    public Optional<String> getColumn() {
+        return Optional.ofNullable(column);
+    }
+
     @Override
     public String toString() {
         return "Variable{" +
                 "name='" + name + '\'' +
                 ", typeInfo=" + typeInfo +
+                ", column='" + column + '\'' +
                 '}';
     }
 }
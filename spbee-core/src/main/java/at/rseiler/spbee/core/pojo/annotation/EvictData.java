@@ -0,0 +1,50 @@
+package at.rseiler.spbee.core.pojo.annotation;
+
+import at.rseiler.spbee.core.annotation.Evict;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the data of a {@link at.rseiler.spbee.core.annotation.Evict} annotation.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public class EvictData implements Serializable {
+
+    private static final long serialVersionUID = 2837390612482317730L;
+
+    private final List<String> methodNames;
+    private final List<String> key;
+    private final List<String> tags;
+
+    public EvictData(Evict evict) {
+        methodNames = new ArrayList<>(Arrays.asList(evict.value()));
+        key = new ArrayList<>(Arrays.asList(evict.key()));
+        tags = new ArrayList<>(Arrays.asList(evict.tags()));
+    }
+
+    public List<String> getMethodNames() {
+        return methodNames;
+    }
+
+    public List<String> getKey() {
+        return key;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return "EvictData{" +
+                "methodNames=" + methodNames +
+                ", key=" + key +
+                ", tags=" + tags +
+                '}';
+    }
+
+}
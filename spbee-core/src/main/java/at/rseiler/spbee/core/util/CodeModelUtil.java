@@ -1,9 +1,7 @@
 package at.rseiler.spbee.core.util;
 
 import at.rseiler.spbee.core.SPBeeAnnotationProcessor;
-import com.sun.codemodel.JClass;
-import com.sun.codemodel.JCodeModel;
-import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.*;
 
 import javax.annotation.Generated;
 import java.text.SimpleDateFormat;
@@ -11,6 +9,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Some util methods for the CodeModel library.
@@ -67,4 +67,83 @@ public final class CodeModelUtil {
         return model.ref(Optional.class).narrow(model.ref(genericClassType));
     }
 
+    /**
+     * Defines a generic CompletableFuture like CompletableFuture&lt;T&gt;.
+     *
+     * @param model       the model which will be used to define the CompletableFuture
+     * @param returnClass (nullable) the generic type of the CompletableFuture - if null then Void is used
+     * @return the generic CompletableFuture JClass
+     */
+    public static JClass getGenericCompletableFuture(JCodeModel model, JClass returnClass) {
+        return model.ref(CompletableFuture.class).narrow(returnClass != null ? returnClass : model.ref(Void.class));
+    }
+
+    /**
+     * Generates a Supplier which returns the result of the invocation.
+     * <p>
+     * Generates:
+     * <pre>
+     * new Supplier&lt;*&gt;() {
+     *     {@literal @}Override
+     *     public * get() {
+     *         return {INVOCATION};
+     *     }
+     * }
+     * </pre>
+     *
+     * @param model       the model which will be used to define the anonymous class
+     * @param returnClass the type of the return value
+     * @param invocation  the invocation which will be executed by the Supplier
+     * @return the instantiation of the Supplier
+     */
+    public static JInvocation supplier(JCodeModel model, JClass returnClass, JInvocation invocation) {
+        JDefinedClass supplier = model.anonymousClass(model.ref(Supplier.class).narrow(returnClass));
+        JMethod get = supplier.method(JMod.PUBLIC, returnClass, "get");
+        get.annotate(Override.class);
+        get.body()._return(invocation);
+        return JExpr._new(supplier);
+    }
+
+    /**
+     * Generates the asynchronous execution of the invocation.
+     * <p>
+     * Generates:
+     * <pre>
+     * CompletableFuture.supplyAsync(new Supplier&lt;*&gt;() {
+     *     {@literal @}Override
+     *     public * get() {
+     *         return {INVOCATION};
+     *     }
+     * }, {EXECUTOR})
+     * </pre>
+     * If there is no return value:
+     * <pre>
+     * CompletableFuture.runAsync(new Runnable() {
+     *     {@literal @}Override
+     *     public void run() {
+     *         {INVOCATION};
+     *     }
+     * }, {EXECUTOR})
+     * </pre>
+     *
+     * @param model       the model which will be used to define the anonymous class
+     * @param returnClass (nullable) the type of the return value - if null then there is no return value
+     * @param invocation  the invocation which will be executed asynchronously
+     * @param executor    the executor expression
+     * @return the invocation of CompletableFuture
+     */
+    public static JInvocation supplyAsync(JCodeModel model, JClass returnClass, JInvocation invocation, JExpression executor) {
+        JClass completableFuture = model.ref(CompletableFuture.class);
+
+        if (returnClass == null) {
+            JDefinedClass runnable = model.anonymousClass(Runnable.class);
+            JMethod run = runnable.method(JMod.PUBLIC, model.VOID, "run");
+            run.annotate(Override.class);
+            run.body().add(invocation);
+            return completableFuture.staticInvoke("runAsync").arg(JExpr._new(runnable)).arg(executor);
+        }
+
+        return completableFuture.staticInvoke("supplyAsync").arg(supplier(model, returnClass, invocation)).arg(executor);
+    }
+
 }
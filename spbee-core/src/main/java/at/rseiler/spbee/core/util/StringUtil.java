@@ -22,6 +22,16 @@ public final class StringUtil {
         return Character.toLowerCase(value.charAt(0)) + value.substring(1);
     }
 
+    /**
+     * Changes the first char to upper case. No other letters are changed.
+     *
+     * @param value the String to be changed
+     * @return the String with the first char as upper case
+     */
+    public static String firstCharToUpperCase(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
     /**
      * Transforms the name to a Java class name.
      * Removes all underline chars (_) and change each following char to upper case.
@@ -121,4 +131,30 @@ public final class StringUtil {
         return getPackage(type) + "." + getSimpleClassName(type) + "Impl";
     }
 
+    /**
+     * Generates the full qualified class name for the asynchronous companion of a DAO.
+     * E.g.: UserDao will be transformed to UserAsyncDao and User to UserAsync
+     *
+     * @param type the type of the DAO
+     * @return the full qualified class name of the asynchronous DAO
+     */
+    public static String getQualifiedAsyncDaoClassName(String type) {
+        if (type.endsWith("Dao")) {
+            return type.substring(0, type.length() - 3) + "AsyncDao";
+        }
+
+        return type + "Async";
+    }
+
+    /**
+     * Generates the name of the getter of a field: is* for boolean fields, otherwise get*.
+     *
+     * @param fieldName the name of the field
+     * @param type      the type of the field
+     * @return the name of the getter
+     */
+    public static String getGetterName(String fieldName, String type) {
+        return ("boolean".equals(type) ? "is" : "get") + firstCharToUpperCase(fieldName);
+    }
+
 }
@@ -0,0 +1,261 @@
+package at.rseiler.spbee.core.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProcedureCacheTest {
+
+    @Test
+    public void testGetCachesTheValue() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getName", 0, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = cache.get(1, () -> "name" + loads.incrementAndGet());
+
+        assertSame(value, cache.get(1, () -> "name" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testCachedListIsUnmodifiable() {
+        ProcedureCache<List<String>> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<String> loaded = new ArrayList<>(Arrays.asList("a", "b"));
+
+        List<String> first = cache.get(ProcedureCache.key(), () -> loaded);
+        List<String> second = cache.get(ProcedureCache.key(), () -> loaded);
+
+        assertSame(first, second);
+        assertEquals(loaded, first);
+
+        try {
+            first.add("c");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList("a", "b"), second);
+        }
+    }
+
+    @Test
+    public void testValueLoadedDuringInvalidationIsNotCached() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getName", 0, 10);
+
+        String value = cache.get(1, () -> {
+            cache.invalidate(1);
+            return "old";
+        });
+
+        assertEquals("old", value);
+        assertEquals(0, cache.size());
+        assertEquals("new", cache.get(1, () -> "new"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testInvalidationIsNotUndoneByConcurrentLoads() throws Exception {
+        ProcedureCache<Integer> cache = new ProcedureCache<>("getVersion", 0, 10);
+        AtomicInteger version = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+
+            for (int i = 0; i < 3; i++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        cache.get(1, version::get);
+                    }
+                }));
+            }
+
+            for (int i = 1; i <= 10_000; i++) {
+                // a write: the stored procedure changes the data, then the cache is invalidated
+                version.set(i);
+                cache.invalidate(1);
+
+                int cached = cache.get(1, version::get);
+                assertTrue("stale version " + cached + " after the invalidation of version " + i, cached == i);
+            }
+
+            running.set(false);
+
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testGetAllLoadsOnlyTheMissingKeys() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<List<Integer>> loads = new ArrayList<>();
+
+        assertEquals(Arrays.asList("user3", "user1"), cache.getAll(Arrays.asList(3, 1), loader(loads), ProcedureCacheTest::id));
+        assertEquals(Arrays.asList("user1", "user2", "user3"), cache.getAll(Arrays.asList(1, 2, 3), loader(loads), ProcedureCacheTest::id));
+
+        assertEquals(Arrays.asList(Arrays.asList(3, 1), Collections.singletonList(2)), loads);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testGetAllDoesntLoadIfAllKeysAreCached() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<List<Integer>> loads = new ArrayList<>();
+        cache.getAll(Arrays.asList(1, 2), loader(loads), ProcedureCacheTest::id);
+
+        assertEquals(Arrays.asList("user2", "user1"), cache.getAll(Arrays.asList(2, 1), loader(loads), ProcedureCacheTest::id));
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void testGetAllReturnsDuplicateKeysOnce() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<List<Integer>> loads = new ArrayList<>();
+        cache.getAll(Collections.singletonList(1), loader(loads), ProcedureCacheTest::id);
+
+        assertEquals(Arrays.asList("user2", "user1"), cache.getAll(Arrays.asList(2, 1, 2, 1), loader(loads), ProcedureCacheTest::id));
+
+        // the duplicate missing key is loaded once and the duplicate cached key counts as one hit
+        assertEquals(Collections.singletonList(2), loads.get(1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testGetAllSkipsKeysWithoutRow() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<List<Integer>> loads = new ArrayList<>();
+        Function<List<Integer>, List<String>> loader = keys -> {
+            loads.add(keys);
+            return Collections.singletonList("user2");
+        };
+
+        assertEquals(Collections.singletonList("user2"), cache.getAll(Arrays.asList(1, 2, 3), loader, ProcedureCacheTest::id));
+        assertEquals(1, cache.size());
+
+        // a key without a row isn't cached, so it's loaded again
+        assertEquals(Collections.singletonList("user2"), cache.getAll(Arrays.asList(1, 2), loader, ProcedureCacheTest::id));
+        assertEquals(Collections.singletonList(1), loads.get(1));
+    }
+
+    @Test
+    public void testGetAllDoesntCacheRowsLoadedDuringInvalidation() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 10);
+        List<List<Integer>> loads = new ArrayList<>();
+        cache.getAll(Collections.singletonList(1), loader(loads), ProcedureCacheTest::id);
+
+        List<String> rows = cache.getAll(Arrays.asList(1, 2), keys -> {
+            // e.g. a concurrent write of user 1, the cached row of user 1 was returned already
+            cache.invalidate(1);
+            return loader(loads).apply(keys);
+        }, ProcedureCacheTest::id);
+
+        assertEquals(Arrays.asList("user1", "user2"), rows);
+        assertEquals(0, cache.size());
+        assertEquals(Arrays.asList("user1", "user2"), cache.getAll(Arrays.asList(1, 2), loader(loads), ProcedureCacheTest::id));
+        assertEquals(Arrays.asList(1, 2), loads.get(loads.size() - 1));
+    }
+
+    @Test
+    public void testGetAllIsNotUndoneByConcurrentInvalidations() throws Exception {
+        ProcedureCache<String> cache = new ProcedureCache<>("getNames", 0, 100);
+        AtomicInteger version = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Function<List<Integer>, List<String>> loader = keys -> {
+            List<String> rows = new ArrayList<>();
+            int current = version.get();
+
+            for (Integer key : keys) {
+                rows.add(key + ":" + current);
+            }
+
+            return rows;
+        };
+        Function<String, Integer> id = row -> Integer.valueOf(row.substring(0, row.indexOf(':')));
+
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+
+            for (int i = 0; i < 2; i++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        cache.getAll(Arrays.asList(1, 2, 3), loader, id);
+                    }
+                }));
+            }
+
+            for (int i = 1; i <= 10_000; i++) {
+                version.set(i);
+                cache.invalidateAll();
+
+                for (String row : cache.getAll(Arrays.asList(1, 2, 3), loader, id)) {
+                    assertTrue("stale row " + row + " after the invalidation of version " + i, row.endsWith(":" + i));
+                }
+            }
+
+            running.set(false);
+
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testOldestEntriesAreEvicted() {
+        ProcedureCache<String> cache = new ProcedureCache<>("getName", 0, 2);
+
+        cache.get(1, () -> "a");
+        cache.get(2, () -> "b");
+        cache.get(3, () -> "c");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("a2", cache.get(1, () -> "a2"));
+    }
+
+    private static Function<List<Integer>, List<String>> loader(List<List<Integer>> loads) {
+        return keys -> {
+            loads.add(new ArrayList<>(keys));
+            List<String> rows = new ArrayList<>();
+
+            for (Integer key : keys) {
+                rows.add("user" + key);
+            }
+
+            return rows;
+        };
+    }
+
+    private static Integer id(String row) {
+        return Integer.valueOf(row.substring("user".length()));
+    }
+
+}
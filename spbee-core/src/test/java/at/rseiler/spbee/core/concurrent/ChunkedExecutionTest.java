@@ -0,0 +1,179 @@
+package at.rseiler.spbee.core.concurrent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedExecutionTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSingleChunkIsExecutedWithTheArray() {
+        Integer[] ids = {1, 2, 3};
+        List<Integer[]> chunks = Collections.synchronizedList(new ArrayList<>());
+
+        List<Integer> results = ChunkedExecution.execute(ids, 3, 4, true, executor, chunk -> {
+            chunks.add(chunk);
+            return Arrays.asList(chunk);
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3), results);
+        assertEquals(1, chunks.size());
+        assertSame(ids, chunks.get(0));
+    }
+
+    @Test
+    public void testPrimitiveArrayIsSplitIntoChunks() {
+        List<String> chunks = new ArrayList<>();
+
+        List<Integer> results = ChunkedExecution.execute(new int[]{1, 2, 3, 4, 5, 6, 7}, 3, 1, true, executor, chunk -> {
+            chunks.add(Arrays.toString(chunk));
+            return IntStream.of(chunk).boxed().collect(Collectors.toList());
+        });
+
+        assertEquals(Arrays.asList("[1, 2, 3]", "[4, 5, 6]", "[7]"), chunks);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), results);
+    }
+
+    @Test
+    public void testOrderedResultsAreMergedInChunkOrder() {
+        // the first chunk completes last
+        CountDownLatch laterChunks = new CountDownLatch(3);
+
+        List<Integer> results = ChunkedExecution.execute(new Integer[]{1, 2, 3, 4, 5, 6, 7, 8}, 2, 4, true, executor, chunk -> {
+            if (chunk[0] == 1) {
+                await(laterChunks);
+            } else {
+                laterChunks.countDown();
+            }
+
+            return Arrays.asList(chunk);
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), results);
+    }
+
+    @Test
+    public void testUnorderedResultsContainAllChunks() {
+        List<Integer> results = ChunkedExecution.execute(new Integer[]{1, 2, 3, 4, 5, 6, 7, 8}, 3, 4, false, executor, Arrays::asList);
+
+        Collections.sort(results);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), results);
+    }
+
+    @Test
+    public void testAtMostParallelismChunksAreExecutedConcurrently() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ChunkedExecution.execute(new Integer[20], 1, 2, true, executor, chunk -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep();
+            running.decrementAndGet();
+            return Collections.emptyList();
+        });
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testFirstFailureIsPropagated() {
+        // the calling thread fails only after the worker on the executor recorded its failure and finished
+        Thread caller = Thread.currentThread();
+        CountDownLatch workerFinished = new CountDownLatch(1);
+        IllegalArgumentException first = new IllegalArgumentException("first");
+
+        try {
+            ChunkedExecution.execute(new Integer[]{1, 2}, 1, 2, true, command -> executor.execute(() -> {
+                command.run();
+                workerFinished.countDown();
+            }), chunk -> {
+                if (Thread.currentThread() == caller) {
+                    await(workerFinished);
+                    throw new IllegalStateException("second");
+                }
+
+                throw first;
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertSame(first, e);
+        }
+    }
+
+    @Test
+    public void testNoFurtherChunksAreExecutedAfterAFailure() {
+        List<Integer> executed = new ArrayList<>();
+
+        try {
+            ChunkedExecution.execute(new Integer[]{1, 2, 3}, 1, 1, true, executor, chunk -> {
+                executed.add(chunk[0]);
+
+                if (chunk[0] == 2) {
+                    throw new IllegalStateException("chunk 2");
+                }
+
+                return Arrays.asList(chunk);
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("chunk 2", e.getMessage());
+        }
+
+        assertEquals(Arrays.asList(1, 2), executed);
+    }
+
+    @Test
+    public void testCallingThreadExecutesAllChunksIfTheExecutorRejects() {
+        Thread caller = Thread.currentThread();
+
+        List<Integer> results = ChunkedExecution.execute(new Integer[]{1, 2, 3, 4}, 1, 4, true, command -> {
+            throw new RejectedExecutionException();
+        }, chunk -> {
+            assertSame(caller, Thread.currentThread());
+            return Arrays.asList(chunk);
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), results);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+package at.rseiler.spbee.core.concurrent;
+
+import at.rseiler.spbee.core.exception.MultipleObjectsReturned;
+import at.rseiler.spbee.core.exception.ObjectDoesNotExist;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MicroBatcherTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long LONG_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Integer> singleCalls = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Integer>> multiCalls = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSingleKeyIsLoadedAfterTheWindow() {
+        MicroBatcher<Integer, String> batcher = batcher(WINDOW_NANOS, 10, false, this::users);
+
+        long start = System.nanoTime();
+        assertEquals("user1", batcher.load(1));
+
+        assertTrue(System.nanoTime() - start >= WINDOW_NANOS);
+        assertEquals(Collections.singletonList(1), singleCalls);
+        assertEquals(0, multiCalls.size());
+    }
+
+    @Test
+    public void testFullBatchIsLoadedBeforeTheWindowElapsed() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(LONG_WINDOW_NANOS, 3, false, this::users);
+
+        long start = System.nanoTime();
+        List<Future<String>> results = load(batcher, 3, 1, 2);
+
+        assertEquals("user3", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("user1", results.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals("user2", results.get(2).get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < LONG_WINDOW_NANOS);
+        assertEquals(1, multiCalls.size());
+        assertEquals(Arrays.asList(1, 2, 3), sorted(multiCalls.get(0)));
+        assertEquals(0, singleCalls.size());
+    }
+
+    @Test
+    public void testRowsAreRoutedBackByKey() throws Exception {
+        // the rows are returned in another order than the keys
+        MicroBatcher<Integer, String> batcher = batcher(LONG_WINDOW_NANOS, 4, false, keys -> {
+            List<String> rows = users(keys);
+            Collections.reverse(rows);
+            return rows;
+        });
+
+        List<Future<String>> results = load(batcher, 4, 2, 1, 3);
+
+        assertEquals("user4", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("user2", results.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals("user1", results.get(2).get(5, TimeUnit.SECONDS));
+        assertEquals("user3", results.get(3).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEqualKeysShareTheRowAndMissingKeysFail() throws Exception {
+        // the window is long enough that all calls join the first batch
+        MicroBatcher<Integer, String> batcher = batcher(TimeUnit.SECONDS.toNanos(1), 10, false, keys -> users(Arrays.asList(1, 2)));
+
+        List<Future<String>> results = load(batcher, 1, 2, 1, 4);
+
+        assertEquals("user1", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("user2", results.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals("user1", results.get(2).get(5, TimeUnit.SECONDS));
+        assertTrue(getCause(results.get(3)) instanceof ObjectDoesNotExist);
+        assertEquals(1, multiCalls.size());
+        assertEquals(Arrays.asList(1, 2, 4), sorted(multiCalls.get(0)));
+    }
+
+    @Test
+    public void testMissingKeyReturnsNullAndDuplicateRowsFail() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(LONG_WINDOW_NANOS, 2, true, keys -> users(Arrays.asList(1, 1)));
+
+        List<Future<String>> results = load(batcher, 1, 2);
+
+        assertTrue(getCause(results.get(0)) instanceof MultipleObjectsReturned);
+        assertNull(results.get(1).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureIsPropagatedToAllCalls() throws Exception {
+        IllegalStateException failure = new IllegalStateException("failed");
+        MicroBatcher<Integer, String> batcher = batcher(LONG_WINDOW_NANOS, 2, false, keys -> {
+            throw failure;
+        });
+
+        List<Future<String>> results = load(batcher, 1, 2);
+
+        assertSame(failure, getCause(results.get(0)));
+        assertSame(failure, getCause(results.get(1)));
+    }
+
+    @Test
+    public void testNextCallStartsANewBatch() {
+        MicroBatcher<Integer, String> batcher = batcher(WINDOW_NANOS, 10, false, this::users);
+
+        assertEquals("user1", batcher.load(1));
+        assertEquals("user2", batcher.load(2));
+        assertEquals(Arrays.asList(1, 2), singleCalls);
+    }
+
+    private MicroBatcher<Integer, String> batcher(long windowNanos, int maxSize, boolean returnNull, Function<List<Integer>, List<String>> multi) {
+        return new MicroBatcher<>("getUser", windowNanos, maxSize, returnNull,
+                k -> {
+                    singleCalls.add(k);
+                    return "user" + k;
+                },
+                keys -> {
+                    multiCalls.add(new ArrayList<>(keys));
+                    return multi.apply(keys);
+                },
+                row -> Integer.valueOf(row.substring("user".length())));
+    }
+
+    private List<String> users(List<Integer> keys) {
+        List<String> rows = new ArrayList<>();
+
+        for (Integer k : keys) {
+            rows.add("user" + k);
+        }
+
+        return rows;
+    }
+
+    private List<Future<String>> load(MicroBatcher<Integer, String> batcher, Integer... keys) {
+        List<Future<String>> results = new ArrayList<>();
+
+        for (Integer k : keys) {
+            results.add(executor.submit(() -> batcher.load(k)));
+        }
+
+        return results;
+    }
+
+    private static List<Integer> sorted(List<Integer> keys) {
+        List<Integer> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static Throwable getCause(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+}
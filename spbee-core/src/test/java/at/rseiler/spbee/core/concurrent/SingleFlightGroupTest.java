@@ -0,0 +1,172 @@
+package at.rseiler.spbee.core.concurrent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightGroupTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallsWithEqualKeyShareOneExecution() throws Exception {
+        SingleFlightGroup<String> group = new SingleFlightGroup<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> group.execute(1, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "user1";
+        }));
+        await(started);
+
+        List<Future<String>> followers = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            followers.add(executor.submit(() -> group.execute(1, () -> {
+                executions.incrementAndGet();
+                return "other";
+            })));
+        }
+
+        awaitSharedCount(group, 4);
+        release.countDown();
+
+        String result = leader.get(10, TimeUnit.SECONDS);
+
+        for (Future<String> follower : followers) {
+            assertSame(result, follower.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(0, group.size());
+    }
+
+    @Test
+    public void testCallsWithOtherKeysAreExecuted() throws Exception {
+        SingleFlightGroup<String> group = new SingleFlightGroup<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = executor.submit(() -> group.execute(1, () -> {
+            await(release);
+            return "user1";
+        }));
+
+        assertEquals("user2", group.execute(2, () -> "user2"));
+        release.countDown();
+        assertEquals("user1", first.get(10, TimeUnit.SECONDS));
+        assertEquals(0, group.getSharedCount());
+    }
+
+    @Test
+    public void testFailureIsSharedWithTheWaitingCalls() throws Exception {
+        SingleFlightGroup<String> group = new SingleFlightGroup<>();
+        IllegalStateException failure = new IllegalStateException("failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> group.execute(1, () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        await(started);
+
+        Future<String> follower = executor.submit(() -> group.execute(1, () -> "other"));
+        awaitSharedCount(group, 1);
+        release.countDown();
+
+        assertSame(failure, getCause(leader));
+        assertSame(failure, getCause(follower));
+        assertEquals(0, group.size());
+    }
+
+    @Test
+    public void testCallAfterCompletionIsExecutedAgain() {
+        SingleFlightGroup<Integer> group = new SingleFlightGroup<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(Integer.valueOf(1), group.execute(1, executions::incrementAndGet));
+        assertEquals(Integer.valueOf(2), group.execute(1, executions::incrementAndGet));
+        assertEquals(0, group.getSharedCount());
+    }
+
+    @Test
+    public void testSharedListIsUnmodifiable() throws Exception {
+        SingleFlightGroup<List<String>> group = new SingleFlightGroup<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<List<String>> leader = executor.submit(() -> group.execute(1, () -> {
+            started.countDown();
+            await(release);
+            return new ArrayList<>(Arrays.asList("a", "b"));
+        }));
+        await(started);
+
+        Future<List<String>> follower = executor.submit(() -> group.execute(1, ArrayList::new));
+        awaitSharedCount(group, 1);
+        release.countDown();
+
+        List<String> result = leader.get(10, TimeUnit.SECONDS);
+        assertSame(result, follower.get(10, TimeUnit.SECONDS));
+
+        try {
+            result.add("c");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList("a", "b"), result);
+        }
+    }
+
+    private static Throwable getCause(Future<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static void awaitSharedCount(SingleFlightGroup<?> group, long sharedCount) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (group.getSharedCount() < sharedCount) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package at.rseiler.spbee.core.generator;
+
+import at.rseiler.spbee.core.pojo.DtoClass;
+import at.rseiler.spbee.core.pojo.StoredProcedureMethod;
+import at.rseiler.spbee.core.pojo.TypeInfo;
+import at.rseiler.spbee.core.pojo.Variable;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import org.junit.Test;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static at.rseiler.spbee.core.generator.GeneratorUtil.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncDaoGeneratorTest {
+
+    @Test
+    public void testGenerateAsyncDaoClasses() throws Exception {
+        DtoClass dtoClass = getDtoClass();
+
+        assertContains(generateJavaCode(dtoClass, "at.rseiler.spbee.test.TestAsyncDao"),
+                "package at.rseiler.spbee.test;",
+                "public interface TestAsyncDao",
+                "CompletableFuture<List<String>> getSomething(int id);",
+                "CompletableFuture<Void> saveSomething(int id);",
+                "CompletableFuture<Integer> countSomething(String name);"
+        );
+        assertNotContains(generateJavaCode(dtoClass, "at.rseiler.spbee.test.TestAsyncDao"), "getSomethingAsync");
+    }
+
+    @Test
+    public void testGenerateAsyncDaoImplClasses() throws Exception {
+        assertContains(generateJavaCode(getDtoClass(), "at.rseiler.spbee.test.TestAsyncDaoImpl"),
+                "@Service",
+                "public class TestAsyncDaoImpl",
+                "implements TestAsyncDao",
+                "private final TestDao dao;",
+                "private final Executor executor;",
+                "@Autowired",
+                "public TestAsyncDaoImpl(TestDao dao, Executor executor)",
+                "public CompletableFuture<List<String>> getSomething(int id)",
+                "return CompletableFuture.supplyAsync(new Supplier<List<String>>() {",
+                "return dao.getSomething(id);",
+                "}, executor);",
+                "public CompletableFuture<Void> saveSomething(int id)",
+                "return CompletableFuture.runAsync(new Runnable() {",
+                "dao.saveSomething(id);"
+        );
+    }
+
+    @Test
+    public void testGenerateAsyncDaoImplClassesWithVirtualThreadExecutor() throws Exception {
+        Properties config = new Properties();
+        config.put("executor", "virtual");
+        String javaCode = generateJavaCode(getDtoClass(), "at.rseiler.spbee.test.TestAsyncDaoImpl", config);
+
+        assertContains(javaCode,
+                "private final Executor executor = VirtualThreadExecutor.newVirtualThreadPerTaskExecutor();",
+                "public TestAsyncDaoImpl(TestDao dao)"
+        );
+        assertNotContains(javaCode, "Executor executor)", "synchronized");
+    }
+
+    private DtoClass getDtoClass() {
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.TestDao", true, false, true);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.TestDao")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.TestDao")
+                        .methodName("getSomethingAsync")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .async(true)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.TestDao")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.TestDao")
+                        .methodName("countSomething")
+                        .returnTypeInfo(new TypeInfo(int.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_count_something"))
+                        .out(getOut("result"))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        return dtoClass;
+    }
+
+    private String generateJavaCode(DtoClass dtoClass, String qualifiedClassName) throws IOException, JClassAlreadyExistsException {
+        return generateJavaCode(dtoClass, qualifiedClassName, new Properties());
+    }
+
+    private String generateJavaCode(DtoClass dtoClass, String qualifiedClassName, Properties config) throws IOException, JClassAlreadyExistsException {
+        ProcessingEnvironment processingEnv = mock(ProcessingEnvironment.class);
+        Filer filer = mock(Filer.class);
+        JavaFileObject javaFileObject = mock(JavaFileObject.class);
+        JavaFileObject otherJavaFileObject = mock(JavaFileObject.class);
+        StringWriter stringWriter = new StringWriter();
+
+        when(processingEnv.getFiler()).thenReturn(filer);
+        when(filer.createSourceFile(org.mockito.Matchers.anyString())).thenReturn(otherJavaFileObject);
+        when(filer.createSourceFile(qualifiedClassName)).thenReturn(javaFileObject);
+        when(otherJavaFileObject.openWriter()).thenReturn(new StringWriter());
+        when(javaFileObject.openWriter()).thenReturn(stringWriter);
+
+        AsyncDaoGenerator asyncDaoGenerator = new AsyncDaoGenerator(processingEnv, config);
+        List<DtoClass> dtoClasses = Collections.singletonList(dtoClass);
+        asyncDaoGenerator.generateAsyncDaoClasses(dtoClasses);
+
+        return stringWriter.toString();
+    }
+
+}
@@ -14,6 +14,9 @@ import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static at.rseiler.spbee.core.generator.GeneratorUtil.*;
 import static org.mockito.Mockito.mock;
@@ -104,7 +107,7 @@ public class DtoGeneratorTest {
         assertContains(javaCode,
                 "public String getSomething()",
                 "List<String> list;",
-                "list = ((List<String> ) spGetSomethingWithSpecialMapper.execute().get(\"#result-set-0\"));",
+                "list = spGetSomethingWithSpecialMapper.executeUnique();",
                 "if (list.size() == 1)",
                 "return list.get(0);",
                 "if (list.size() == 0)",
@@ -134,7 +137,7 @@ public class DtoGeneratorTest {
         assertContains(javaCode,
                 "public String getSomething()",
                 "List<String> list;",
-                "list = ((List<String> ) spGetSomethingWithSpecialMapper.execute().get(\"#result-set-0\"));",
+                "list = spGetSomethingWithSpecialMapper.executeUnique();",
                 "if (list.size() == 1)",
                 "return list.get(0);",
                 "if (list.size() == 0)",
@@ -164,7 +167,7 @@ public class DtoGeneratorTest {
         assertContains(javaCode,
                 "public Optional<String> getSomething()",
                 "List<String> list;",
-                "list = ((List<String> ) spGetSomethingWithSpecialMapper.execute().get(\"#result-set-0\"));",
+                "list = spGetSomethingWithSpecialMapper.executeUnique();",
                 "if (list.size() == 1)",
                 "return Optional.of(list.get(0));",
                 "if (list.size() == 0)",
@@ -253,6 +256,30 @@ public class DtoGeneratorTest {
         );
     }
 
+    @Test
+    public void testGenerateDtoClassesWithBatch() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .batch(new Variable("users", "java.util.List<at.rseiler.spbee.test.entity.TestEntity>"), getBatch(500))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "public void saveSomething(List<TestEntity> users)",
+                "spSaveSomethingWithBatch500 .executeBatch(users);"
+        );
+    }
+
     @Test
     public void testGenerateDtoClassesWithInterceptor() throws Exception {
         Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
@@ -305,7 +332,7 @@ public class DtoGeneratorTest {
                 "Object interceptorIdObject;",
                 "interceptorIdObject = at.rseiler.spbee.test.Interceptor.before(\"sp_get_something\");",
                 "List<String> list;",
-                "list = ((List<String> ) spGetSomething.execute().get(\"#result-set-0\"));",
+                "list = spGetSomething.executeUnique();",
                 "at.rseiler.spbee.test.Interceptor.after(interceptorIdObject, \"sp_get_something\");"
         );
     }
@@ -333,11 +360,141 @@ public class DtoGeneratorTest {
                 "Object interceptorIdObject;",
                 "interceptorIdObject = at.rseiler.spbee.test.Interceptor.before(\"sp_get_something\");",
                 "List<String> list;",
-                "list = ((List<String> ) spGetSomething.execute().get(\"#result-set-0\"));",
+                "list = spGetSomething.executeUnique();",
                 "at.rseiler.spbee.test.Interceptor.after(interceptorIdObject, \"sp_get_something\");"
         );
     }
 
+    @Test
+    public void testGenerateDtoClassesWithProcedureInterceptor() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("procedure.interceptor", "at.rseiler.spbee.test.TestInterceptor");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "private final static ProcedureInterceptor PROCEDURE_INTERCEPTOR = ProcedureInterceptors.get(TestInterceptor.class);",
+                "private final static ProcedureDescriptor GET_SOMETHING_DESCRIPTOR = new ProcedureDescriptor(\"sp_get_something\", \"at.rseiler.spbee.test.DtoTest\", \"getSomething\", \"id\", \"name\");",
+                "long interceptorToken = PROCEDURE_INTERCEPTOR.before(GET_SOMETHING_DESCRIPTOR);",
+                "if (PROCEDURE_INTERCEPTOR.captureArguments(GET_SOMETHING_DESCRIPTOR)) {",
+                "PROCEDURE_INTERCEPTOR.arguments(GET_SOMETHING_DESCRIPTOR, interceptorToken, new Object[] {id, name",
+                "try {",
+                "map = spGetSomething.execute(id, name);",
+                "} finally {",
+                "PROCEDURE_INTERCEPTOR.after(GET_SOMETHING_DESCRIPTOR, interceptorToken);"
+        );
+        assertNotContains(javaCode, "interceptorIdObject");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithMetrics() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("deleteSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_delete_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("metrics", "jmx");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "private final static ProcedureDescriptor GET_SOMETHING_DESCRIPTOR = new ProcedureDescriptor(\"sp_get_something\", \"at.rseiler.spbee.test.DtoTest\", \"getSomething\", \"id\");",
+                "private final static ProcedureMetrics GET_SOMETHING_METRICS = ProcedureMetrics.register(GET_SOMETHING_DESCRIPTOR);",
+                "private List<String> callGetSomething(int id) {",
+                "map = spGetSomething.execute(id);",
+                "public List<String> getSomething(int id) {",
+                "long metricsStart = GET_SOMETHING_METRICS.start();",
+                "List<String> result = callGetSomething(id);",
+                "GET_SOMETHING_METRICS.success(metricsStart, result);",
+                "return result;",
+                "} catch (Throwable e) {",
+                "GET_SOMETHING_METRICS.failure(metricsStart);",
+                "throw e;",
+                "private final static ProcedureMetrics DELETE_SOMETHING_METRICS = ProcedureMetrics.register(DELETE_SOMETHING_DESCRIPTOR);",
+                "callDeleteSomething(id);",
+                "DELETE_SOMETHING_METRICS.success(metricsStart);"
+        );
+        assertNotContains(javaCode, "PROCEDURE_INTERCEPTOR");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithJfrEvents() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("events", "jfr");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "Name(\"at.rseiler.spbee.test.DtoTest.ProcedureCall\")",
+                "Label(\"Stored Procedure Call\")",
+                "Category(\"spBee\")",
+                "Threshold(\"20 ms\")",
+                "public static class ProcedureEvent",
+                "String procedureName;",
+                "long rows;",
+                "Class<?> exceptionClass;",
+                "void complete(ProcedureDescriptor descriptor, Object result, Throwable exception) {",
+                "if (shouldCommit()) {",
+                "rows = ProcedureMetrics.countRows(result);",
+                "private final static ProcedureDescriptor GET_SOMETHING_DESCRIPTOR = new ProcedureDescriptor(\"sp_get_something\", \"at.rseiler.spbee.test.DtoTest\", \"getSomething\", \"id\");",
+                "private List<String> callGetSomething(int id) {",
+                "event.begin();",
+                "List<String> result = callGetSomething(id);",
+                "event.complete(GET_SOMETHING_DESCRIPTOR, result, null);",
+                "} catch (Throwable e) {",
+                "event.complete(GET_SOMETHING_DESCRIPTOR, null, e);",
+                "throw e;"
+        );
+        assertNotContains(javaCode, "GET_SOMETHING_METRICS", "metricsStart");
+    }
+
     @Test
     public void testGenerateDtoClassesWithMultipleResultSets() throws Exception {
         Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
@@ -573,6 +730,680 @@ public class DtoGeneratorTest {
         );
     }
 
+    @Test
+    public void testGenerateDtoClassesWithStream() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(Stream.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("interceptor", "at.rseiler.spbee.test.Interceptor");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "import java.util.stream.Stream;",
+                "public Stream<String> getSomething()",
+                "interceptorIdObject = at.rseiler.spbee.test.Interceptor.before(\"sp_get_something\");",
+                "Stream<String> stream;",
+                "stream = spGetSomethingWithSpecialMapper.stream();",
+                "at.rseiler.spbee.test.Interceptor.after(interceptorIdObject, \"sp_get_something\");",
+                "return stream;"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithPublisher() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.concurrent.Flow.Publisher", String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.jdbc.ResultSetPublisher;",
+                "private Stream<String> streamGetSomething(int id)",
+                "stream = spGetSomethingWithSpecialMapper.stream(id);",
+                "return stream;",
+                "Publisher<String> getSomething(int id)",
+                "return ResultSetPublisher.publisher(new Supplier<Stream<String>>() {",
+                "public Stream<String> get()",
+                "return streamGetSomething(id);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithRowConsumer() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("forEachSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .rowConsumer(new Variable("consumer", "java.util.function.Consumer<java.lang.String>"))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        Properties config = new Properties();
+        config.put("interceptor", "at.rseiler.spbee.test.Interceptor");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "import java.util.function.Consumer;",
+                "public void forEachSomething(int id, Consumer<String> consumer)",
+                "interceptorIdObject = at.rseiler.spbee.test.Interceptor.before(\"sp_get_something\", id);",
+                "spGetSomethingWithSpecialMapper.forEach(id, consumer);",
+                "at.rseiler.spbee.test.Interceptor.after(interceptorIdObject, \"sp_get_something\", id);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithChunked() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .chunked(new Variable("ids", int[].class.getCanonicalName()), getChunked(500, 2, true))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+                        .addArgument(new Variable("ids", int[].class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "private final Executor executor;",
+                "public DtoTestImpl(DataSource dataSource, Executor executor)",
+                "private List<String> executeGetSomething(String name, int[] ids)",
+                "map = spGetSomethingWithSpecialMapper.execute(name, ids);",
+                "public List<String> getSomething(String name, int[] ids)",
+                "return ChunkedExecution.execute(ids, 500, 2, true, executor, new Function<int[], List<String>>() {",
+                "public List<String> apply(int[] chunk)",
+                "return executeGetSomething(name, chunk);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithCompletableFuture() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .async(true)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import java.util.concurrent.CompletableFuture;",
+                "import java.util.concurrent.Executor;",
+                "private final Executor executor;",
+                "public DtoTestImpl(DataSource dataSource, Executor executor)",
+                "this.executor = executor;",
+                "private List<String> executeGetSomething(int id)",
+                "map = spGetSomethingWithSpecialMapper.execute(id);",
+                "public CompletableFuture<List<String>> getSomething(int id)",
+                "return CompletableFuture.supplyAsync(new Supplier<List<String>>() {",
+                "public List<String> get()",
+                "return executeGetSomething(id);",
+                "}, executor);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithVirtualThreadExecutor() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .async(true)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("executor", "virtual");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.concurrent.VirtualThreadExecutor;",
+                "private final Executor executor = VirtualThreadExecutor.newVirtualThreadPerTaskExecutor();",
+                "public DtoTestImpl(DataSource dataSource)",
+                "}, executor);"
+        );
+        assertNotContains(javaCode,
+                "Executor executor)",
+                "this.executor = executor;",
+                "synchronized"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithCompletableFutureOfVoid() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .async(true)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "private void executeSaveSomething(int id)",
+                "spSaveSomething.execute(id);",
+                "public CompletableFuture<Void> saveSomething(int id)",
+                "return CompletableFuture.runAsync(new Runnable() {",
+                "public void run()",
+                "executeSaveSomething(id);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithPrimitiveArray() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getIds")
+                        .returnTypeInfo(new TypeInfo(long[].class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_ids"))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "spGetIdsWithLongColumn = new SpGetIdsWithLongColumn(dataSource);",
+                "public long[] getIds()",
+                "values = ((long[]) spGetIdsWithLongColumn.execute().get(\"#result-set-0\"));",
+                "return values;"
+        );
+        assertNotContains(javaCode, "executeUnique");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithDirectExecutionAndIntStream() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getIds")
+                        .returnTypeInfo(new TypeInfo(IntStream.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_ids"))
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("execution", "direct");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "public IntStream getIds()",
+                "int[] values;",
+                "values = spGetIdsWithIntColumn.execute();",
+                "return IntStream.of(values);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithOut() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("countSomething")
+                        .returnTypeInfo(new TypeInfo(int.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_count_something"))
+                        .out(getOut("count"))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "spCountSomethingWithOutCount = new SpCountSomethingWithOutCount(dataSource);",
+                "public int countSomething(String name)",
+                "map = spCountSomethingWithOutCount.execute(name);",
+                "return ((Number) map.get(\"count\")).intValue();"
+        );
+        assertNotContains(javaCode, "executeUnique", "#result-set-0");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithDirectExecutionAndOut() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getName")
+                        .returnTypeInfo(new TypeInfo(String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_name"))
+                        .out(getOut("name"))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        Properties config = new Properties();
+        config.put("execution", "direct");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "public String getName(int id)",
+                "String result;",
+                "result = spGetNameWithOutName.execute(id);",
+                "return result;"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithCached() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .cached(getCached(5, TimeUnit.MINUTES, 100))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("countSomething")
+                        .returnTypeInfo(new TypeInfo(int.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_count_something"))
+                        .out(getOut("count"))
+                        .cached(getCached(0, TimeUnit.SECONDS, 1))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.cache.CachedDao;",
+                "import at.rseiler.spbee.core.cache.ProcedureCache;",
+                "CachedDao",
+                "private final ProcedureCache<TestEntity> getSomethingCache = new ProcedureCache<TestEntity>(\"getSomething\", 300000L, 100);",
+                "private final ProcedureCache<Integer> countSomethingCache = new ProcedureCache<Integer>(\"countSomething\", 0L, 1);",
+                "private TestEntity loadGetSomething(int id)",
+                "list = spGetSomething.executeUnique(id);",
+                "public TestEntity getSomething(int id)",
+                "return getSomethingCache.get(ProcedureCache.key(new Object[] {id }), new Supplier<TestEntity>() {",
+                "return loadGetSomething(id);",
+                "private int loadCountSomething()",
+                "public int countSomething()",
+                "return countSomethingCache.get(ProcedureCache.key(), new Supplier<Integer>() {",
+                "public Integer get()",
+                "return loadCountSomething();",
+                "getCache(String methodName)",
+                "if (\"getSomething\".equals(methodName)) {",
+                "return getSomethingCache;",
+                "return null;",
+                "public void invalidateCaches()",
+                "getSomethingCache.invalidateAll();",
+                "countSomethingCache.invalidateAll();"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithCachedRows() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomethings")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_somethings"))
+                        .cached(getCached(5, TimeUnit.MINUTES, 1000))
+                        .cacheKey(new Variable("id", int.class.getCanonicalName()))
+                        .build()
+                        .addArgument(new Variable("ids", Integer[].class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .evict(getEvict(new String[]{"getSomethings"}, new String[]{"id"}, new String[0]))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "private final ProcedureCache<TestEntity> getSomethingsCache = new ProcedureCache<TestEntity>(\"getSomethings\", 300000L, 1000);",
+                "private List<TestEntity> loadGetSomethings(Integer[] ids)",
+                "public List<TestEntity> getSomethings(Integer[] ids)",
+                "return getSomethingsCache.getAll(Arrays.asList(ids), new Function<List<Integer>, List<TestEntity>>() {",
+                "public List<TestEntity> apply(List<Integer> keys)",
+                "return loadGetSomethings(keys.toArray(new Integer[keys.size()]));",
+                "new Function<TestEntity, Integer>() {",
+                "public Integer apply(TestEntity row)",
+                "return row.getId();",
+                "CacheInvalidation.invalidate(getSomethingsCache, ProcedureCache.key(new Object[] {id }));"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithEvict() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .evict(getEvict(new String[]{"getSomething"}, new String[]{"id"}, new String[0]))
+                        .evict(getEvict(new String[0], new String[0], new String[]{"lists"}))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("deleteSomethings")
+                        .returnTypeInfo(new TypeInfo(int.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_delete_somethings"))
+                        .out(getOut("count"))
+                        .evict(getEvict(new String[]{"getSomething"}, new String[0], new String[0]))
+                        .build()
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .cached(getCached(5, TimeUnit.MINUTES, 100))
+                        .build()
+                        .addArgument(new Variable("id", Integer.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomethings")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_somethings"))
+                        .cached(getCached(5, TimeUnit.MINUTES, 100, "lists"))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.cache.CacheInvalidation;",
+                "private final ProcedureCache<TestEntity> getSomethingCache",
+                "private final ProcedureCache<List<TestEntity>> getSomethingsCache",
+                "private void executeSaveSomething(int id, String name)",
+                "spSaveSomething.execute(id, name);",
+                "public void saveSomething(int id, String name)",
+                "try {",
+                "executeSaveSomething(id, name);",
+                "} finally {",
+                "CacheInvalidation.invalidate(getSomethingCache, ProcedureCache.key(new Object[] {id }));",
+                "CacheInvalidation.invalidateAll(getSomethingsCache);",
+                "private int executeDeleteSomethings()",
+                "public int deleteSomethings()",
+                "return executeDeleteSomethings();",
+                "CacheInvalidation.invalidateAll(getSomethingCache);"
+        );
+        assertNotContains(javaCode, "CacheInvalidation.invalidate(getSomethingsCache");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithSingleFlight() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .singleFlight(getSingleFlight())
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getCachedSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .cached(getCached(5, TimeUnit.MINUTES, 100))
+                        .singleFlight(getSingleFlight())
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.concurrent.SingleFlightGroup;",
+                "private final SingleFlightGroup<TestEntity> getSomethingCalls = new SingleFlightGroup<TestEntity>();",
+                "private TestEntity executeGetSomething(int id)",
+                "public TestEntity getSomething(int id)",
+                "return getSomethingCalls.execute(ProcedureCache.key(new Object[] {id }), new Supplier<TestEntity>() {",
+                "return executeGetSomething(id);",
+                "private final SingleFlightGroup<TestEntity> getCachedSomethingCalls = new SingleFlightGroup<TestEntity>();",
+                "public TestEntity getCachedSomething(int id)",
+                "final Object key = ProcedureCache.key(new Object[] {id });",
+                "return getCachedSomethingCache.get(key, new Supplier<TestEntity>() {",
+                "return getCachedSomethingCalls.execute(key, new Supplier<TestEntity>() {",
+                "return loadGetCachedSomething(id);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithMicroBatch() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .microBatch(getMicroBatch("getSomethings", "id", 2, TimeUnit.MILLISECONDS, 50))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomethings")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_somethings"))
+                        .build()
+                        .addArgument(new Variable("ids", Integer[].class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.concurrent.MicroBatcher;",
+                "private final MicroBatcher<Integer, TestEntity> getSomethingBatcher = new MicroBatcher<Integer, TestEntity>(\"getSomething\", 2000000L, 50, false, new Function<Integer, TestEntity>() {",
+                "public TestEntity apply(Integer key)",
+                "return queryGetSomething(key);",
+                "new Function<List<Integer>, List<TestEntity>>() {",
+                "public List<TestEntity> apply(List<Integer> keys)",
+                "return getSomethings(keys.toArray(new Integer[keys.size()]));",
+                "new Function<TestEntity, Integer>() {",
+                "public Integer apply(TestEntity row)",
+                "return row.getId();",
+                "private TestEntity queryGetSomething(int id)",
+                "spGetSomething.executeUnique(id);",
+                "public TestEntity getSomething(int id)",
+                "return getSomethingBatcher.load(id);",
+                "public List<TestEntity> getSomethings(Integer[] ids)"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithOverloadedMicroBatch() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .microBatch(getMicroBatch("getSomethings", "id", 2, TimeUnit.MILLISECONDS, 50))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something_by_name"))
+                        .microBatch(getMicroBatch("getSomethingsByName", "name", 2, TimeUnit.MILLISECONDS, 50))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomethings")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_somethings"))
+                        .build()
+                        .addArgument(new Variable("ids", Integer[].class.getCanonicalName()))
+        );
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomethingsByName")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_somethings_by_name"))
+                        .build()
+                        .addArgument(new Variable("names", "java.util.List<java.lang.String>"))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap);
+
+        assertContains(javaCode,
+                "private final MicroBatcher<Integer, TestEntity> getSomethingBatcher = new MicroBatcher<Integer, TestEntity>(\"getSomething\", 2000000L, 50, false, ",
+                "private final MicroBatcher<String, TestEntity> getSomething2Batcher = new MicroBatcher<String, TestEntity>(\"getSomething2\", 2000000L, 50, false, ",
+                "return getSomethingsByName(keys);",
+                "return getSomething2Batcher.load(name);"
+        );
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithDirectExecution() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(List.class.getCanonicalName(), String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("execution", "direct");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "spGetSomethingWithSpecialMapper = new SpGetSomethingWithSpecialMapper(dataSource);",
+                "public List<String> getSomething()",
+                "List<String> list;",
+                "list = spGetSomethingWithSpecialMapper.execute();",
+                "return list;"
+        );
+        assertNotContains(javaCode, "#result-set-0");
+    }
+
+    @Test
+    public void testGenerateDtoClassesWithDirectExecutionAndEntityAsReturnValue() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new StoredProcedureMethod.Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo(String.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .returnNull(null)
+                        .rowMapper(getRowMapper(SpecialMapper.class))
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        Properties config = new Properties();
+        config.put("execution", "direct");
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, config);
+
+        assertContains(javaCode,
+                "public String getSomething()",
+                "List<String> list;",
+                "list = spGetSomethingWithSpecialMapper.executeUnique();",
+                "if (list.size() == 1)",
+                "return list.get(0);",
+                "throw new ObjectDoesNotExist();"
+        );
+    }
+
     private String generateJavaCode(DtoClass dtoClass, Map<String, ResultSetClass> resultSetClassMap) throws IOException, JClassAlreadyExistsException, ClassNotFoundException {
         return generateJavaCode(dtoClass,resultSetClassMap, new Properties());
     }
@@ -1,10 +1,23 @@
 package at.rseiler.spbee.core.generator;
 
+import at.rseiler.spbee.core.annotation.Batch;
+import at.rseiler.spbee.core.annotation.Cached;
+import at.rseiler.spbee.core.annotation.Chunked;
+import at.rseiler.spbee.core.annotation.Evict;
+import at.rseiler.spbee.core.annotation.FetchSize;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
+import at.rseiler.spbee.core.annotation.MaxRows;
+import at.rseiler.spbee.core.annotation.MicroBatch;
+import at.rseiler.spbee.core.annotation.Out;
+import at.rseiler.spbee.core.annotation.QueryTimeout;
 import at.rseiler.spbee.core.annotation.ReturnNull;
 import at.rseiler.spbee.core.annotation.RowMapper;
+import at.rseiler.spbee.core.annotation.SingleFlight;
 import at.rseiler.spbee.core.annotation.StoredProcedure;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -36,10 +49,85 @@ public final class GeneratorUtil {
         return mappingConstructor;
     }
 
+    static FetchSize getFetchSize(int value) {
+        FetchSize fetchSize = mock(FetchSize.class);
+        when(fetchSize.value()).thenReturn(value);
+        return fetchSize;
+    }
+
+    static MaxRows getMaxRows(int value) {
+        MaxRows maxRows = mock(MaxRows.class);
+        when(maxRows.value()).thenReturn(value);
+        return maxRows;
+    }
+
+    static Batch getBatch(int value) {
+        Batch batch = mock(Batch.class);
+        when(batch.value()).thenReturn(value);
+        return batch;
+    }
+
+    static Chunked getChunked(int value, int parallelism, boolean ordered) {
+        Chunked chunked = mock(Chunked.class);
+        when(chunked.value()).thenReturn(value);
+        when(chunked.parallelism()).thenReturn(parallelism);
+        when(chunked.ordered()).thenReturn(ordered);
+        return chunked;
+    }
+
+    static Cached getCached(long ttl, TimeUnit unit, int maxEntries, String... tags) {
+        Cached cached = mock(Cached.class);
+        when(cached.ttl()).thenReturn(ttl);
+        when(cached.unit()).thenReturn(unit);
+        when(cached.maxEntries()).thenReturn(maxEntries);
+        when(cached.tags()).thenReturn(tags);
+        return cached;
+    }
+
+    static SingleFlight getSingleFlight() {
+        return mock(SingleFlight.class);
+    }
+
+    static MicroBatch getMicroBatch(String value, String key, long window, TimeUnit unit, int maxSize) {
+        MicroBatch microBatch = mock(MicroBatch.class);
+        when(microBatch.value()).thenReturn(value);
+        when(microBatch.key()).thenReturn(key);
+        when(microBatch.window()).thenReturn(window);
+        when(microBatch.unit()).thenReturn(unit);
+        when(microBatch.maxSize()).thenReturn(maxSize);
+        return microBatch;
+    }
+
+    static Evict getEvict(String[] value, String[] key, String[] tags) {
+        Evict evict = mock(Evict.class);
+        when(evict.value()).thenReturn(value);
+        when(evict.key()).thenReturn(key);
+        when(evict.tags()).thenReturn(tags);
+        return evict;
+    }
+
+    static Out getOut(String value) {
+        Out out = mock(Out.class);
+        when(out.value()).thenReturn(value);
+        return out;
+    }
+
+    static QueryTimeout getQueryTimeout(int value) {
+        QueryTimeout queryTimeout = mock(QueryTimeout.class);
+        when(queryTimeout.value()).thenReturn(value);
+        return queryTimeout;
+    }
+
     static void assertContains(String text, String... searchStrings) {
         for (String searchString : searchStrings) {
             assertTrue("Text doesn't contain search string: " + searchString + "\n" + text, text.contains(searchString));
         }
     }
 
+    static void assertNotContains(String text, String... searchStrings) {
+        for (String searchString : searchStrings) {
+            assertFalse("Text contains search string: " + searchString + "\n" + text, text.contains(searchString));
+        }
+    }
+
 }
@@ -10,11 +10,18 @@ import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import static at.rseiler.spbee.core.generator.GeneratorUtil.assertContains;
+import static at.rseiler.spbee.core.generator.GeneratorUtil.assertNotContains;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -58,6 +65,52 @@ public class MapperGeneratorTest {
         assertContains(javaCode,
                 "return new TestEntity(rs.getInt(1), rs.getString(2), rs.getBoolean(3));"
         );
+        assertNotContains(javaCode, "ColumnIndexCache");
+    }
+
+    @Test
+    public void testGenerateMappersWithColumnLabels() throws Exception {
+        MapperClass mapperClass = new MapperClass("at.rseiler.spbee.test.mapper.TestMapper", "at.rseiler.spbee.test.entity.TestEntity");
+        mapperClass.addVariable(new Variable("id", int.class.getCanonicalName(), "id_user"));
+        mapperClass.addVariable(new Variable("name", String.class.getCanonicalName(), "name"));
+
+        String javaCode = generateJavaCode(mapperClass);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.jdbc.ColumnIndexCache;",
+                "private final ColumnIndexCache columns = new ColumnIndexCache(\"id_user\", \"name\");",
+                "int[] index = columns.resolve(rs, rowNum);",
+                "return new TestEntity(rs.getInt(index[0 ]), rs.getString(index[1 ]));"
+        );
+    }
+
+    @Test
+    public void testGenerateMappersWithJavaTime() throws Exception {
+        MapperClass mapperClass = new MapperClass("at.rseiler.spbee.test.mapper.TestMapper", "at.rseiler.spbee.test.entity.TestEntity");
+        mapperClass.addVariable(new Variable("created", LocalDateTime.class.getCanonicalName()));
+        mapperClass.addVariable(new Variable("modified", Instant.class.getCanonicalName()));
+        mapperClass.addVariable(new Variable("uuid", UUID.class.getCanonicalName()));
+
+        String javaCode = generateJavaCode(mapperClass);
+
+        assertContains(javaCode,
+                "return new TestEntity(rs.getObject(1, LocalDateTime.class), JavaTimeUtil.toInstant(rs.getObject(2, OffsetDateTime.class)), rs.getObject(3, UUID.class));"
+        );
+    }
+
+    @Test
+    public void testGenerateMappersWithBinaryColumns() throws Exception {
+        MapperClass mapperClass = new MapperClass("at.rseiler.spbee.test.mapper.TestMapper", "at.rseiler.spbee.test.entity.TestEntity");
+        mapperClass.addVariable(new Variable("data", byte[].class.getCanonicalName()));
+        mapperClass.addVariable(new Variable("content", InputStream.class.getCanonicalName()));
+        mapperClass.addVariable(new Variable("text", Reader.class.getCanonicalName()));
+        mapperClass.addVariable(new Variable("buffer", ByteBuffer.class.getCanonicalName()));
+
+        String javaCode = generateJavaCode(mapperClass);
+
+        assertContains(javaCode,
+                "return new TestEntity(rs.getBytes(1), rs.getBinaryStream(2), rs.getCharacterStream(3), LobUtil.getByteBuffer(rs, 4));"
+        );
     }
 
     private String generateJavaCode(MapperClass mapperClass) throws IOException, JClassAlreadyExistsException, ClassNotFoundException {
@@ -11,9 +11,13 @@ import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static at.rseiler.spbee.core.generator.GeneratorUtil.*;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -54,7 +58,14 @@ public class StoredProcedureGeneratorTest {
                 "declareParameter(new SqlReturnResultSet(\"#result-set-0\", new TestEntityDefaultMapper()));",
                 "compile();",
                 "public Map<String, Object> execute()",
-                "return super.execute();"
+                "return super.execute();",
+                "private final TestEntityDefaultMapper mapper = new TestEntityDefaultMapper();",
+                "public List<TestEntity> executeUnique()",
+                "cs.setMaxRows(2);",
+                "ResultSet rs = CallableStatementUtil.execute(cs);",
+                "List<TestEntity> list = new ArrayList<TestEntity>(2);",
+                "list.add(mapper.mapRow(rs, list.size()));",
+                "return list;"
         );
     }
 
@@ -88,6 +99,146 @@ public class StoredProcedureGeneratorTest {
         );
     }
 
+    @Test
+    public void testGenerateStoredProcedureClassesWithArray() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("ids", Integer[].class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "declareParameter(new SqlParameter(\"ids\", Types.ARRAY));",
+                "execute(Integer[] ids, String name)",
+                "return super.execute(new SqlArrayValue(\"int\", ids), name);"
+        );
+        assertNotContains(javaCode, "getConnection", "createArrayOf");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithPrimitiveArray() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("ids", long[].class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "declareParameter(new SqlParameter(\"ids\", Types.ARRAY));",
+                "execute(long[] ids)",
+                "return super.execute(new SqlArrayValue(\"bigint\", ids));"
+        );
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndPrimitiveArray() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("ids", int[].class.getCanonicalName()))
+                        .addArgument(new Variable("names", String[].class.getCanonicalName()))
+                        .addArgument(new Variable("data", byte[].class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "public List<TestEntity> execute(int[] ids, String[] names, byte[] data)",
+                "Array idsArray = null;",
+                "Array namesArray = null;",
+                "idsArray = ArrayUtil.createArrayOf(conn, \"int\", ids);",
+                "cs.setArray(1, idsArray);",
+                "namesArray = conn.createArrayOf(\"varchar\", names);",
+                "cs.setArray(2, namesArray);",
+                "cs.setBytes(3, data);",
+                "} finally {",
+                "ArrayUtil.free(idsArray);",
+                "ArrayUtil.free(namesArray);"
+        );
+        assertNotContains(javaCode, "dataArray");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithJavaTime() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("created", LocalDateTime.class.getCanonicalName()))
+                        .addArgument(new Variable("modified", Instant.class.getCanonicalName()))
+                        .addArgument(new Variable("uuid", UUID.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "declareParameter(new SqlParameter(\"created\", Types.TIMESTAMP));",
+                "declareParameter(new SqlParameter(\"modified\", Types.TIMESTAMP_WITH_TIMEZONE));",
+                "declareParameter(new SqlParameter(\"uuid\", Types.OTHER));",
+                "return super.execute(created, JavaTimeUtil.toOffsetDateTime(modified), uuid);"
+        );
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndJavaTime() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .build()
+                        .addArgument(new Variable("day", LocalDate.class.getCanonicalName()))
+                        .addArgument(new Variable("modified", Instant.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "cs.setObject(1, day, Types.DATE);",
+                "cs.setObject(2, JavaTimeUtil.toOffsetDateTime(modified), Types.TIMESTAMP_WITH_TIMEZONE);"
+        );
+    }
+
     @Test
     public void testGenerateStoredProcedureClassesWithRowMapper() throws Exception {
         Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
@@ -226,7 +377,464 @@ public class StoredProcedureGeneratorTest {
         );
     }
 
+    @Test
+    public void testGenerateStoredProcedureClassesWithStream() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("streamSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.stream.Stream", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.jdbc.ResultSetStream;",
+                "extends StoredProcedure",
+                "public Map<String, Object> execute(int id)",
+                "private final TestEntityDefaultMapper mapper = new TestEntityDefaultMapper();",
+                "public Stream<TestEntity> stream(int id)",
+                "DataSource dataSource = getJdbcTemplate().getDataSource();",
+                "cs = conn.prepareCall(getCallString());",
+                "cs.setInt(1, id);",
+                "return ResultSetStream.stream(getCallString(), dataSource, conn, cs, CallableStatementUtil.execute(cs), mapper, getJdbcTemplate().getExceptionTranslator());",
+                "throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), getCallString(), e);",
+                "JdbcUtils.closeStatement(cs);",
+                "DataSourceUtils.releaseConnection(conn, dataSource);"
+        );
+        assertNotContains(javaCode, "finally");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithPublisher() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("publishSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.concurrent.Flow.Publisher", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "private final TestEntityDefaultMapper mapper = new TestEntityDefaultMapper();",
+                "public Stream<TestEntity> stream(int id)",
+                "return ResultSetStream.stream(getCallString(), dataSource, conn, cs, CallableStatementUtil.execute(cs), mapper, getJdbcTemplate().getExceptionTranslator());"
+        );
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithRowConsumer() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("forEachSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .rowConsumer(new Variable("consumer", "java.util.function.Consumer<at.rseiler.spbee.test.entity.TestEntity>"))
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "private final TestEntityDefaultMapper mapper = new TestEntityDefaultMapper();",
+                "public void forEach(int id, Consumer<TestEntity> consumer)",
+                "DataSource dataSource = getJdbcTemplate().getDataSource();",
+                "cs.setInt(1, id);",
+                "ResultSet rs = CallableStatementUtil.execute(cs);",
+                "consumer.accept(mapper.mapRow(rs, rowNum));",
+                "throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), getCallString(), e);",
+                "JdbcUtils.closeStatement(cs);",
+                "DataSourceUtils.releaseConnection(conn, dataSource);"
+        );
+        assertNotContains(javaCode, "ArrayList", "SqlReturnResultSet", "UncategorizedSQLException");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithStatementSettings() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .fetchSize(getFetchSize(500))
+                        .maxRows(getMaxRows(10))
+                        .queryTimeout(getQueryTimeout(5))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "public class SpGetSomethingWithFetchSize500WithMaxRows10WithQueryTimeout5",
+                "setFetchSize(500);",
+                "setMaxRows(10);",
+                "setQueryTimeout(5);",
+                "compile();",
+                "public List<TestEntity> executeUnique()",
+                "cs.setFetchSize(500);",
+                "cs.setMaxRows(2);",
+                "cs.setQueryTimeout(5);",
+                "throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), getCallString(), e);"
+        );
+        assertNotContains(javaCode, "cs.setMaxRows(10);", "UncategorizedSQLException");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndStatementSettings() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("java.util.List", "at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .fetchSize(getFetchSize(500))
+                        .queryTimeout(getQueryTimeout(5))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "public class SpGetSomethingWithFetchSize500WithQueryTimeout5",
+                "public List<TestEntity> execute()",
+                "cs = conn.prepareCall(CALL);",
+                "cs.setFetchSize(500);",
+                "cs.setQueryTimeout(5);"
+        );
+        assertNotContains(javaCode, "setMaxRows");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithBatch() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+                        .addArgument(new Variable("active", boolean.class.getCanonicalName()))
+                        .batch(new Variable("users", "java.util.List<at.rseiler.spbee.test.entity.TestEntity>"), getBatch(500))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, new Properties());
+
+        assertContains(javaCode,
+                "public class SpSaveSomethingWithBatch500",
+                "public void executeBatch(List<TestEntity> users)",
+                "for (TestEntity row: users)",
+                "cs.setInt(1, row.getId());",
+                "cs.setString(2, row.getName());",
+                "cs.setBoolean(3, row.isActive());",
+                "cs.addBatch();",
+                "cs.executeBatch();",
+                "throw getJdbcTemplate().getExceptionTranslator().translate(this.getClass().getCanonicalName(), getCallString(), e);"
+        );
+        assertNotContains(javaCode, "mapper", "ArrayUtil.free", "UncategorizedSQLException");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithBatchAndArray() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("saveSomething")
+                        .returnTypeInfo(new TypeInfo("void"))
+                        .storedProcedure(getStoredProcedure("sp_save_something"))
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("roleIds", Integer[].class.getCanonicalName()))
+                        .batch(new Variable("users", "java.util.List<at.rseiler.spbee.test.entity.TestEntity>"), getBatch(500))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, new Properties());
+
+        assertContains(javaCode,
+                "List<Array> arrays = new ArrayList<Array>();",
+                "Array roleIdsArray = conn.createArrayOf(\"int\", row.getRoleIds());",
+                "arrays.add(roleIdsArray);",
+                "cs.setArray(2, roleIdsArray);"
+        );
+
+        // the arrays are freed after the full batches, after the last batch and in the finally block
+        assertEquals(3, javaCode.split("cs.executeBatch\\(\\);\\s+ArrayUtil.free\\(arrays\\);", -1).length);
+        assertEquals(4, javaCode.split("ArrayUtil.free\\(arrays\\);", -1).length);
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithPrimitiveColumn() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getIds")
+                        .returnTypeInfo(new TypeInfo(int[].class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_ids"))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "public class SpGetIdsWithIntColumn",
+                "declareParameter(new SqlReturnResultSet(\"#result-set-0\", PrimitiveColumnReader.ints()));"
+        );
+        assertNotContains(javaCode, "Mapper", "executeUnique");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndPrimitiveColumn() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getIds")
+                        .returnTypeInfo(new TypeInfo("java.util.stream.LongStream"))
+                        .storedProcedure(getStoredProcedure("sp_get_ids"))
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "public class SpGetIdsWithLongColumn",
+                "public long[] execute()",
+                "return PrimitiveColumnReader.readLongs(CallableStatementUtil.execute(cs));"
+        );
+        assertNotContains(javaCode, "Mapper", "executeUnique");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithOut() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("countSomething")
+                        .returnTypeInfo(new TypeInfo(long.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_count_something"))
+                        .out(getOut("result"))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames);
+
+        assertContains(javaCode,
+                "public class SpCountSomethingWithOutResult",
+                "declareParameter(new SqlParameter(\"name\", Types.VARCHAR));",
+                "declareParameter(new SqlOutParameter(\"result\", Types.BIGINT));"
+        );
+        assertNotContains(javaCode, "SqlReturnResultSet", "Mapper", "executeUnique");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndOut() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("countSomething")
+                        .returnTypeInfo(new TypeInfo(Integer.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_count_something"))
+                        .out(getOut("result"))
+                        .build()
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "String CALL = \"{call sp_count_something(?, ?)}\";",
+                "public Integer execute(String name)",
+                "cs.setString(1, name);",
+                "cs.registerOutParameter(2, Types.INTEGER);",
+                "cs.execute();",
+                "return cs.getObject(2, Integer.class);"
+        );
+        assertNotContains(javaCode, "Mapper", "executeUnique");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndInstantOut() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getModified")
+                        .returnTypeInfo(new TypeInfo(Instant.class.getCanonicalName()))
+                        .storedProcedure(getStoredProcedure("sp_get_modified"))
+                        .out(getOut("modified"))
+                        .build()
+                        .addArgument(new Variable("id", "int"))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "public Instant execute(int id)",
+                "cs.registerOutParameter(2, Types.TIMESTAMP_WITH_TIMEZONE);",
+                "return JavaTimeUtil.toInstant(cs.getObject(2, OffsetDateTime.class));"
+        );
+        assertNotContains(javaCode, "Instant.class");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecution() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("at.rseiler.spbee.test.entity.TestEntity"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+                        .addArgument(new Variable("id", int.class.getCanonicalName()))
+                        .addArgument(new Variable("name", String.class.getCanonicalName()))
+                        .addArgument(new Variable("count", Integer.class.getCanonicalName()))
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "import at.rseiler.spbee.core.jdbc.CallableStatementUtil;",
+                "import org.springframework.jdbc.datasource.DataSourceUtils;",
+                "public class SpGetSomething {",
+                "String CALL = \"{call sp_get_something(?, ?, ?)}\";",
+                "TestEntityDefaultMapper mapper = new TestEntityDefaultMapper();",
+                "this.dataSource = dataSource;",
+                "public List<TestEntity> execute(int id, String name, Integer count)",
+                "Connection conn = DataSourceUtils.getConnection(dataSource);",
+                "cs = conn.prepareCall(CALL);",
+                "cs.setInt(1, id);",
+                "cs.setString(2, name);",
+                "cs.setObject(3, count, Types.INTEGER);",
+                "ResultSet rs = CallableStatementUtil.execute(cs);",
+                "list.add(mapper.mapRow(rs, list.size()));",
+                "return list;",
+                "throw new UncategorizedSQLException(this.getClass().getCanonicalName(), CALL, e);",
+                "JdbcUtils.closeStatement(cs);",
+                "DataSourceUtils.releaseConnection(conn, dataSource);"
+        );
+        assertNotContains(javaCode, "extends StoredProcedure");
+    }
+
+    @Test
+    public void testGenerateStoredProcedureClassesWithDirectExecutionAndMultipleResultSets() throws Exception {
+        Map<String, ResultSetClass> resultSetClassMap = new HashMap<>();
+        ArrayList<ResultSetVariable> resultSetVariables = new ArrayList<>();
+        resultSetVariables.add(new ResultSetVariable("rs1", "at.rseiler.spbee.test.entity.Test1Entity", null, null, null));
+        resultSetVariables.add(new ResultSetVariable("rs2", "java.util.List<at.rseiler.spbee.test.entity.Test2Entity>", null, null, null));
+        resultSetClassMap.put("MultiResultSet", new ResultSetClass("MultiResultSet", resultSetVariables));
+        Set<String> entityNames = new HashSet<>();
+        DtoClass dtoClass = new DtoClass("at.rseiler.spbee.test.DtoTest", true, false);
+        Properties config = new Properties();
+        config.put("execution", "direct");
+
+        dtoClass.add(new Builder()
+                        .dtoClassName("at.rseiler.spbee.test.DtoTest")
+                        .methodName("getSomething")
+                        .returnTypeInfo(new TypeInfo("MultiResultSet"))
+                        .storedProcedure(getStoredProcedure("sp_get_something"))
+                        .rowMapper(null)
+                        .mappingConstructor(null)
+                        .build()
+        );
+
+        String javaCode = generateJavaCode(dtoClass, resultSetClassMap, entityNames, config);
+
+        assertContains(javaCode,
+                "String CALL = \"{call sp_get_something()}\";",
+                "Test1EntityDefaultMapper mapper0 = new Test1EntityDefaultMapper();",
+                "Test2EntityDefaultMapper mapper1 = new Test2EntityDefaultMapper();",
+                "public Map<String, Object> execute()",
+                "ResultSet rs0 = CallableStatementUtil.execute(cs);",
+                "list0 .add(mapper0 .mapRow(rs0, list0 .size()));",
+                "map.put(\"#result-set-0\", list0);",
+                "ResultSet rs1 = CallableStatementUtil.next(cs);",
+                "map.put(\"#result-set-1\", list1);",
+                "return map;"
+        );
+    }
+
     private String generateJavaCode(DtoClass dtoClass, Map<String, ResultSetClass> resultSetClassMap, Set<String> entityNames) throws IOException, JClassAlreadyExistsException {
+        return generateJavaCode(dtoClass, resultSetClassMap, entityNames, new Properties());
+    }
+
+    private String generateJavaCode(DtoClass dtoClass, Map<String, ResultSetClass> resultSetClassMap, Set<String> entityNames, Properties config) throws IOException, JClassAlreadyExistsException {
         ProcessingEnvironment processingEnv = mock(ProcessingEnvironment.class);
         Filer filer = mock(Filer.class);
         JavaFileObject javaFileObject = mock(JavaFileObject.class);
@@ -236,7 +844,7 @@ public class StoredProcedureGeneratorTest {
         when(filer.createSourceFile(anyString())).thenReturn(javaFileObject);
         when(javaFileObject.openWriter()).thenReturn(stringWriter);
 
-        StoredProcedureGenerator storedProcedureGenerator = new StoredProcedureGenerator(processingEnv, resultSetClassMap);
+        StoredProcedureGenerator storedProcedureGenerator = new StoredProcedureGenerator(processingEnv, config, resultSetClassMap);
         List<DtoClass> dtoClasses = Collections.singletonList(dtoClass);
         storedProcedureGenerator.generateStoredProcedureClasses(dtoClasses);
 
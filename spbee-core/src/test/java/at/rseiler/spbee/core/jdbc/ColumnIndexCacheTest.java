@@ -0,0 +1,105 @@
+package at.rseiler.spbee.core.jdbc;
+
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ColumnIndexCacheTest {
+
+    @Test
+    public void testIndexesAreResolvedOncePerLayout() throws Exception {
+        ColumnIndexCache cache = new ColumnIndexCache("id_user", "name");
+        ResultSet first = resultSet("ID_USER", "NAME", "EMAIL");
+        ResultSet second = resultSet("ID_USER", "NAME", "EMAIL");
+
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(first));
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(first));
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(second));
+
+        verify(first).findColumn("id_user");
+        verify(first).findColumn("name");
+        verify(second, never()).findColumn(anyString());
+    }
+
+    @Test
+    public void testAlternatingLayoutsAreNotResolvedAgain() throws Exception {
+        ColumnIndexCache cache = new ColumnIndexCache("id_user", "name");
+        ResultSet first = resultSet("ID_USER", "NAME");
+        ResultSet reordered = resultSet("NAME", "ID_USER");
+        ResultSet wider = resultSet("EMAIL", "ID_USER", "NAME");
+
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(first));
+        assertArrayEquals(new int[]{2, 1}, cache.resolve(reordered));
+        assertArrayEquals(new int[]{2, 3}, cache.resolve(wider));
+
+        ResultSet second = resultSet("ID_USER", "NAME");
+        ResultSet reorderedAgain = resultSet("NAME", "ID_USER");
+
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(second));
+        assertArrayEquals(new int[]{2, 1}, cache.resolve(reorderedAgain));
+
+        verify(second, never()).findColumn(anyString());
+        verify(reorderedAgain, never()).findColumn(anyString());
+    }
+
+    @Test
+    public void testSameColumnCountWithOtherLabelsIsResolved() throws Exception {
+        ColumnIndexCache cache = new ColumnIndexCache("id_user", "name");
+
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(resultSet("ID_USER", "NAME", "EMAIL")));
+        assertArrayEquals(new int[]{1, 3}, cache.resolve(resultSet("ID_USER", "EMAIL", "NAME")));
+    }
+
+    @Test
+    public void testFollowingRowsDontReadTheMetaData() throws Exception {
+        ColumnIndexCache cache = new ColumnIndexCache("id_user", "name");
+        ResultSet rs = resultSet("NAME", "ID_USER");
+
+        for (int rowNum = 0; rowNum < 3; rowNum++) {
+            assertArrayEquals(new int[]{2, 1}, cache.resolve(rs, rowNum));
+        }
+
+        verify(rs, times(1)).getMetaData();
+    }
+
+    @Test
+    public void testFirstRowOfTheNextResultSetIsResolved() throws Exception {
+        ColumnIndexCache cache = new ColumnIndexCache("id_user", "name");
+        ResultSet first = resultSet("ID_USER", "NAME");
+        ResultSet reordered = resultSet("NAME", "ID_USER");
+        ResultSet other = resultSet("ID_USER", "NAME");
+
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(first, 0));
+        assertArrayEquals(new int[]{2, 1}, cache.resolve(reordered, 0));
+        assertArrayEquals(new int[]{2, 1}, cache.resolve(reordered, 1));
+
+        // e.g. a row of a result set which is mapped concurrently is looked up by its layout
+        assertArrayEquals(new int[]{1, 2}, cache.resolve(other, 1));
+        verify(other, never()).findColumn(anyString());
+    }
+
+    private static ResultSet resultSet(String... columnLabels) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(columnLabels.length);
+
+        for (int i = 0; i < columnLabels.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(columnLabels[i]);
+            when(rs.findColumn(columnLabels[i].toLowerCase())).thenReturn(i + 1);
+        }
+
+        return rs;
+    }
+
+}
@@ -0,0 +1,240 @@
+package at.rseiler.spbee.core.jdbc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ResultSetPublisherTest {
+
+    private static final String SQL = "SELECT id FROM publisher_numbers ORDER BY id";
+
+    private final DataSource dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:publisher", "sa", "");
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger fetched = new AtomicInteger();
+    private Connection conn;
+    private CallableStatement cs;
+    private ResultSet rs;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Flow.Publisher requires Java 9 or newer", isFlowAvailable());
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE publisher_numbers IF EXISTS");
+            statement.execute("CREATE TABLE publisher_numbers (id INTEGER)");
+            statement.execute("INSERT INTO publisher_numbers VALUES (1), (2), (3), (4), (5)");
+        }
+    }
+
+    @Test
+    public void testRowsAreFetchedOnDemand() throws Exception {
+        RecordingSubscriber subscriber = subscribe(numbers());
+        assertEquals(0, opened.get());
+
+        subscriber.request(2);
+        assertEquals(1, opened.get());
+        assertEquals(2, fetched.get());
+        assertEquals(Arrays.asList("next:1", "next:2"), subscriber.signals);
+
+        subscriber.request(2);
+        assertEquals(4, fetched.get());
+        assertEquals(Arrays.asList("next:1", "next:2", "next:3", "next:4"), subscriber.signals);
+        assertFalse(conn.isClosed());
+
+        subscriber.request(2);
+        assertEquals(5, fetched.get());
+        assertEquals(Arrays.asList("next:1", "next:2", "next:3", "next:4", "next:5", "complete"), subscriber.signals);
+        assertClosed();
+    }
+
+    @Test
+    public void testCancelClosesResultSetStatementAndConnection() throws Exception {
+        RecordingSubscriber subscriber = subscribe(numbers());
+
+        subscriber.request(1);
+        assertFalse(rs.isClosed());
+
+        subscriber.cancel();
+        assertClosed();
+
+        subscriber.request(1);
+        assertEquals(1, fetched.get());
+        assertEquals(Collections.singletonList("next:1"), subscriber.signals);
+    }
+
+    @Test
+    public void testCompleteIsSignalledOnce() throws Exception {
+        RecordingSubscriber subscriber = subscribe(numbers());
+
+        subscriber.request(Long.MAX_VALUE);
+        subscriber.request(1);
+        subscriber.request(0);
+        subscriber.cancel();
+
+        assertEquals(Arrays.asList("next:1", "next:2", "next:3", "next:4", "next:5", "complete"), subscriber.signals);
+        assertClosed();
+    }
+
+    @Test
+    public void testErrorIsSignalledOnce() throws Exception {
+        RecordingSubscriber subscriber = subscribe(() -> stream((resultSet, rowNum) -> {
+            if (resultSet.getInt(1) == 2) {
+                throw new SQLException("broken row");
+            }
+
+            return resultSet.getInt(1);
+        }));
+
+        subscriber.request(3);
+        subscriber.request(3);
+        subscriber.request(-1);
+
+        assertEquals(Arrays.asList("next:1", "error:UncategorizedSQLException"), subscriber.signals);
+        assertClosed();
+    }
+
+    @Test
+    public void testRequestZeroIsRejected() throws Exception {
+        RecordingSubscriber subscriber = subscribe(numbers());
+
+        subscriber.request(0);
+        subscriber.request(1);
+
+        assertEquals(Collections.singletonList("error:IllegalArgumentException"), subscriber.signals);
+        assertEquals(0, opened.get());
+    }
+
+    @Test
+    public void testRequestZeroInOnNextIsSignalledAfterOnNext() throws Exception {
+        RecordingSubscriber subscriber = subscribe(numbers());
+        subscriber.requestInOnNext = 0L;
+
+        subscriber.request(2);
+
+        assertEquals(Arrays.asList("next:1", "error:IllegalArgumentException"), subscriber.signals);
+        assertEquals(1, fetched.get());
+        assertClosed();
+    }
+
+    private Supplier<Stream<Integer>> numbers() {
+        return () -> stream((resultSet, rowNum) -> resultSet.getInt(1));
+    }
+
+    private Stream<Integer> stream(RowMapper<Integer> rowMapper) {
+        try {
+            opened.incrementAndGet();
+            conn = dataSource.getConnection();
+            cs = conn.prepareCall(SQL);
+            rs = cs.executeQuery();
+
+            return ResultSetStream.stream(SQL, dataSource, conn, cs, rs, (resultSet, rowNum) -> {
+                fetched.incrementAndGet();
+                return rowMapper.mapRow(resultSet, rowNum);
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private RecordingSubscriber subscribe(Supplier<Stream<Integer>> streamSupplier) throws Exception {
+        Object publisher = ResultSetPublisher.publisher(streamSupplier);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        Class<?> subscriberClass = Class.forName("java.util.concurrent.Flow$Subscriber");
+
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{subscriberClass}, (p, method, args) -> {
+            subscriber.invoke(method.getName(), args);
+            return null;
+        });
+        invoke(publisher, "java.util.concurrent.Flow$Publisher", "subscribe", subscriberClass, proxy);
+
+        return subscriber;
+    }
+
+    private void assertClosed() throws SQLException {
+        assertTrue(rs.isClosed());
+        assertTrue(cs.isClosed());
+        assertTrue(conn.isClosed());
+    }
+
+    private static boolean isFlowAvailable() {
+        try {
+            Class.forName("java.util.concurrent.Flow");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static void invoke(Object target, String className, String methodName, Class<?> parameterType, Object arg) throws Exception {
+        try {
+            Class.forName(className).getMethod(methodName, parameterType).invoke(target, arg);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * A Flow.Subscriber which records the signals and requests rows only if the test asks for it.
+     */
+    private static class RecordingSubscriber {
+
+        private final List<String> signals = new ArrayList<>();
+        private Object subscription;
+        private Long requestInOnNext;
+
+        void invoke(String methodName, Object[] args) throws Exception {
+            switch (methodName) {
+                case "onSubscribe":
+                    subscription = args[0];
+                    break;
+                case "onNext":
+                    signals.add("next:" + args[0]);
+
+                    if (requestInOnNext != null) {
+                        request(requestInOnNext);
+                    }
+                    break;
+                case "onError":
+                    signals.add("error:" + args[0].getClass().getSimpleName());
+                    break;
+                case "onComplete":
+                    signals.add("complete");
+                    break;
+                default:
+                    throw new UnsupportedOperationException(methodName);
+            }
+        }
+
+        void request(long n) throws Exception {
+            ResultSetPublisherTest.invoke(subscription, "java.util.concurrent.Flow$Subscription", "request", long.class, n);
+        }
+
+        void cancel() throws Exception {
+            Class.forName("java.util.concurrent.Flow$Subscription").getMethod("cancel").invoke(subscription);
+        }
+
+    }
+
+}
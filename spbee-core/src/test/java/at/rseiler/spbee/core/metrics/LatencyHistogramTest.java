@@ -0,0 +1,103 @@
+package at.rseiler.spbee.core.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.highestEquivalentValue(value));
+        }
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        // 32..63 are exact too, the sub-buckets of the first power of two have a width of 1
+        assertEquals(32, LatencyHistogram.index(32));
+        assertEquals(63, LatencyHistogram.index(63));
+        assertEquals(63, LatencyHistogram.highestEquivalentValue(63));
+
+        // from 64 on a sub-bucket holds 2 values, from 128 on 4 values, ...
+        assertEquals(64, LatencyHistogram.index(64));
+        assertEquals(64, LatencyHistogram.index(65));
+        assertEquals(65, LatencyHistogram.index(66));
+        assertEquals(65, LatencyHistogram.highestEquivalentValue(64));
+        assertEquals(95, LatencyHistogram.index(127));
+        assertEquals(96, LatencyHistogram.index(128));
+        assertEquals(131, LatencyHistogram.highestEquivalentValue(96));
+
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testHighestEquivalentValueIsTheUpperBoundOfTheBucket() {
+        for (int i = 0; i < LatencyHistogram.index(Long.MAX_VALUE); i++) {
+            long highest = LatencyHistogram.highestEquivalentValue(i);
+
+            assertEquals(i, LatencyHistogram.index(highest));
+            assertEquals(i + 1, LatencyHistogram.index(highest + 1));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.getMean());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(1000, histogram.getPercentile(100));
+        assertWithinPrecision(500, histogram.getPercentile(50));
+        assertWithinPrecision(900, histogram.getPercentile(90));
+        assertWithinPrecision(990, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testPercentileIsNotMoreThanTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+
+        // 1000 is in the bucket 992..1007
+        assertEquals(1000, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void testNegativeValueIsRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+
+        histogram.record(10);
+        assertEquals(10, histogram.getPercentile(50));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 32);
+    }
+
+}
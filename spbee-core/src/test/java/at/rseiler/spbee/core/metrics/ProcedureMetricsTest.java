@@ -0,0 +1,54 @@
+package at.rseiler.spbee.core.metrics;
+
+import at.rseiler.spbee.core.interceptor.ProcedureDescriptor;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProcedureMetricsTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    public void testMetricsAreRegistered() throws Exception {
+        ProcedureDescriptor descriptor = new ProcedureDescriptor("sp_get_user", "at.rseiler.spbee.test.RegisterDao", "getUser", "id");
+        ProcedureMetrics metrics = ProcedureMetrics.register(descriptor);
+        ObjectName name = ProcedureMetrics.getObjectName(descriptor, false);
+
+        try {
+            metrics.success(metrics.start(), null);
+
+            assertEquals(1L, server.getAttribute(name, "Calls"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testRegistrationOfAnExistingNameDoesntThrow() throws Exception {
+        ProcedureDescriptor descriptor = new ProcedureDescriptor("sp_get_user", "at.rseiler.spbee.test.ReloadedDao", "getUser", "id");
+        ObjectName name = ProcedureMetrics.getObjectName(descriptor, false);
+        ObjectName nameWithId = ProcedureMetrics.getObjectName(descriptor, true);
+
+        try {
+            ProcedureMetrics.register(descriptor);
+            ProcedureMetrics.register(descriptor);
+
+            // e.g. the DAO class was loaded again: the metrics with the id are replaced
+            ProcedureMetrics reloaded = ProcedureMetrics.register(descriptor);
+            reloaded.failure(reloaded.start());
+
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(nameWithId, "Errors"));
+        } finally {
+            server.unregisterMBean(name);
+            server.unregisterMBean(nameWithId);
+        }
+    }
+
+}
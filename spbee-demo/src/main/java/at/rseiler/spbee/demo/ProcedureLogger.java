@@ -0,0 +1,93 @@
+package at.rseiler.spbee.demo;
+
+import at.rseiler.spbee.core.interceptor.ProcedureDescriptor;
+import at.rseiler.spbee.core.interceptor.ProcedureInterceptor;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the stored procedure execution durations like the {@link SpLogger}, but with the allocation-free
+ * {@link ProcedureInterceptor}: the token is the start time, so there is no map of the running calls.
+ * <p>
+ * If the stored procedure call exceed 200 ms (default value) then the call is logged as WARNING like:
+ * <code>n ms sp_name UserDao#method</code>.
+ * Example: <code>17 ms sp_get_user UserDao#getUser</code>
+ * <p>
+ * The default value can be changed with the <code>procedure.interceptor.slow.query.duration</code> property in <code>/spbee.properties</code>.
+ * <p>
+ * The logger name is: <code>procedureLogger</code>
+ * If TRACE is enabled then every stored procedure call is logged with its arguments.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public class ProcedureLogger implements ProcedureInterceptor {
+
+    private static final int SLOW_QUERY_DURATION_DEFAULT = 200;
+    private static final String CONFIG = "/spbee.properties";
+    private static final Logger LOG = Logger.getLogger("procedureLogger");
+
+    private final long slowQueryDuration;
+
+    public ProcedureLogger() {
+        int duration = SLOW_QUERY_DURATION_DEFAULT;
+
+        try (InputStream inputStream = ProcedureLogger.class.getResourceAsStream(CONFIG)) {
+            if (inputStream != null) {
+                Properties config = new Properties();
+                config.load(inputStream);
+                String property = config.getProperty("procedure.interceptor.slow.query.duration", String.valueOf(SLOW_QUERY_DURATION_DEFAULT));
+
+                if (property.matches("^\\d+$")) {
+                    duration = Integer.parseInt(property);
+                } else {
+                    LOG.error("procedure.interceptor.slow.query.duration in spbee.properties is not an integer.");
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Failed to read spbee.properties. Using default value.");
+        }
+
+        slowQueryDuration = TimeUnit.MILLISECONDS.toNanos(duration);
+    }
+
+    @Override
+    public long before(ProcedureDescriptor descriptor) {
+        return System.nanoTime();
+    }
+
+    @Override
+    public boolean captureArguments(ProcedureDescriptor descriptor) {
+        return LOG.isTraceEnabled();
+    }
+
+    @Override
+    public void arguments(ProcedureDescriptor descriptor, long token, Object[] arguments) {
+        LOG.trace(getSpInfo(descriptor) + " " + descriptor.getParameterNames() + "=" + Arrays.toString(arguments));
+    }
+
+    @Override
+    public void after(ProcedureDescriptor descriptor, long token) {
+        long executionTime = System.nanoTime() - token;
+
+        if (executionTime > slowQueryDuration) {
+            LOG.warn(getSpInfoWithExecutionTime(descriptor, executionTime));
+        } else if (LOG.isTraceEnabled()) {
+            LOG.trace(getSpInfoWithExecutionTime(descriptor, executionTime));
+        }
+    }
+
+    private static String getSpInfoWithExecutionTime(ProcedureDescriptor descriptor, long executionTime) {
+        return TimeUnit.NANOSECONDS.toMillis(executionTime) + " ms " + getSpInfo(descriptor);
+    }
+
+    private static String getSpInfo(ProcedureDescriptor descriptor) {
+        String daoName = descriptor.getDaoName().substring(descriptor.getDaoName().lastIndexOf('.') + 1);
+        return descriptor.getProcedureName() + " " + daoName + "#" + descriptor.getMethodName();
+    }
+
+}
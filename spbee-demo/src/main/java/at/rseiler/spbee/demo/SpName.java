@@ -9,6 +9,7 @@ public interface SpName {
 
     String GET_SIMPLE_USERS = "sp_get_simple_users";
     String GET_USERS = "sp_get_users";
+    String COUNT_USERS = "sp_count_users";
     String GET_USERS_BY_IDS = "sp_get_users_by_ids";
     String GET_USER = "sp_get_user";
     String GET_USER_WITH_PERMISSIONS = "sp_get_user_with_permissions";
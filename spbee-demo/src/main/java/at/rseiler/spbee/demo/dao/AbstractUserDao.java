@@ -1,6 +1,8 @@
 package at.rseiler.spbee.demo.dao;
 
+import at.rseiler.spbee.core.annotation.Chunked;
 import at.rseiler.spbee.core.annotation.Dao;
+import at.rseiler.spbee.core.annotation.MicroBatch;
 import at.rseiler.spbee.core.annotation.ReturnNull;
 import at.rseiler.spbee.core.annotation.RowMapper;
 import at.rseiler.spbee.core.annotation.StoredProcedure;
@@ -15,6 +17,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,9 +54,21 @@ public abstract class AbstractUserDao {
     @StoredProcedure(SpName.GET_USER)
     public abstract User getUserPossibleNull(int id);
 
+    @ReturnNull
+    @MicroBatch("getUsersByIds")
+    @StoredProcedure(SpName.GET_USER)
+    public abstract User getUserBatched(int id);
+
     @StoredProcedure(SpName.GET_USERS_BY_IDS)
     public abstract List<User> getUsersByIds(Integer[] ids);
 
+    @StoredProcedure(SpName.GET_USERS_BY_IDS)
+    public abstract List<User> getUsersByPrimitiveIds(int[] ids);
+
+    @Chunked(value = 1, parallelism = 2)
+    @StoredProcedure(SpName.GET_USERS_BY_IDS)
+    public abstract List<User> getUsersByIdsChunked(Integer[] ids);
+
     public User userDataSourceDirectly(int id) {
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement("SELECT id, name, created FROM USER WHERE id=?")
@@ -62,7 +77,7 @@ public abstract class AbstractUserDao {
             try (ResultSet resultSet = statement.executeQuery()) {
 
                 if (resultSet.next()) {
-                    return new User(resultSet.getInt(1), resultSet.getString(2), resultSet.getTimestamp(3));
+                    return new User(resultSet.getInt(1), resultSet.getString(2), resultSet.getObject(3, LocalDateTime.class));
                 }
             }
         } catch (SQLException e) {
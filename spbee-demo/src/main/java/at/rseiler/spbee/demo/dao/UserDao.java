@@ -1,10 +1,17 @@
 package at.rseiler.spbee.demo.dao;
 
+import at.rseiler.spbee.core.annotation.Batch;
+import at.rseiler.spbee.core.annotation.Cached;
 import at.rseiler.spbee.core.annotation.Dao;
+import at.rseiler.spbee.core.annotation.Evict;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
+import at.rseiler.spbee.core.annotation.Out;
+import at.rseiler.spbee.core.annotation.SingleFlight;
 import at.rseiler.spbee.core.annotation.StoredProcedure;
+import at.rseiler.spbee.core.cache.CachedDao;
 import at.rseiler.spbee.demo.McName;
 import at.rseiler.spbee.demo.SpName;
+import at.rseiler.spbee.demo.entity.NewUser;
 import at.rseiler.spbee.demo.entity.User;
 import at.rseiler.spbee.demo.resultset.UserPermissionsResultSet;
 import org.hsqldb.HsqlException;
@@ -15,26 +22,59 @@ import java.sql.SQLSyntaxErrorException;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
  */
-@Dao
-public interface UserDao {
+@Dao(async = true)
+public interface UserDao extends CachedDao {
 
     @StoredProcedure(SpName.GET_USERS)
     List<User> getUsers();
 
+    @StoredProcedure(SpName.GET_USERS)
+    CompletableFuture<List<User>> getUsersAsync();
+
+    @StoredProcedure(SpName.GET_USERS)
+    Stream<User> streamUsers();
+
+    @StoredProcedure(SpName.GET_USERS)
+    void forEachUser(Consumer<User> consumer);
+
+    @StoredProcedure(SpName.GET_USERS)
+    int[] getUserIds();
+
+    @StoredProcedure(SpName.GET_USERS)
+    LongStream streamUserIds();
+
+    @Out("count_")
+    @StoredProcedure(SpName.COUNT_USERS)
+    int countUsers();
+
     @StoredProcedure(SpName.GET_USER)
     User getUser(int id);
 
     @StoredProcedure(SpName.GET_USER)
     Optional<User> getUserOptional(int id);
 
+    @Cached(ttl = 1, unit = TimeUnit.MINUTES, maxEntries = 100)
+    @StoredProcedure(SpName.GET_USER)
+    User getCachedUser(int id);
+
+    @Cached(ttl = 1, unit = TimeUnit.MINUTES)
+    @StoredProcedure(SpName.GET_USERS_BY_IDS)
+    List<User> getCachedUsersByIds(Integer[] ids);
+
     @StoredProcedure(SpName.GET_USER)
     @MappingConstructor(McName.SIMPLE_USER)
     User getSimpleUserMappingConstructor(int id);
 
+    @SingleFlight
     @StoredProcedure(SpName.GET_USER_WITH_PERMISSIONS)
     UserPermissionsResultSet getUserWithPermissions(int id);
 
@@ -43,7 +83,13 @@ public interface UserDao {
     List<User> getSimpleUsersWithMappingConstructor();
 
     @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = {SQLSyntaxErrorException.class, HsqlException.class})
+    @Evict(value = {"getCachedUser", "getCachedUsersByIds"}, key = "id")
     @StoredProcedure(SpName.SAVE_USER)
     void saveUser(int id, String name, Timestamp created);
 
+    @Batch(2)
+    @Evict({"getCachedUser", "getCachedUsersByIds"})
+    @StoredProcedure(SpName.SAVE_USER)
+    void saveUsers(List<NewUser> users);
+
 }
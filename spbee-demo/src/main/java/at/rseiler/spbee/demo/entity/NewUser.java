@@ -0,0 +1,43 @@
+package at.rseiler.spbee.demo.entity;
+
+import java.sql.Timestamp;
+
+/**
+ * The parameters of the save user stored procedure, used for the batch execution.
+ *
+ * @author Reinhard Seiler {@literal <rseiler.developer@gmail.com>}
+ */
+public class NewUser {
+
+    private final int id;
+    private final String name;
+    private final Timestamp created;
+
+    public NewUser(int id, String name, Timestamp created) {
+        this.id = id;
+        this.name = name;
+        this.created = created;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Timestamp getCreated() {
+        return created;
+    }
+
+    @Override
+    public String toString() {
+        return "NewUser{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", created=" + created +
+                '}';
+    }
+
+}
@@ -1,5 +1,6 @@
 package at.rseiler.spbee.demo.entity;
 
+import at.rseiler.spbee.core.annotation.Column;
 import at.rseiler.spbee.core.annotation.Entity;
 
 /**
@@ -11,7 +12,7 @@ public class Permission {
     private final String name;
     private final int value;
 
-    public Permission(String name, int value) {
+    public Permission(@Column("name") String name, @Column("value") int value) {
         this.name = name;
         this.value = value;
     }
@@ -1,12 +1,11 @@
 package at.rseiler.spbee.demo.entity;
 
 import at.rseiler.spbee.core.annotation.Entity;
+import at.rseiler.spbee.core.annotation.Key;
 import at.rseiler.spbee.core.annotation.MappingConstructor;
 import at.rseiler.spbee.demo.McName;
 
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,7 +24,7 @@ public class User {
     }
 
     @MappingConstructor
-    public User(int id, String name, Timestamp created) {
+    public User(@Key int id, String name, LocalDateTime created) {
         this(id, name, created, new ArrayList<>());
     }
 
@@ -34,10 +33,10 @@ public class User {
         this(id, "-", null, new ArrayList<>());
     }
 
-    public User(int id, String name, Timestamp created, List<Permission> permissions) {
+    public User(int id, String name, LocalDateTime created, List<Permission> permissions) {
         this.id = id;
         this.name = name;
-        this.created = created != null ? created.toLocalDateTime().atZone(ZoneId.systemDefault()).toLocalDateTime() : null;
+        this.created = created;
         this.permissions = permissions;
     }
 
@@ -4,6 +4,9 @@ DROP PROCEDURE sp_save_user;
 DROP PROCEDURE sp_get_users;
 --;
 
+DROP PROCEDURE sp_count_users;
+--;
+
 DROP PROCEDURE sp_get_users_by_ids;
 --;
 
@@ -25,6 +25,13 @@ CREATE PROCEDURE sp_save_user(id_ INT, name_ VARCHAR(20), created_ TIMESTAMP)
   MODIFIES SQL DATA
   INSERT INTO User VALUES (id_, name_, created_);
 
+CREATE PROCEDURE sp_count_users(OUT count_ INT)
+  READS SQL DATA
+  BEGIN ATOMIC
+    SET count_ = (SELECT COUNT(*) FROM User);
+  END
+;;
+
 CREATE PROCEDURE sp_get_users()
   READS SQL DATA
   DYNAMIC RESULT SETS 1
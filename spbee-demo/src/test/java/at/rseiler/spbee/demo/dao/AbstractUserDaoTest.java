@@ -4,8 +4,10 @@ import at.rseiler.spbee.demo.entity.User;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -57,4 +59,36 @@ public class AbstractUserDaoTest extends AbstractTest {
         assertThat(users.get(0).getId(), is(1));
         assertThat(users.get(1).getId(), is(3));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetUserBatched() throws Exception {
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+
+        for (int id : new int[]{1, 2, 3, -1, 2}) {
+            futures.add(CompletableFuture.supplyAsync(() -> abstractUserDao.getUserBatched(id)));
+        }
+
+        assertThat(futures.get(0).get().getId(), is(1));
+        assertThat(futures.get(1).get().getId(), is(2));
+        assertThat(futures.get(2).get().getId(), is(3));
+        assertNull(futures.get(3).get());
+        assertThat(futures.get(4).get().getId(), is(2));
+    }
+
+    @Test
+    public void testGetUsersByPrimitiveIds() throws Exception {
+        List<User> users = abstractUserDao.getUsersByPrimitiveIds(new int[]{1, 3});
+        assertThat(users.size(), is(2));
+        assertThat(users.get(0).getId(), is(1));
+        assertThat(users.get(1).getId(), is(3));
+    }
+
+    @Test
+    public void testGetUsersByIdsChunked() throws Exception {
+        List<User> users = abstractUserDao.getUsersByIdsChunked(new Integer[]{3, 1, 2});
+        assertThat(users.size(), is(3));
+        assertThat(users.get(0).getId(), is(3));
+        assertThat(users.get(1).getId(), is(1));
+        assertThat(users.get(2).getId(), is(2));
+    }
+}
@@ -1,20 +1,33 @@
 package at.rseiler.spbee.demo.dao;
 
+import at.rseiler.spbee.core.cache.ProcedureCache;
 import at.rseiler.spbee.core.exception.MultipleObjectsReturned;
 import at.rseiler.spbee.core.exception.ObjectDoesNotExist;
+import at.rseiler.spbee.demo.entity.NewUser;
 import at.rseiler.spbee.demo.entity.User;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 
 public class UserDaoTest extends AbstractTest {
@@ -22,11 +35,96 @@ public class UserDaoTest extends AbstractTest {
     @Autowired
     public UserDao userDao;
 
+    @Autowired
+    public UserAsyncDao userAsyncDao;
+
     @Test
     public void testGetUsers() throws Exception {
         assertThat(userDao.getUsers().size(), is(5));
     }
 
+    @Test
+    public void testGetUsersAsync() throws Exception {
+        assertThat(userDao.getUsersAsync().get().size(), is(5));
+    }
+
+    @Test
+    public void testUserAsyncDao() throws Exception {
+        CompletableFuture<User> user = userAsyncDao.getUser(2);
+        CompletableFuture<List<User>> users = userAsyncDao.getUsers();
+        assertThat(user.get().getName(), is("user2"));
+        assertThat(users.get().size(), is(5));
+    }
+
+    @Test
+    public void testStreamUsers() throws Exception {
+        try (Stream<User> users = userDao.streamUsers()) {
+            assertThat(users.map(User::getId).filter(id -> id > 1).count(), is(4L));
+        }
+    }
+
+    @Test
+    public void testForEachUser() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        userDao.forEachUser(user -> ids.add(user.getId()));
+        Collections.sort(ids);
+        assertThat(ids, is(Arrays.asList(1, 2, 3, 4, 4)));
+    }
+
+    @Test
+    public void testGetUserIds() throws Exception {
+        int[] ids = userDao.getUserIds();
+        Arrays.sort(ids);
+        assertThat(ids, is(new int[]{1, 2, 3, 4, 4}));
+    }
+
+    @Test
+    public void testStreamUserIds() throws Exception {
+        assertThat(userDao.streamUserIds().sorted().toArray(), is(new long[]{1, 2, 3, 4, 4}));
+    }
+
+    @Test
+    public void testCountUsers() throws Exception {
+        assertThat(userDao.countUsers(), is(5));
+    }
+
+    @Test
+    public void testGetCachedUser() throws Exception {
+        userDao.invalidateCaches();
+        ProcedureCache<?> cache = userDao.getCache("getCachedUser");
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        User user = userDao.getCachedUser(2);
+        assertThat(user.getName(), is("user2"));
+        assertSame(user, userDao.getCachedUser(2));
+        assertThat(cache.getHitCount() - hits, is(1L));
+        assertThat(cache.getMissCount() - misses, is(1L));
+
+        userDao.invalidateCaches();
+        assertNotSame(user, userDao.getCachedUser(2));
+    }
+
+    @Test
+    public void testGetCachedUsersByIds() throws Exception {
+        userDao.invalidateCaches();
+        ProcedureCache<?> cache = userDao.getCache("getCachedUsersByIds");
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        List<User> users = userDao.getCachedUsersByIds(new Integer[]{3, 1});
+        assertThat(users.size(), is(2));
+        assertThat(cache.getMissCount() - misses, is(2L));
+
+        users = userDao.getCachedUsersByIds(new Integer[]{1, 2, 3});
+        assertThat(users.size(), is(3));
+        assertThat(users.get(0).getId(), is(1));
+        assertThat(users.get(1).getId(), is(2));
+        assertThat(users.get(2).getId(), is(3));
+        assertThat(cache.getHitCount() - hits, is(2L));
+        assertThat(cache.getMissCount() - misses, is(3L));
+    }
+
     @Test
     public void testGetUser() throws Exception {
         User user = userDao.getUser(2);
@@ -67,6 +165,21 @@ public class UserDaoTest extends AbstractTest {
         assertThat(user.getPermissions().size(), is(2));
     }
 
+    @Test
+    public void testGetUserWithPermissionsConcurrently() throws Exception {
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> userDao.getUserWithPermissions(1).getUser().get()));
+        }
+
+        for (CompletableFuture<User> future : futures) {
+            User user = future.get();
+            assertThat(user.getId(), is(1));
+            assertThat(user.getPermissions().size(), is(2));
+        }
+    }
+
     @Test
     public void testGetSimpleUsersWithMappingConstructor() throws Exception {
         List<User> users = userDao.getSimpleUsersWithMappingConstructor();
@@ -78,13 +191,55 @@ public class UserDaoTest extends AbstractTest {
     @Test
     @DirtiesContext
     public void testSaveUser() throws Exception {
+        User cachedUser = userDao.getCachedUser(2);
         userDao.saveUser(5, "saved-user", new Timestamp(System.currentTimeMillis()));
         assertThat(userDao.getUser(5).getName(), is("saved-user"));
+        assertThat(userDao.getCachedUser(5).getName(), is("saved-user"));
+        // only the entry of the saved user is invalidated
+        assertSame(cachedUser, userDao.getCachedUser(2));
 
         List<User> users = userDao.getSimpleUsersWithMappingConstructor();
         assertThat(users.size(), is(6));
     }
 
+    @Test
+    @DirtiesContext
+    public void testSaveUsers() throws Exception {
+        Timestamp created = new Timestamp(System.currentTimeMillis());
+        User cachedUser = userDao.getCachedUser(2);
+        userDao.saveUsers(Arrays.asList(new NewUser(5, "saved-user-5", created), new NewUser(6, "saved-user-6", created), new NewUser(7, "saved-user-7", created)));
+        assertNotSame(cachedUser, userDao.getCachedUser(2));
+        assertThat(userDao.getUser(5).getName(), is("saved-user-5"));
+        assertThat(userDao.getUser(7).getName(), is("saved-user-7"));
+
+        List<User> users = userDao.getSimpleUsersWithMappingConstructor();
+        assertThat(users.size(), is(8));
+    }
+
+    @Test
+    public void testProcedureMetrics() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("at.rseiler.spbee:type=ProcedureMetrics,dao=at.rseiler.spbee.demo.dao.UserDao,method=getUser");
+        long calls = (Long) server.getAttribute(name, "Calls");
+        long errors = (Long) server.getAttribute(name, "Errors");
+        long rows = (Long) server.getAttribute(name, "Rows");
+
+        userDao.getUser(2);
+
+        try {
+            userDao.getUser(-1);
+        } catch (ObjectDoesNotExist e) {
+            // counted as error
+        }
+
+        assertThat(server.getAttribute(name, "ProcedureName"), is("sp_get_user"));
+        assertThat((Long) server.getAttribute(name, "Calls") - calls, is(2L));
+        assertThat((Long) server.getAttribute(name, "Errors") - errors, is(1L));
+        assertThat((Long) server.getAttribute(name, "Rows") - rows, is(1L));
+        assertThat(server.getAttribute(name, "InFlight"), is(0L));
+        assertTrue((Long) server.getAttribute(name, "P99Nanos") > 0);
+    }
+
     @Test(expected = ObjectDoesNotExist.class)
     public void testObjectDoesNotExist() {
         userDao.getUser(-1);